@@ -0,0 +1,107 @@
+package com.weatherapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weatherapp.dto.WeatherData;
+import com.weatherapp.dto.openweathermap.ForecastResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * DailyForecastBenchmark - Single-Pass vs Grouping Daily Forecast Aggregation
+ *
+ * Compares the daily forecast aggregation of WeatherDataMapper (one sweep
+ * over primitive accumulators, see DailyForecastAggregator) with the former
+ * implementation, kept here as the baseline: a HashMap of ArrayLists keyed
+ * by formatted date strings, sorted keys and one stream pass per statistic.
+ * Both run on the 40 entries of the recorded forecast fixture.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.args="-prof gc DailyForecastBenchmark"
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DailyForecastBenchmark {
+
+    private List<WeatherData.HourlyForecast> hourlyForecast;
+    private WeatherDataMapper mapper;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = new WeatherDataMapper();
+        ReflectionTestUtils.setField(mapper, "units", "metric");
+
+        try (InputStream in = getClass().getResourceAsStream("/fixtures/openweathermap/forecast.json")) {
+            if (in == null) {
+                throw new IOException("Missing fixture forecast.json");
+            }
+            WeatherData forecast = new WeatherData();
+            mapper.extractForecastData(new ObjectMapper().readValue(in, ForecastResponse.class), forecast);
+            hourlyForecast = forecast.getHourlyForecast();
+        }
+    }
+
+    @Benchmark
+    public List<WeatherData.DailyForecast> singlePass() {
+        return mapper.generateDailyForecast(hourlyForecast);
+    }
+
+    @Benchmark
+    public List<WeatherData.DailyForecast> groupingBaseline() {
+        List<WeatherData.DailyForecast> dailyForecast = new ArrayList<>();
+        Map<String, List<WeatherData.HourlyForecast>> dailyGroups = new HashMap<>();
+
+        for (WeatherData.HourlyForecast hourly : hourlyForecast) {
+            String dayKey = hourly.getTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+            dailyGroups.computeIfAbsent(dayKey, k -> new ArrayList<>()).add(hourly);
+        }
+
+        List<String> sortedDayKeys = dailyGroups.keySet().stream()
+                .sorted()
+                .collect(Collectors.toList());
+
+        for (String dayKey : sortedDayKeys) {
+            List<WeatherData.HourlyForecast> dayData = dailyGroups.get(dayKey);
+
+            WeatherData.DailyForecast daily = new WeatherData.DailyForecast();
+            daily.setDate(dayData.get(0).getTime());
+            daily.setMinTemperature(dayData.stream().mapToDouble(h -> h.getTemperature()).min().orElse(0));
+            daily.setMaxTemperature(dayData.stream().mapToDouble(h -> h.getTemperature()).max().orElse(0));
+            daily.setWeatherCondition(dayData.get(0).getWeatherCondition());
+            daily.setWeatherIcon(dayData.get(0).getWeatherIcon());
+            daily.setHumidity((int) Math.round(dayData.stream()
+                    .mapToDouble(h -> h.getHumidity() != null ? h.getHumidity() : 0).average().orElse(0)));
+            daily.setWindSpeed(dayData.stream()
+                    .mapToDouble(h -> h.getWindSpeed() != null ? h.getWindSpeed() : 0).average().orElse(0));
+            daily.setPrecipitation((int) Math.round(dayData.stream()
+                    .mapToDouble(h -> h.getPrecipitation() != null ? h.getPrecipitation() : 0).average().orElse(0)));
+            dailyForecast.add(daily);
+        }
+
+        return dailyForecast;
+    }
+}
@@ -0,0 +1,208 @@
+package com.weatherapp.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weatherapp.dto.WeatherData;
+import com.weatherapp.dto.openweathermap.AirPollutionResponse;
+import com.weatherapp.dto.openweathermap.CurrentWeatherResponse;
+import com.weatherapp.dto.openweathermap.ForecastResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WeatherMappingBenchmark - Benchmarks for the Parsing and Aggregation Hot Paths
+ *
+ * Every cache miss parses three OpenWeatherMap payloads and maps them into
+ * one WeatherData. These benchmarks measure each step on the recorded
+ * payloads in src/test/resources/fixtures/openweathermap, so changes to
+ * WeatherDataMapper or the location matching can be compared against a
+ * baseline:
+ * - extractCurrentWeather, extractForecast, generateDailyForecast: mapping
+ *   of already parsed responses
+ * - findBestLocationMatch: choosing among geocoding results
+ * - parseAndMap: JSON bytes of all three datasets to a complete WeatherData
+ * - parseForecast, parseForecastMapBaseline: JSON bytes of a forecast to
+ *   the hourly and daily forecast, through the typed ForecastResponse and
+ *   through the former untyped Map parsing with instanceof checks
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec
+ * The default arguments add the GC profiler, whose gc.alloc.rate.norm
+ * column is the allocation per operation.
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WeatherMappingBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private WeatherDataMapper mapper;
+
+    private byte[] weatherJson;
+    private byte[] forecastJson;
+    private byte[] airPollutionJson;
+
+    private CurrentWeatherResponse currentResponse;
+    private ForecastResponse forecastResponse;
+    private List<WeatherData.HourlyForecast> hourlyForecast;
+    private List<Map<String, Object>> locations;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = new WeatherDataMapper();
+        ReflectionTestUtils.setField(mapper, "units", "metric");
+
+        weatherJson = fixture("weather.json");
+        forecastJson = fixture("forecast.json");
+        airPollutionJson = fixture("air_pollution.json");
+
+        currentResponse = objectMapper.readValue(weatherJson, CurrentWeatherResponse.class);
+        forecastResponse = objectMapper.readValue(forecastJson, ForecastResponse.class);
+        WeatherData forecast = new WeatherData();
+        mapper.extractForecastData(forecastResponse, forecast);
+        hourlyForecast = forecast.getHourlyForecast();
+        locations = objectMapper.readValue(fixture("geocoding-direct.json"), new TypeReference<>() {
+        });
+    }
+
+    @Benchmark
+    public WeatherData extractCurrentWeather() {
+        return mapper.extractCurrentWeatherData(currentResponse);
+    }
+
+    @Benchmark
+    public WeatherData extractForecast() {
+        WeatherData weatherData = new WeatherData();
+        mapper.extractForecastData(forecastResponse, weatherData);
+        return weatherData;
+    }
+
+    @Benchmark
+    public List<WeatherData.DailyForecast> generateDailyForecast() {
+        return mapper.generateDailyForecast(hourlyForecast);
+    }
+
+    @Benchmark
+    public Map<String, Object> findBestLocationMatch() {
+        return WeatherService.findBestLocationMatch(locations, "Pune,IN");
+    }
+
+    @Benchmark
+    public WeatherData parseAndMap() throws IOException {
+        WeatherData weatherData = mapper.extractCurrentWeatherData(
+                objectMapper.readValue(weatherJson, CurrentWeatherResponse.class));
+        mapper.extractForecastData(objectMapper.readValue(forecastJson, ForecastResponse.class), weatherData);
+        mapper.extractAQIData(objectMapper.readValue(airPollutionJson, AirPollutionResponse.class), weatherData);
+        return weatherData;
+    }
+
+    @Benchmark
+    public WeatherData parseForecast() throws IOException {
+        WeatherData weatherData = new WeatherData();
+        mapper.extractForecastData(objectMapper.readValue(forecastJson, ForecastResponse.class), weatherData);
+        return weatherData;
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public WeatherData parseForecastMapBaseline() throws IOException {
+        Map<String, Object> response = objectMapper.readValue(forecastJson, new TypeReference<>() {
+        });
+        List<Map<String, Object>> list = (List<Map<String, Object>>) response.get("list");
+        List<WeatherData.HourlyForecast> hourlyForecast = new ArrayList<>();
+
+        for (Map<String, Object> item : list) {
+            Object dtObj = item.get("dt");
+            long timestamp = 0;
+            if (dtObj instanceof Integer) {
+                timestamp = ((Integer) dtObj).longValue();
+            } else if (dtObj instanceof Long) {
+                timestamp = (Long) dtObj;
+            }
+
+            Map<String, Object> main = (Map<String, Object>) item.get("main");
+            List<Map<String, Object>> weather = (List<Map<String, Object>>) item.get("weather");
+            Map<String, Object> wind = (Map<String, Object>) item.get("wind");
+
+            if (main != null && weather != null && !weather.isEmpty()) {
+                WeatherData.HourlyForecast hourly = new WeatherData.HourlyForecast();
+                hourly.setTime(LocalDateTime.ofInstant(Instant.ofEpochSecond(timestamp), ZoneId.systemDefault()));
+
+                Object tempObj = main.get("temp");
+                if (tempObj instanceof Integer) {
+                    hourly.setTemperature(((Integer) tempObj).doubleValue());
+                } else if (tempObj instanceof Double) {
+                    hourly.setTemperature((Double) tempObj);
+                }
+
+                hourly.setWeatherCondition((String) weather.get(0).get("description"));
+                hourly.setWeatherIcon((String) weather.get(0).get("icon"));
+
+                Object humidityObj = main.get("humidity");
+                if (humidityObj instanceof Integer) {
+                    hourly.setHumidity((Integer) humidityObj);
+                }
+
+                if (wind != null) {
+                    Object speedObj = wind.get("speed");
+                    if (speedObj instanceof Integer) {
+                        hourly.setWindSpeed(((Integer) speedObj).doubleValue());
+                    } else if (speedObj instanceof Double) {
+                        hourly.setWindSpeed((Double) speedObj);
+                    }
+                }
+
+                Map<String, Object> rain = (Map<String, Object>) item.get("rain");
+                Object rain3hObj = rain != null ? rain.get("3h") : null;
+                if (rain3hObj instanceof Integer) {
+                    hourly.setPrecipitation((Integer) rain3hObj);
+                } else if (rain3hObj instanceof Double) {
+                    hourly.setPrecipitation(((Double) rain3hObj).intValue());
+                } else {
+                    hourly.setPrecipitation(0);
+                }
+
+                hourlyForecast.add(hourly);
+            }
+        }
+
+        // Same daily aggregation as parseForecast, so only the parsing differs
+        WeatherData weatherData = new WeatherData();
+        weatherData.setHourlyForecast(hourlyForecast);
+        weatherData.setDailyForecast(mapper.generateDailyForecast(hourlyForecast));
+        return weatherData;
+    }
+
+    private static byte[] fixture(String name) throws IOException {
+        try (InputStream in = WeatherMappingBenchmark.class.getResourceAsStream("/fixtures/openweathermap/" + name)) {
+            if (in == null) {
+                throw new IOException("Missing fixture " + name);
+            }
+            return in.readAllBytes();
+        }
+    }
+}
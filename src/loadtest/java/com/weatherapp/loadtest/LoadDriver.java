@@ -0,0 +1,324 @@
+package com.weatherapp.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.weatherapp.WeatherWebAppApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LoadDriver - Repeatable Load Test of the Weather Endpoints
+ *
+ * Starts a StubOpenWeatherMapServer, boots the application against it (or
+ * targets an already running instance with --target) and drives each path
+ * at increasing concurrency. Every level is a closed loop: each of the N
+ * workers sends its next request as soon as the previous one is answered.
+ *
+ * City names are drawn from a Zipf distribution over --cities names, so a
+ * few cities are hot and the long tail produces cache misses, like real
+ * traffic. Caches stay warm from one level to the next; the warm-up of each
+ * level is not measured.
+ *
+ * The report (throughput, error count and latency percentiles per path and
+ * level, plus all options) is printed and written as JSON and Markdown to
+ * --report-dir, to be compared between builds.
+ *
+ * Run with: mvn -Pload-test test-compile exec:exec -Dloadtest.args="--levels=1,8,32"
+ *
+ * Options (all optional):
+ * - --target: base URL of a running application; its upstream URLs must
+ *   point at a stub started with StubOpenWeatherMapServer.main
+ * - --paths: comma-separated paths, default /weather,/api/weather
+ * - --levels: comma-separated concurrency levels, default 1,4,16,64
+ * - --warmup, --duration: per level, default 5s and 20s
+ * - --cities, --zipf: city pool size and skew, default 500 and 1.0
+ * - --report-dir: default target/load-test
+ * - the stub options documented in StubOpenWeatherMapServer.Settings
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+public final class LoadDriver {
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    private final String target;
+    private final String[] cities;
+    private final double[] cityCdf;
+
+    private LoadDriver(String target, int cityCount, double zipf) {
+        this.target = target;
+        this.cities = new String[cityCount];
+        this.cityCdf = new double[cityCount];
+        double total = 0;
+        for (int i = 0; i < cityCount; i++) {
+            cities[i] = String.format(Locale.ROOT, "city%04d", i + 1);
+            total += 1 / Math.pow(i + 1, zipf);
+            cityCdf[i] = total;
+        }
+        for (int i = 0; i < cityCount; i++) {
+            cityCdf[i] /= total;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        List<String> paths = List.of(options.getOrDefault("paths", "/weather,/api/weather").split(","));
+        int[] levels = Arrays.stream(options.getOrDefault("levels", "1,4,16,64").split(","))
+                .mapToInt(level -> Integer.parseInt(level.trim())).toArray();
+        Duration warmup = duration(options.getOrDefault("warmup", "5s"));
+        Duration duration = duration(options.getOrDefault("duration", "20s"));
+        int cityCount = Integer.parseInt(options.getOrDefault("cities", "500"));
+        double zipf = Double.parseDouble(options.getOrDefault("zipf", "1.0"));
+
+        try (StubOpenWeatherMapServer stub = StubOpenWeatherMapServer.start(0,
+                StubOpenWeatherMapServer.Settings.from(options))) {
+            ConfigurableApplicationContext application = null;
+            String target = options.get("target");
+            if (target == null) {
+                application = startApplication(stub);
+                target = "http://localhost:" + ((WebServerApplicationContext) application).getWebServer().getPort();
+            }
+
+            try {
+                LoadDriver driver = new LoadDriver(target, cityCount, zipf);
+                List<LevelResult> results = new ArrayList<>();
+                for (String path : paths) {
+                    for (int level : levels) {
+                        LevelResult result = driver.runLevel(path.trim(), level, warmup, duration);
+                        System.out.println(result.toMarkdownRow());
+                        results.add(result);
+                    }
+                }
+                writeReport(options, stub.counters(), results);
+            } finally {
+                if (application != null) {
+                    application.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Boot the application against the stub
+     *
+     * The upstream quota is lifted, since the stub costs nothing, and
+     * snapshots are disabled so every run starts with cold caches.
+     */
+    private static ConfigurableApplicationContext startApplication(StubOpenWeatherMapServer stub) {
+        return new SpringApplicationBuilder(WeatherWebAppApplication.class)
+                .properties(
+                        "server.port=0",
+                        "weather.api.base-url=" + stub.baseUrl() + "/data/2.5",
+                        "weather.api.geocoding-url=" + stub.baseUrl() + "/geo/1.0",
+                        "weather.http.warmup.enabled=false",
+                        "weather.cache.snapshot.enabled=false",
+                        "weather.upstream.quota.per-minute=1000000",
+                        "weather.upstream.quota.per-day=1000000000",
+                        "logging.level.com.weatherapp=WARN")
+                .run();
+    }
+
+    private LevelResult runLevel(String path, int concurrency, Duration warmup, Duration duration) throws Exception {
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long measureUntil = measureFrom + duration.toNanos();
+
+        List<Future<Recorder>> workers = new ArrayList<>(concurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                workers.add(executor.submit(() -> work(path, measureFrom, measureUntil)));
+            }
+        }
+
+        Recorder total = new Recorder();
+        for (Future<Recorder> worker : workers) {
+            total.addAll(worker.get());
+        }
+        return total.result(path, concurrency, duration);
+    }
+
+    private Recorder work(String path, long measureFrom, long measureUntil) {
+        Recorder recorder = new Recorder();
+        while (true) {
+            long start = System.nanoTime();
+            if (start - measureUntil >= 0) {
+                return recorder;
+            }
+            String city = nextCity();
+            HttpRequest request = HttpRequest.newBuilder(URI.create(target + path + "?city="
+                            + URLEncoder.encode(city, StandardCharsets.UTF_8)))
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+            boolean ok;
+            try {
+                ok = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 400;
+            } catch (IOException e) {
+                ok = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return recorder;
+            }
+            long end = System.nanoTime();
+            if (start - measureFrom >= 0 && end - measureUntil <= 0) {
+                recorder.record(end - start, ok);
+            }
+        }
+    }
+
+    private String nextCity() {
+        int index = Arrays.binarySearch(cityCdf, ThreadLocalRandom.current().nextDouble());
+        return cities[Math.min(index < 0 ? -index - 1 : index, cities.length - 1)];
+    }
+
+    private static void writeReport(Map<String, String> options, Map<String, Long> stubCounters,
+                                    List<LevelResult> results) throws IOException {
+        Path directory = Path.of(options.getOrDefault("report-dir", "target/load-test"));
+        Files.createDirectories(directory);
+        String name = "load-test-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("options", options);
+        report.put("stub", stubCounters);
+        report.put("results", results);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(directory.resolve(name + ".json").toFile(), report);
+
+        StringBuilder markdown = new StringBuilder("# Load test ").append(name).append("\n\n")
+                .append("Options: `").append(options).append("`\n\n")
+                .append("Stub: `").append(stubCounters).append("`\n\n")
+                .append(LevelResult.MARKDOWN_HEADER).append('\n');
+        results.forEach(result -> markdown.append(result.toMarkdownRow()).append('\n'));
+        Files.writeString(directory.resolve(name + ".md"), markdown);
+
+        System.out.println();
+        System.out.print(markdown);
+        System.out.println("Report written to " + directory.resolve(name + ".{json,md}"));
+    }
+
+    /**
+     * Parse --name=value options
+     *
+     * @param args Command line arguments
+     * @return Options by name, in the given order
+     */
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+
+    /**
+     * Parse a duration like the application properties do, e.g. "80ms" or "PT2S"
+     */
+    static Duration duration(String value) {
+        return DurationStyle.detectAndParse(value);
+    }
+
+    /**
+     * Recorder - Latencies and errors seen by one worker
+     */
+    private static final class Recorder {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        void record(long nanos, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        void addAll(Recorder other) {
+            for (int i = 0; i < other.count; i++) {
+                record(other.latencies[i], true);
+            }
+            errors += other.errors;
+        }
+
+        LevelResult result(String path, int concurrency, Duration duration) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return new LevelResult(path, concurrency, count, errors,
+                    count / (duration.toNanos() / 1e9),
+                    percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.95),
+                    percentile(sorted, 0.99), percentile(sorted, 0.999),
+                    count == 0 ? 0 : sorted[count - 1] / 1e6);
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+
+    /**
+     * LevelResult - Measurements of one path at one concurrency level
+     *
+     * @param path Request path
+     * @param concurrency Concurrent workers
+     * @param requests Requests completed in the measured period
+     * @param errors Requests that failed or returned a 4xx/5xx status
+     * @param throughput Requests per second
+     * @param p50Ms Median latency
+     * @param p90Ms 90th percentile latency
+     * @param p95Ms 95th percentile latency
+     * @param p99Ms 99th percentile latency
+     * @param p999Ms 99.9th percentile latency
+     * @param maxMs Maximum latency
+     */
+    public record LevelResult(String path, int concurrency, long requests, long errors, double throughput,
+                              double p50Ms, double p90Ms, double p95Ms, double p99Ms, double p999Ms, double maxMs) {
+
+        static final String MARKDOWN_HEADER = "| Path | Concurrency | Requests | Errors | Req/s | p50 ms | p90 ms "
+                + "| p95 ms | p99 ms | p99.9 ms | max ms |\n|---|---|---|---|---|---|---|---|---|---|---|";
+
+        String toMarkdownRow() {
+            return String.format(Locale.ROOT, "| %s | %d | %d | %d | %.1f | %.2f | %.2f | %.2f | %.2f | %.2f | %.2f |",
+                    path, concurrency, requests, errors, throughput, p50Ms, p90Ms, p95Ms, p99Ms, p999Ms, maxMs);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.weatherapp.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * StubOpenWeatherMapServer - Local Stand-in for the OpenWeatherMap API
+ *
+ * Load tests cannot run against the real API (quota and cost), so this
+ * server answers the four endpoints the application calls:
+ * - /geo/1.0/direct: one result per city, named after the query, with
+ *   coordinates derived from the name, so every city gets its own cache cell
+ * - /data/2.5/weather, /data/2.5/forecast, /data/2.5/air_pollution: the
+ *   recorded payloads from src/test/resources/fixtures/openweathermap
+ *
+ * Every response is delayed by a log-normal latency with the configured
+ * median and p99. Configurable shares of the requests fail with 500, answer
+ * only after slowLatency, or hang until the client gives up.
+ *
+ * Run standalone (the application's weather.api.base-url and
+ * weather.api.geocoding-url must point here) or let LoadDriver start it.
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+public class StubOpenWeatherMapServer implements AutoCloseable {
+
+    /**
+     * How long a hanging request is held open
+     */
+    private static final Duration HANG = Duration.ofMinutes(10);
+
+    /**
+     * z-score of the 99th percentile of a standard normal distribution
+     */
+    private static final double Z_99 = 2.3263;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Settings settings;
+    private final double sigma;
+
+    private final byte[] weatherJson;
+    private final byte[] forecastJson;
+    private final byte[] airPollutionJson;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder slow = new LongAdder();
+    private final LongAdder hung = new LongAdder();
+
+    private StubOpenWeatherMapServer(int port, Settings settings) throws IOException {
+        this.settings = settings;
+        this.sigma = Math.log((double) settings.p99Latency().toNanos() / Math.max(1, settings.medianLatency().toNanos())) / Z_99;
+        this.weatherJson = fixture("weather.json");
+        this.forecastJson = fixture("forecast.json");
+        this.airPollutionJson = fixture("air_pollution.json");
+
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 1024);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    /**
+     * Start a stub server
+     *
+     * @param port Port to listen on, 0 for any free port
+     * @param settings Latency and failure settings
+     * @return The running server
+     * @throws IOException If the port cannot be bound or a fixture is missing
+     */
+    public static StubOpenWeatherMapServer start(int port, Settings settings) throws IOException {
+        return new StubOpenWeatherMapServer(port, settings);
+    }
+
+    /**
+     * Get the base URL of the stub, e.g. http://localhost:8090
+     *
+     * @return Base URL without trailing slash
+     */
+    public String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Get the request counters of the stub
+     *
+     * @return Requests served, and how many of them failed, were slow or hung
+     */
+    public Map<String, Long> counters() {
+        return Map.of("requests", requests.sum(), "errors", errors.sum(), "slow", slow.sum(), "hung", hung.sum());
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        // Interrupts the hanging requests
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.increment();
+            byte[] body = body(exchange);
+            if (body == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            double roll = ThreadLocalRandom.current().nextDouble();
+            if (roll < settings.hangRate()) {
+                hung.increment();
+                Thread.sleep(HANG.toMillis());
+                return;
+            }
+            roll -= settings.hangRate();
+            if (roll < settings.errorRate()) {
+                errors.increment();
+                Thread.sleep(sampleLatency().toMillis());
+                send(exchange, 500, "{\"cod\":500,\"message\":\"stub error\"}".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            roll -= settings.errorRate();
+            if (roll < settings.slowRate()) {
+                slow.increment();
+                Thread.sleep(settings.slowLatency().toMillis());
+            } else {
+                Thread.sleep(sampleLatency().toMillis());
+            }
+            send(exchange, 200, body);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private byte[] body(HttpExchange exchange) {
+        String path = exchange.getRequestURI().getPath();
+        return switch (path) {
+            case "/geo/1.0/direct" -> geocoding(queryParameter(exchange, "q"));
+            case "/data/2.5/weather" -> weatherJson;
+            case "/data/2.5/forecast" -> forecastJson;
+            case "/data/2.5/air_pollution" -> airPollutionJson;
+            default -> null;
+        };
+    }
+
+    /**
+     * One geocoding result per city name, at a stable pseudo-random location
+     */
+    private static byte[] geocoding(String query) {
+        String name = query == null ? "" : query.split(",")[0].trim();
+        int hash = name.toLowerCase(Locale.ROOT).hashCode();
+        double lat = (Math.floorMod(hash, 14_000) - 7_000) / 100.0;
+        double lon = (Math.floorMod(hash / 14_000, 36_000) - 18_000) / 100.0;
+        String json = String.format(Locale.ROOT,
+                "[{\"name\":\"%s\",\"lat\":%.4f,\"lon\":%.4f,\"country\":\"XX\",\"state\":\"Stub\"}]",
+                name.replace("\"", ""), lat, lon);
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private Duration sampleLatency() {
+        double factor = Math.exp(sigma * ThreadLocalRandom.current().nextGaussian());
+        return Duration.ofNanos((long) (settings.medianLatency().toNanos() * factor));
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String queryParameter(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                return URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private static byte[] fixture(String name) throws IOException {
+        try (InputStream in = StubOpenWeatherMapServer.class.getResourceAsStream("/fixtures/openweathermap/" + name)) {
+            if (in == null) {
+                throw new IOException("Missing fixture " + name);
+            }
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * Run the stub on its own
+     *
+     * Options (all optional): --port=8090 and the Settings options.
+     *
+     * @param args Command line options
+     * @throws Exception If the server cannot start
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = LoadDriver.parseOptions(args);
+        StubOpenWeatherMapServer stub = start(Integer.parseInt(options.getOrDefault("port", "8090")), Settings.from(options));
+        System.out.println("Stub OpenWeatherMap server running with " + stub.settings);
+        System.out.println("  weather.api.base-url=" + stub.baseUrl() + "/data/2.5");
+        System.out.println("  weather.api.geocoding-url=" + stub.baseUrl() + "/geo/1.0");
+        Thread.currentThread().join();
+    }
+
+    /**
+     * Settings - Latency and failure behaviour of the stub
+     *
+     * @param medianLatency Median response latency (--stub-median)
+     * @param p99Latency 99th percentile response latency (--stub-p99)
+     * @param errorRate Share of requests answered with 500 (--stub-error-rate)
+     * @param slowRate Share of requests answered after slowLatency (--stub-slow-rate)
+     * @param slowLatency Latency of slow requests (--stub-slow)
+     * @param hangRate Share of requests that never get an answer (--stub-hang-rate)
+     */
+    public record Settings(Duration medianLatency, Duration p99Latency, double errorRate, double slowRate,
+                           Duration slowLatency, double hangRate) {
+
+        /**
+         * Read the settings from command line options, with defaults
+         *
+         * @param options Parsed --name=value options
+         * @return The settings
+         */
+        public static Settings from(Map<String, String> options) {
+            return new Settings(
+                    LoadDriver.duration(options.getOrDefault("stub-median", "80ms")),
+                    LoadDriver.duration(options.getOrDefault("stub-p99", "600ms")),
+                    Double.parseDouble(options.getOrDefault("stub-error-rate", "0.01")),
+                    Double.parseDouble(options.getOrDefault("stub-slow-rate", "0.005")),
+                    LoadDriver.duration(options.getOrDefault("stub-slow", "8s")),
+                    Double.parseDouble(options.getOrDefault("stub-hang-rate", "0.001")));
+        }
+    }
+}
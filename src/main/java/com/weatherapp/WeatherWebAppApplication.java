@@ -3,6 +3,7 @@ package com.weatherapp;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * WeatherWebAppApplication - Main Spring Boot Application Class
@@ -13,6 +14,7 @@ import org.springframework.cache.annotation.EnableCaching;
  * Key Annotations:
  * - @SpringBootApplication: Combines @Configuration, @EnableAutoConfiguration, and @ComponentScan
  * - @EnableCaching: Activates Spring's caching capabilities for better performance
+ * - @EnableScheduling: Runs periodic maintenance tasks (e.g. cache snapshots)
  * 
  * What this class does:
  * 1. Starts the embedded Tomcat server
@@ -26,6 +28,7 @@ import org.springframework.cache.annotation.EnableCaching;
  */
 @SpringBootApplication
 @EnableCaching
+@EnableScheduling
 public class WeatherWebAppApplication {
 
     /**
@@ -0,0 +1,358 @@
+package com.weatherapp.cache;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.weatherapp.dto.ResolvedLocation;
+import com.weatherapp.dto.WeatherData;
+import com.weatherapp.service.WeatherDataset;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CacheSnapshotter - Disk Snapshot of the Caches for Warm Restarts
+ *
+ * The Caffeine caches live in memory only, so every deploy or dyno restart
+ * used to start cold and send a wave of misses to OpenWeatherMap. This
+ * component saves the long-lived caches to a compact binary file and loads
+ * them again after a restart:
+ * - the per-dataset weather caches (current, forecast, AQI)
+ * - the last known weather per cell ("weather-last-known-cache")
+ * - the alias index ("weather-alias-cache")
+ * - the geocoding results ("geocoding-cache")
+ *
+ * Each entry is stored with its remaining lifetime, so a restored entry
+ * expires exactly when it would have expired without the restart. Entries
+ * still carry their fetchedAt, so soft-TTL refreshes keep working as well.
+ *
+ * When snapshots are taken:
+ * - periodically (weather.cache.snapshot.interval)
+ * - on graceful shutdown
+ *
+ * The snapshot is restored in the background once the application is ready,
+ * so it never delays startup. Restored entries never overwrite entries that
+ * were loaded by live requests in the meantime.
+ *
+ * Format: Jackson Smile (binary JSON), written to a temporary file and then
+ * moved over the previous snapshot, so a crash mid-write never leaves a
+ * broken file behind. Only non-null fields are serialized (not derived
+ * getters such as getFetchedAtAsDate), which keeps the file small.
+ * Compact forecasts are written expanded and compacted again on restore.
+ *
+ * Snapshots are only taken when weather.cache.snapshot.path (CACHE_SNAPSHOT_PATH)
+ * is set. Point it to a persistent volume that only this instance writes
+ * to; a file on an ephemeral disk or in a shared temp directory does not
+ * survive redeploys, or is overwritten by other instances.
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+@Component
+@Slf4j
+public class CacheSnapshotter {
+
+    /**
+     * Version of the snapshot format; files with another version are ignored
+     */
+    static final int FORMAT_VERSION = 1;
+
+    /**
+     * weather.cache.snapshot.interval in milliseconds
+     */
+    private static final String INTERVAL_MILLIS = "#{T(org.springframework.boot.convert.DurationStyle)"
+            + ".detectAndParse('${weather.cache.snapshot.interval}').toMillis()}";
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    /**
+     * Executor for restoring the snapshot after startup
+     */
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor executor;
+
+    @Value("${weather.cache.snapshot.enabled}")
+    private boolean enabled;
+
+    @Value("${weather.cache.snapshot.path}")
+    private String snapshotPath;
+
+    /**
+     * Snapshot file, null if no path is configured
+     */
+    private Path path;
+
+    /**
+     * Smile mapper for the snapshot file
+     */
+    private ObjectMapper smileMapper;
+
+    /**
+     * Value type of every cache that is part of the snapshot
+     */
+    private Map<String, JavaType> valueTypes;
+
+    /**
+     * Set once the restore attempt has finished; before that, writing a
+     * snapshot would replace the file with the still-empty caches
+     */
+    private volatile boolean restored;
+
+    /**
+     * Create the Smile mapper and the list of persisted caches
+     */
+    @PostConstruct
+    void init() {
+        path = snapshotPath.isBlank() ? null : Path.of(snapshotPath);
+        if (enabled && path == null) {
+            log.info("Cache snapshots are off: weather.cache.snapshot.path is not set");
+            enabled = false;
+        }
+
+        smileMapper = objectMapperBuilder.factory(new SmileFactory()).build()
+                .setVisibility(PropertyAccessor.GETTER, JsonAutoDetect.Visibility.NONE)
+                .setVisibility(PropertyAccessor.IS_GETTER, JsonAutoDetect.Visibility.NONE)
+                .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+        TypeFactory types = smileMapper.getTypeFactory();
+        valueTypes = new LinkedHashMap<>();
+        for (WeatherDataset dataset : WeatherDataset.values()) {
+            Class<?> valueType = dataset == WeatherDataset.FORECAST ? CompactForecast.class : WeatherData.class;
+            valueTypes.put(dataset.getCacheName(), types.constructType(valueType));
+        }
+        valueTypes.put("weather-last-known-cache", types.constructType(WeatherData.class));
+        valueTypes.put("weather-alias-cache", types.constructType(ResolvedLocation.class));
+        valueTypes.put("geocoding-cache", types.constructCollectionType(List.class,
+                types.constructMapType(Map.class, String.class, Object.class)));
+    }
+
+    /**
+     * Restore the snapshot in the background once the application is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restoreInBackground() {
+        if (!enabled) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                restore();
+            } finally {
+                restored = true;
+            }
+        });
+    }
+
+    /**
+     * Write a snapshot periodically
+     *
+     * The interval is parsed with Spring Boot's duration syntax ("5m"), which
+     * @Scheduled does not accept directly.
+     */
+    @Scheduled(fixedDelayString = INTERVAL_MILLIS, initialDelayString = INTERVAL_MILLIS)
+    public void writePeriodically() {
+        if (enabled && restored) {
+            write();
+        }
+    }
+
+    /**
+     * Write a final snapshot on graceful shutdown
+     */
+    @PreDestroy
+    public void writeOnShutdown() {
+        if (enabled && restored) {
+            write();
+        }
+    }
+
+    /**
+     * Write all persisted caches to the snapshot file
+     *
+     * @return Number of entries written, or -1 if writing failed
+     */
+    public synchronized int write() {
+        long startTime = System.currentTimeMillis();
+        Map<String, List<Entry>> caches = new LinkedHashMap<>();
+        int count = 0;
+
+        for (String cacheName : valueTypes.keySet()) {
+            Optional<Policy.VarExpiration<Object, Object>> expiration = variableExpiration(cacheName);
+            if (expiration.isEmpty()) {
+                continue;
+            }
+
+            List<Entry> entries = new ArrayList<>();
+            nativeCache(cacheName).asMap().forEach((key, value) ->
+                    expiration.get().getExpiresAfter(key).ifPresent(remaining -> {
+                        if (key instanceof String stringKey && !remaining.isNegative()) {
+                            entries.add(new Entry(stringKey, remaining.toMillis(), smileMapper.valueToTree(value)));
+                        }
+                    }));
+            caches.put(cacheName, entries);
+            count += entries.size();
+        }
+
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                smileMapper.writeValue(out, new Snapshot(FORMAT_VERSION, System.currentTimeMillis(), caches));
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            log.info("Wrote cache snapshot with {} entries to {} in {} ms ({} bytes)",
+                    count, path, System.currentTimeMillis() - startTime, Files.size(path));
+            return count;
+        } catch (IOException e) {
+            log.warn("Failed to write cache snapshot to {}: {}", path, e.toString());
+            return -1;
+        }
+    }
+
+    /**
+     * Load the snapshot file into the caches
+     *
+     * Entries whose remaining lifetime has run out since the snapshot was
+     * written are skipped; all others are inserted with what is left of it.
+     *
+     * @return Number of entries restored
+     */
+    public int restore() {
+        if (!Files.isReadable(path)) {
+            log.info("No cache snapshot found at {}", path);
+            return 0;
+        }
+
+        long startTime = System.currentTimeMillis();
+        Snapshot snapshot;
+        try (InputStream in = Files.newInputStream(path)) {
+            snapshot = smileMapper.readValue(in, Snapshot.class);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable cache snapshot {}: {}", path, e.toString());
+            return 0;
+        }
+        if (snapshot.formatVersion() != FORMAT_VERSION) {
+            log.warn("Ignoring cache snapshot {} with format version {}", path, snapshot.formatVersion());
+            return 0;
+        }
+
+        long elapsedMillis = Math.max(0, System.currentTimeMillis() - snapshot.writtenAt());
+        int count = 0;
+
+        for (Map.Entry<String, List<Entry>> cache : snapshot.caches().entrySet()) {
+            JavaType valueType = valueTypes.get(cache.getKey());
+            Optional<Policy.VarExpiration<Object, Object>> expiration = variableExpiration(cache.getKey());
+            if (valueType == null || expiration.isEmpty()) {
+                continue;
+            }
+
+            for (Entry entry : cache.getValue()) {
+                long remainingMillis = entry.ttlMillis() - elapsedMillis;
+                if (remainingMillis <= 0) {
+                    continue;
+                }
+                try {
+                    Object value = smileMapper.convertValue(entry.value(), valueType);
+                    if (value instanceof WeatherData weatherData) {
+                        CompactForecast.compactLists(weatherData);
+                    }
+                    // Never replace an entry loaded by a live request since startup
+                    if (expiration.get().putIfAbsent(entry.key(), value, remainingMillis, TimeUnit.MILLISECONDS) == null) {
+                        count++;
+                    }
+                } catch (IllegalArgumentException e) {
+                    log.debug("Skipping unreadable snapshot entry {} in {}", entry.key(), cache.getKey());
+                }
+            }
+        }
+
+        log.info("Restored {} cache entries from snapshot {} (written {} ago) in {} ms",
+                count, path, Duration.ofMillis(elapsedMillis), System.currentTimeMillis() - startTime);
+        return count;
+    }
+
+    /**
+     * Get the native Caffeine cache behind a Spring cache
+     *
+     * @param cacheName The cache name
+     * @return The Caffeine cache
+     */
+    @SuppressWarnings("unchecked")
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        return (com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache.getNativeCache();
+    }
+
+    /**
+     * Get the per-entry expiration policy of a cache
+     *
+     * @param cacheName The cache name
+     * @return The policy, or empty if the cache does not exist or has fixed expiration
+     */
+    private Optional<Policy.VarExpiration<Object, Object>> variableExpiration(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null || !(cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?>)) {
+            return Optional.empty();
+        }
+        return nativeCache(cacheName).policy().expireVariably();
+    }
+
+    /**
+     * Snapshot - Contents of the snapshot file
+     *
+     * @param formatVersion Version of the file format
+     * @param writtenAt When the snapshot was written (epoch milliseconds)
+     * @param caches Entries per cache name
+     */
+    record Snapshot(int formatVersion, long writtenAt, Map<String, List<Entry>> caches) {
+    }
+
+    /**
+     * Entry - One cache entry in the snapshot file
+     *
+     * @param key The cache key
+     * @param ttlMillis Remaining lifetime when the snapshot was written
+     * @param value The cached value
+     */
+    record Entry(String key, long ttlMillis, JsonNode value) {
+    }
+}
@@ -0,0 +1,122 @@
+package com.weatherapp.cache;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.weatherapp.dto.WeatherData;
+
+import java.util.List;
+
+/**
+ * CacheWeigher - Estimated Heap Size of Weather Cache Entries
+ *
+ * Entry counts are a poor bound for the weather caches: current conditions
+ * take about 1 KB, a compact forecast about 1.2 KB, and weather restored
+ * with expanded forecast lists over 10 KB. With this weigher the caches are
+ * bounded by the estimated bytes they retain (maximumWeight) instead.
+ *
+ * The estimate adds up the shallow sizes of the objects an entry references
+ * (64-bit JVM with compressed references, 8 byte alignment, Latin-1
+ * strings), plus the cache's own per-entry overhead and the key. Objects
+ * shared with other entries, such as forecast views of the same compact
+ * forecast or vocabulary strings, are counted for each entry.
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+public final class CacheWeigher implements Weigher<Object, Object> {
+
+    /**
+     * Caffeine node with variable expiry, plus the hash table slot
+     */
+    static final int ENTRY_OVERHEAD = 96;
+
+    private static final int WEATHER_DATA = 128;
+    private static final int HOURLY_FORECAST = 40;
+    private static final int DAILY_FORECAST = 48;
+    private static final int BOX = 16;
+    private static final int LOCAL_DATE_TIME = 72;
+    private static final int ARRAY_LIST = 24 + 16;
+    private static final int UNKNOWN_VALUE = 64;
+
+    @Override
+    public int weigh(Object key, Object value) {
+        long bytes = ENTRY_OVERHEAD + (key instanceof String stringKey ? string(stringKey) : BOX) + estimate(value);
+        return (int) Math.min(Integer.MAX_VALUE, bytes);
+    }
+
+    /**
+     * Estimate the heap retained by a cached value
+     *
+     * @param value A WeatherData or CompactForecast; other values get a small fixed size
+     * @return Estimated bytes
+     */
+    public static long estimate(Object value) {
+        if (value instanceof WeatherData weatherData) {
+            return weatherData(weatherData);
+        }
+        if (value instanceof CompactForecast forecast) {
+            return forecast.estimatedBytes();
+        }
+        return UNKNOWN_VALUE;
+    }
+
+    private static long weatherData(WeatherData data) {
+        long bytes = WEATHER_DATA
+                + string(data.getCityName()) + string(data.getCountryCode()) + string(data.getTemperatureUnit())
+                + string(data.getWeatherCondition()) + string(data.getWeatherIcon())
+                + string(data.getAqiCategory()) + string(data.getAqiColor()) + string(data.getErrorMessage())
+                + string(data.getGeneration())
+                + boxes(data.getLatitude(), data.getLongitude(), data.getTemperature(), data.getFeelsLike(),
+                data.getHumidity(), data.getPressure(), data.getWindSpeed(), data.getWindDirection(),
+                data.getVisibility(), data.getCloudiness(), data.getSunrise(), data.getSunset(), data.getAqi(),
+                data.getVersion(), data.getResponseTimeMs())
+                + (data.getFetchedAt() != null ? LOCAL_DATE_TIME : 0);
+
+        List<WeatherData.HourlyForecast> hourly = data.getHourlyForecast();
+        if (hourly != null) {
+            long view = CompactForecast.estimatedBytes(hourly);
+            if (view >= 0) {
+                bytes += view;
+            } else {
+                bytes += ARRAY_LIST + 4L * hourly.size();
+                for (WeatherData.HourlyForecast hour : hourly) {
+                    bytes += HOURLY_FORECAST + (hour.getTime() != null ? LOCAL_DATE_TIME : 0)
+                            + string(hour.getWeatherCondition()) + string(hour.getWeatherIcon())
+                            + boxes(hour.getTemperature(), hour.getHumidity(), hour.getWindSpeed(),
+                            hour.getPrecipitation());
+                }
+            }
+        }
+
+        List<WeatherData.DailyForecast> daily = data.getDailyForecast();
+        if (daily != null) {
+            long view = CompactForecast.estimatedBytes(daily);
+            if (view >= 0) {
+                bytes += view;
+            } else {
+                bytes += ARRAY_LIST + 4L * daily.size();
+                for (WeatherData.DailyForecast day : daily) {
+                    bytes += DAILY_FORECAST + (day.getDate() != null ? LOCAL_DATE_TIME : 0)
+                            + string(day.getWeatherCondition()) + string(day.getWeatherIcon())
+                            + boxes(day.getMinTemperature(), day.getMaxTemperature(), day.getHumidity(),
+                            day.getWindSpeed(), day.getPrecipitation());
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private static long string(String value) {
+        // String object plus its byte[] (16 byte header, 8 byte aligned)
+        return value == null ? 0 : 24 + ((16 + value.length() + 7) & ~7L);
+    }
+
+    private static long boxes(Object... values) {
+        long bytes = 0;
+        for (Object value : values) {
+            if (value != null) {
+                bytes += BOX;
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,337 @@
+package com.weatherapp.cache;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.weatherapp.dto.WeatherData;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * CompactForecast - Columnar, Primitive Storage of a Cached Forecast
+ *
+ * A forecast mapped to WeatherData is about 40 HourlyForecast objects, each
+ * with a LocalDateTime (three objects), boxed Doubles and Integers and its
+ * own copies of the condition and icon strings: roughly 11 KB per cell. The
+ * forecast cache stores this class instead, which keeps the same data in
+ * one primitive array per field:
+ * - times as seconds (the local date-time read as UTC, so they convert back
+ *   exactly, without time zone rules)
+ * - temperatures and wind speeds in hundredths, humidity and precipitation
+ *   as small integers, each with a sentinel for null
+ * - conditions and icons as 16-bit codes of a shared WeatherVocabulary
+ * That is about 1 KB per cell.
+ *
+ * Nothing is expanded when the entry is read from the cache: hourlyForecast()
+ * and dailyForecast() are read-only list views that create each
+ * HourlyForecast or DailyForecast when the page or JSON serializer asks for
+ * it. Values are rounded to hundredths, the precision OpenWeatherMap sends.
+ *
+ * In the cache snapshot the forecast is written in its expanded WeatherData
+ * form (vocabulary codes are not stable across restarts) and compacted again
+ * when it is restored.
+ *
+ * Immutable and thread-safe.
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+public final class CompactForecast {
+
+    private static final int NULL_INT = Integer.MIN_VALUE;
+    private static final short NULL_SHORT = Short.MIN_VALUE;
+    private static final byte NULL_BYTE = Byte.MIN_VALUE;
+
+    /**
+     * Shallow size of a CompactForecast, its fetchedAt and version, and of a view
+     */
+    private static final long OBJECT_BYTES = 24 + 72 + 16;
+    private static final long VIEW_BYTES = 16;
+
+    private final LocalDateTime fetchedAt;
+    private final Long version;
+
+    private final Series hourly;
+    private final Series daily;
+
+    private CompactForecast(LocalDateTime fetchedAt, Long version, Series hourly, Series daily) {
+        this.fetchedAt = fetchedAt;
+        this.version = version;
+        this.hourly = hourly;
+        this.daily = daily;
+    }
+
+    /**
+     * Compact the forecast part of a WeatherData
+     *
+     * @param forecast WeatherData holding the hourly and daily forecast, fetchedAt and version
+     * @return The compact forecast
+     */
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static CompactForecast of(WeatherData forecast) {
+        List<WeatherData.HourlyForecast> hourlyForecast = forecast.getHourlyForecast();
+        List<WeatherData.DailyForecast> dailyForecast = forecast.getDailyForecast();
+
+        Series hourly = null;
+        if (hourlyForecast != null) {
+            hourly = new Series(hourlyForecast.size(), false);
+            for (int i = 0; i < hourlyForecast.size(); i++) {
+                WeatherData.HourlyForecast hour = hourlyForecast.get(i);
+                hourly.set(i, hour.getTime(), hour.getTemperature(), null, hour.getHumidity(),
+                        hour.getWindSpeed(), hour.getPrecipitation(), hour.getWeatherCondition(),
+                        hour.getWeatherIcon());
+            }
+        }
+
+        Series daily = null;
+        if (dailyForecast != null) {
+            daily = new Series(dailyForecast.size(), true);
+            for (int i = 0; i < dailyForecast.size(); i++) {
+                WeatherData.DailyForecast day = dailyForecast.get(i);
+                daily.set(i, day.getDate(), day.getMinTemperature(), day.getMaxTemperature(), day.getHumidity(),
+                        day.getWindSpeed(), day.getPrecipitation(), day.getWeatherCondition(),
+                        day.getWeatherIcon());
+            }
+        }
+
+        return new CompactForecast(forecast.getFetchedAt(), forecast.getVersion(), hourly, daily);
+    }
+
+    /**
+     * Get a WeatherData holding this forecast as views
+     *
+     * Also the form in which the forecast is written to the cache snapshot.
+     *
+     * @return A new WeatherData with hourly and daily forecast, fetchedAt and version
+     */
+    @JsonValue
+    public WeatherData toWeatherData() {
+        WeatherData weatherData = new WeatherData();
+        weatherData.setHourlyForecast(hourlyForecast());
+        weatherData.setDailyForecast(dailyForecast());
+        weatherData.setFetchedAt(fetchedAt);
+        weatherData.setVersion(version);
+        return weatherData;
+    }
+
+    /**
+     * Replace the forecast lists of a WeatherData with compact views
+     *
+     * Used for weather restored from the snapshot with expanded lists.
+     *
+     * @param weatherData The weather data to compact
+     * @return The same weather data
+     */
+    public static WeatherData compactLists(WeatherData weatherData) {
+        if (weatherData.getHourlyForecast() != null || weatherData.getDailyForecast() != null) {
+            CompactForecast forecast = of(weatherData);
+            weatherData.setHourlyForecast(forecast.hourlyForecast());
+            weatherData.setDailyForecast(forecast.dailyForecast());
+        }
+        return weatherData;
+    }
+
+    /**
+     * @return When the forecast was fetched
+     */
+    public LocalDateTime getFetchedAt() {
+        return fetchedAt;
+    }
+
+    /**
+     * @return Version of the cache entry
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return Read-only view of the hourly forecast, or null if there is none
+     */
+    public List<WeatherData.HourlyForecast> hourlyForecast() {
+        return hourly == null ? null : new HourlyView(hourly);
+    }
+
+    /**
+     * @return Read-only view of the daily forecast, or null if there is none
+     */
+    public List<WeatherData.DailyForecast> dailyForecast() {
+        return daily == null ? null : new DailyView(daily);
+    }
+
+    /**
+     * Estimate the heap retained by a forecast list
+     *
+     * @param list A forecast list
+     * @return Bytes of the compact series behind a view, or -1 if the list is not a view
+     */
+    static long estimatedBytes(List<?> list) {
+        if (list instanceof HourlyView view) {
+            return VIEW_BYTES + view.series.estimatedBytes();
+        }
+        if (list instanceof DailyView view) {
+            return VIEW_BYTES + view.series.estimatedBytes();
+        }
+        return -1;
+    }
+
+    /**
+     * Estimate the heap retained by this forecast
+     *
+     * @return Estimated bytes, including both series
+     */
+    long estimatedBytes() {
+        return OBJECT_BYTES + (hourly == null ? 0 : hourly.estimatedBytes())
+                + (daily == null ? 0 : daily.estimatedBytes());
+    }
+
+    private static int toHundredths(Double value) {
+        return value == null ? NULL_INT : (int) Math.round(value * 100);
+    }
+
+    private static Double fromHundredths(int value) {
+        return value == NULL_INT ? null : value / 100.0;
+    }
+
+    /**
+     * Series - One primitive array per field of the hourly or daily forecast
+     *
+     * The hourly series has no maximum temperature column.
+     */
+    private static final class Series {
+
+        private final long[] times;
+        private final int[] temperatures;
+        private final int[] maxTemperatures;
+        private final byte[] humidities;
+        private final int[] windSpeeds;
+        private final short[] precipitations;
+        private final char[] conditions;
+        private final char[] icons;
+
+        Series(int size, boolean withMax) {
+            times = new long[size];
+            temperatures = new int[size];
+            maxTemperatures = withMax ? new int[size] : null;
+            humidities = new byte[size];
+            windSpeeds = new int[size];
+            precipitations = new short[size];
+            conditions = new char[size];
+            icons = new char[size];
+        }
+
+        void set(int i, LocalDateTime time, Double temperature, Double maxTemperature, Integer humidity,
+                 Double windSpeed, Integer precipitation, String condition, String icon) {
+            times[i] = time == null ? Long.MIN_VALUE : time.toEpochSecond(ZoneOffset.UTC);
+            temperatures[i] = toHundredths(temperature);
+            if (maxTemperatures != null) {
+                maxTemperatures[i] = toHundredths(maxTemperature);
+            }
+            humidities[i] = humidity == null || humidity < 0 || humidity > Byte.MAX_VALUE
+                    ? NULL_BYTE : humidity.byteValue();
+            windSpeeds[i] = toHundredths(windSpeed);
+            precipitations[i] = precipitation == null || precipitation < 0 || precipitation > Short.MAX_VALUE
+                    ? NULL_SHORT : precipitation.shortValue();
+            conditions[i] = WeatherVocabulary.CONDITIONS.encode(condition);
+            icons[i] = WeatherVocabulary.ICONS.encode(icon);
+        }
+
+        int size() {
+            return times.length;
+        }
+
+        long estimatedBytes() {
+            int n = times.length;
+            // Series object, then one array (16 byte header, 8 byte aligned) per column
+            return 48 + array(8L * n) + array(4L * n) * (maxTemperatures == null ? 2 : 3)
+                    + array(n) + array(2L * n) * 3;
+        }
+
+        private static long array(long dataBytes) {
+            return (16 + dataBytes + 7) & ~7L;
+        }
+
+        LocalDateTime time(int i) {
+            return times[i] == Long.MIN_VALUE ? null : LocalDateTime.ofEpochSecond(times[i], 0, ZoneOffset.UTC);
+        }
+
+        Double temperature(int i) {
+            return fromHundredths(temperatures[i]);
+        }
+
+        Double maxTemperature(int i) {
+            return fromHundredths(maxTemperatures[i]);
+        }
+
+        Integer humidity(int i) {
+            return humidities[i] == NULL_BYTE ? null : (int) humidities[i];
+        }
+
+        Double windSpeed(int i) {
+            return fromHundredths(windSpeeds[i]);
+        }
+
+        Integer precipitation(int i) {
+            return precipitations[i] == NULL_SHORT ? null : (int) precipitations[i];
+        }
+
+        String condition(int i) {
+            return WeatherVocabulary.CONDITIONS.decode(conditions[i]);
+        }
+
+        String icon(int i) {
+            return WeatherVocabulary.ICONS.decode(icons[i]);
+        }
+    }
+
+    /**
+     * HourlyView - Hourly forecast expanded one entry at a time
+     */
+    private static final class HourlyView extends AbstractList<WeatherData.HourlyForecast> implements RandomAccess {
+
+        private final Series series;
+
+        HourlyView(Series series) {
+            this.series = series;
+        }
+
+        @Override
+        public WeatherData.HourlyForecast get(int index) {
+            return new WeatherData.HourlyForecast(series.time(index), series.temperature(index),
+                    series.condition(index), series.icon(index), series.humidity(index),
+                    series.windSpeed(index), series.precipitation(index));
+        }
+
+        @Override
+        public int size() {
+            return series.size();
+        }
+    }
+
+    /**
+     * DailyView - Daily forecast expanded one entry at a time
+     */
+    private static final class DailyView extends AbstractList<WeatherData.DailyForecast> implements RandomAccess {
+
+        private final Series series;
+
+        DailyView(Series series) {
+            this.series = series;
+        }
+
+        @Override
+        public WeatherData.DailyForecast get(int index) {
+            return new WeatherData.DailyForecast(series.time(index), series.temperature(index),
+                    series.maxTemperature(index), series.condition(index), series.icon(index),
+                    series.humidity(index), series.windSpeed(index), series.precipitation(index));
+        }
+
+        @Override
+        public int size() {
+            return series.size();
+        }
+    }
+}
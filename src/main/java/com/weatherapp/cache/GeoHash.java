@@ -0,0 +1,90 @@
+package com.weatherapp.cache;
+
+/**
+ * GeoHash - Grid Cell Identifiers for Coordinates
+ *
+ * Encodes a latitude/longitude pair as a geohash: a short base-32 string that
+ * names a rectangular cell of the earth's surface. All coordinates inside the
+ * same cell get the same string, so a geohash can be used as a cache key that
+ * is shared by every city name resolving to (almost) the same place.
+ *
+ * Approximate cell size per precision (characters):
+ * - 4: 39 km x 19.5 km
+ * - 5: 4.9 km x 4.9 km
+ * - 6: 1.2 km x 0.6 km
+ *
+ * Points close to a cell edge can fall into neighbouring cells; that only
+ * costs an extra cache entry, never a wrong answer.
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+public final class GeoHash {
+
+    /**
+     * Geohash alphabet (base 32 without a, i, l and o)
+     */
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+    /**
+     * Longest supported geohash (about 3.7 cm x 1.9 cm)
+     */
+    public static final int MAX_PRECISION = 12;
+
+    private GeoHash() {
+    }
+
+    /**
+     * Encode coordinates as a geohash
+     *
+     * @param latitude Latitude in degrees (-90 to 90)
+     * @param longitude Longitude in degrees (-180 to 180)
+     * @param precision Number of characters (1 to 12)
+     * @return The geohash of the cell containing the coordinates
+     */
+    public static String encode(double latitude, double longitude, int precision) {
+        if (precision < 1 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Geohash precision must be between 1 and " + MAX_PRECISION);
+        }
+
+        double minLat = -90, maxLat = 90;
+        double minLon = -180, maxLon = 180;
+        char[] hash = new char[precision];
+        boolean longitudeBit = true;
+        int bits = 0;
+        int index = 0;
+        int length = 0;
+
+        // Bits alternate between longitude and latitude, halving the range each time
+        while (length < precision) {
+            if (longitudeBit) {
+                double mid = (minLon + maxLon) / 2;
+                if (longitude >= mid) {
+                    index = (index << 1) | 1;
+                    minLon = mid;
+                } else {
+                    index <<= 1;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) {
+                    index = (index << 1) | 1;
+                    minLat = mid;
+                } else {
+                    index <<= 1;
+                    maxLat = mid;
+                }
+            }
+            longitudeBit = !longitudeBit;
+
+            // Every 5 bits make one base-32 character
+            if (++bits == 5) {
+                hash[length++] = BASE32[index];
+                bits = 0;
+                index = 0;
+            }
+        }
+        return new String(hash);
+    }
+}
@@ -0,0 +1,176 @@
+package com.weatherapp.cache;
+
+import com.weatherapp.service.GeocodingService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * PopularityTracker - Lock-Free Request Counts per City with Decay
+ *
+ * Counts how often each city is requested, so that the most popular cities
+ * can be refreshed ahead of time (see PopularCityRefresher).
+ *
+ * How it works:
+ * - Every request increments a LongAdder for its normalized city name; the
+ *   request path never takes a lock
+ * - Every weather.popularity.decay-interval, new hits are folded into a
+ *   decayed score and the score is halved, so recent traffic dominates and
+ *   cities that are no longer asked for fade out and are dropped
+ * - At most weather.popularity.max-tracked names are tracked; while the map
+ *   is full, new names are ignored until decay makes room
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+@Component
+@Slf4j
+public class PopularityTracker {
+
+    /**
+     * weather.popularity.decay-interval in milliseconds
+     */
+    private static final String DECAY_INTERVAL_MILLIS = "#{T(org.springframework.boot.convert.DurationStyle)"
+            + ".detectAndParse('${weather.popularity.decay-interval}').toMillis()}";
+
+    /**
+     * Scores below this are considered cold and removed on decay
+     */
+    private static final double MIN_SCORE = 0.1;
+
+    /**
+     * Counters by normalized city name
+     */
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Hits that were not counted because the map was full
+     */
+    private final LongAdder dropped = new LongAdder();
+
+    @Value("${weather.popularity.max-tracked}")
+    private int maxTracked;
+
+    /**
+     * Count one request for a city
+     *
+     * @param cityName The canonical name of the resolved city (see
+     *                 WeatherData.canonicalCityName), or the name as requested
+     */
+    public void record(String cityName) {
+        if (cityName == null || cityName.isBlank()) {
+            return;
+        }
+        String key = GeocodingService.normalize(cityName);
+        Counter counter = counters.get(key);
+        if (counter == null) {
+            if (counters.size() >= maxTracked) {
+                dropped.increment();
+                return;
+            }
+            counter = counters.computeIfAbsent(key, k -> new Counter(cityName.trim()));
+        }
+        counter.hits.increment();
+    }
+
+    /**
+     * Get the most popular cities
+     *
+     * @param limit Maximum number of cities to return
+     * @return Cities ordered by score, most popular first
+     */
+    public List<Popularity> top(int limit) {
+        return counters.values().stream()
+                .map(counter -> new Popularity(counter.cityName, counter.score()))
+                .sorted(Comparator.comparingDouble(Popularity::score).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Get the current score of a city
+     *
+     * @param cityName The city name, in any spelling that normalizes to the tracked one
+     * @return Recent hits plus decayed earlier hits, 0 if the city is not tracked
+     */
+    public double score(String cityName) {
+        Counter counter = counters.get(GeocodingService.normalize(cityName));
+        return counter == null ? 0 : counter.score();
+    }
+
+    /**
+     * Get the number of tracked city names
+     *
+     * @return Size of the counter map
+     */
+    public int getTrackedCount() {
+        return counters.size();
+    }
+
+    /**
+     * Get the number of hits ignored because the map was full
+     *
+     * @return Dropped hits since startup
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Fold recent hits into the scores and halve them
+     *
+     * Counters that have become cold are removed; a hit that races with the
+     * removal is simply counted again on the next request.
+     */
+    @Scheduled(fixedRateString = DECAY_INTERVAL_MILLIS, initialDelayString = DECAY_INTERVAL_MILLIS)
+    public void decay() {
+        for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+            Counter counter = entry.getValue();
+            counter.decayed = (counter.decayed + counter.hits.sumThenReset()) / 2;
+            if (counter.decayed < MIN_SCORE && counter.hits.sum() == 0) {
+                counters.remove(entry.getKey(), counter);
+            }
+        }
+        log.debug("Decayed popularity scores, {} cities tracked", counters.size());
+    }
+
+    /**
+     * Counter - Hits of one city
+     */
+    private static final class Counter {
+
+        /** City name as first requested, used for display and refresh */
+        private final String cityName;
+
+        /** Hits since the last decay */
+        private final LongAdder hits = new LongAdder();
+
+        /** Score accumulated up to the last decay (only written by decay) */
+        private volatile double decayed;
+
+        Counter(String cityName) {
+            this.cityName = cityName;
+        }
+
+        double score() {
+            return decayed + hits.sum();
+        }
+    }
+
+    /**
+     * Popularity - Score of one city
+     *
+     * @param city City name as first requested
+     * @param score Recent hits plus decayed earlier hits
+     */
+    public record Popularity(String city, double score) {
+    }
+}
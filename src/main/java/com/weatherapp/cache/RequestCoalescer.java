@@ -0,0 +1,121 @@
+package com.weatherapp.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * RequestCoalescer - Single-Flight Execution of Concurrent Loads
+ *
+ * When many threads miss the cache for the same key at the same time, only
+ * the first one (the "leader") runs the expensive load. Every other caller
+ * (a "follower") waits on the leader's future and receives the same result,
+ * or the same exception.
+ *
+ * Why we need this:
+ * - Spring's @Cacheable is not synchronized, so concurrent misses for a
+ *   popular city would each send a full chain of upstream calls
+ * - With coalescing, upstream traffic grows with the number of distinct keys
+ *   instead of with the number of concurrent requests
+ *
+ * The in-flight entry is removed as soon as the load finishes, so a later
+ * call after completion starts a fresh load (results are kept by the cache,
+ * not by this class).
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ * @author Weather App Team
+ * @version 1.0
+ */
+public class RequestCoalescer<K, V> {
+
+    /**
+     * Loads that are currently running, by key
+     */
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Number of calls that ran the load themselves
+     */
+    private final LongAdder leaders = new LongAdder();
+
+    /**
+     * Number of calls that joined a load already in flight
+     */
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Run the loader for a key, or join the load already running for it
+     *
+     * @param key The key identifying the load
+     * @param loader The expensive operation to run at most once concurrently
+     * @return The value produced by the (possibly shared) load
+     */
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> ours = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, ours);
+
+        if (running != null) {
+            coalesced.increment();
+            return await(running);
+        }
+
+        leaders.increment();
+        try {
+            V value = loader.get();
+            ours.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            ours.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, ours);
+        }
+    }
+
+    /**
+     * Wait for a load started by another thread
+     *
+     * @param running The leader's future
+     * @return The leader's value
+     */
+    private V await(CompletableFuture<V> running) {
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new CompletionException(e.getCause());
+        }
+    }
+
+    /**
+     * Get a snapshot of the coalescing counters
+     *
+     * @return Current statistics
+     */
+    public Stats getStats() {
+        return new Stats(leaders.sum(), coalesced.sum(), inFlight.size());
+    }
+
+    /**
+     * Stats - Snapshot of the coalescing counters
+     *
+     * @param loads Calls that ran the load themselves
+     * @param coalesced Calls that were served by another call's load
+     * @param inFlight Loads running right now
+     */
+    public record Stats(long loads, long coalesced, int inFlight) {
+    }
+}
@@ -0,0 +1,157 @@
+package com.weatherapp.cache;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.RemovalListener;
+import com.weatherapp.service.WeatherDataset;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * WeatherCachePolicy - Runtime-Tunable Size and TTLs of the Weather Caches
+ *
+ * Holds the current settings of each per-dataset weather cache (see
+ * WeatherDataset), initialized from application.properties:
+ * - maximum weight: estimated bytes the cache may retain (see CacheWeigher)
+ * - soft TTL: age after which an entry is refreshed in the background
+ * - hard TTL: age after which an entry is evicted
+ *
+ * The caches read their hard TTL through expiry(), and WeatherService reads
+ * the soft TTL on every lookup, so new settings take effect without a
+ * restart. Applying a new maximum weight and re-timing entries that are
+ * already cached is done by WeatherService.updateCachePolicy.
+ *
+ * It also counts each cache's evictions by cause (size, expiry, garbage
+ * collection), so the effect of a change can be observed.
+ *
+ * Thread-safe.
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+public class WeatherCachePolicy {
+
+    private final Map<WeatherDataset, Settings> settings = new ConcurrentHashMap<>();
+
+    private final Map<WeatherDataset, Map<RemovalCause, LongAdder>> evictions = new EnumMap<>(WeatherDataset.class);
+
+    /**
+     * @param initial Initial settings of every dataset
+     */
+    public WeatherCachePolicy(Map<WeatherDataset, Settings> initial) {
+        for (WeatherDataset dataset : WeatherDataset.values()) {
+            Settings datasetSettings = initial.get(dataset);
+            if (datasetSettings == null) {
+                throw new IllegalArgumentException("No cache settings for " + dataset);
+            }
+            settings.put(dataset, datasetSettings);
+
+            Map<RemovalCause, LongAdder> counters = new EnumMap<>(RemovalCause.class);
+            for (RemovalCause cause : RemovalCause.values()) {
+                if (cause.wasEvicted()) {
+                    counters.put(cause, new LongAdder());
+                }
+            }
+            evictions.put(dataset, counters);
+        }
+    }
+
+    /**
+     * Get the current settings of a dataset's cache
+     *
+     * @param dataset The dataset
+     * @return Its settings
+     */
+    public Settings get(WeatherDataset dataset) {
+        return settings.get(dataset);
+    }
+
+    /**
+     * Replace the settings of a dataset's cache
+     *
+     * @param dataset The dataset
+     * @param newSettings The new settings
+     */
+    public void set(WeatherDataset dataset, Settings newSettings) {
+        settings.put(dataset, newSettings);
+    }
+
+    /**
+     * Get the expiration policy of a dataset's cache
+     *
+     * Entries expire after the hard TTL that is current when they are written.
+     *
+     * @param dataset The dataset
+     * @return Expiry reading the dataset's hard TTL
+     */
+    public Expiry<Object, Object> expiry(WeatherDataset dataset) {
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(Object key, Object value, long currentTime) {
+                return get(dataset).hardTtl().toNanos();
+            }
+
+            @Override
+            public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+                return get(dataset).hardTtl().toNanos();
+            }
+
+            @Override
+            public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+
+    /**
+     * Get the eviction listener of a dataset's cache
+     *
+     * @param dataset The dataset
+     * @return Listener counting evictions by cause
+     */
+    public RemovalListener<Object, Object> evictionCounter(WeatherDataset dataset) {
+        Map<RemovalCause, LongAdder> counters = evictions.get(dataset);
+        return (key, value, cause) -> {
+            LongAdder counter = counters.get(cause);
+            if (counter != null) {
+                counter.increment();
+            }
+        };
+    }
+
+    /**
+     * Get the evictions of a dataset's cache by cause
+     *
+     * @param dataset The dataset
+     * @return Evicted entries per cause (SIZE, EXPIRED, COLLECTED)
+     */
+    public Map<RemovalCause, Long> evictions(WeatherDataset dataset) {
+        Map<RemovalCause, Long> counts = new LinkedHashMap<>();
+        evictions.get(dataset).forEach((cause, counter) -> counts.put(cause, counter.sum()));
+        return counts;
+    }
+
+    /**
+     * Settings - Size bound and lifetimes of one weather cache
+     *
+     * @param maxWeightBytes Estimated bytes the cache may retain
+     * @param softTtl Age after which an entry is refreshed in the background
+     * @param hardTtl Age after which an entry is evicted
+     */
+    public record Settings(long maxWeightBytes, Duration softTtl, Duration hardTtl) {
+
+        public Settings {
+            if (maxWeightBytes <= 0) {
+                throw new IllegalArgumentException("Maximum weight must be positive");
+            }
+            if (softTtl.isNegative() || softTtl.isZero() || hardTtl.compareTo(softTtl) < 0) {
+                throw new IllegalArgumentException("TTLs must be positive, and the hard TTL at least the soft TTL");
+            }
+        }
+    }
+}
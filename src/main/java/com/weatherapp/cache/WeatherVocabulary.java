@@ -0,0 +1,118 @@
+package com.weatherapp.cache;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * WeatherVocabulary - Dictionary of the Strings Repeated in Forecasts
+ *
+ * OpenWeatherMap describes conditions with a small, fixed vocabulary (about
+ * 55 descriptions such as "light rain" and 18 icon codes such as "10d"), yet
+ * every forecast entry arrives with its own String instances. A vocabulary
+ * assigns each distinct string a 16-bit code, so cached forecasts store one
+ * char per entry and share a single String per value.
+ *
+ * The known OpenWeatherMap values are registered up front; strings never
+ * seen before (e.g. new upstream descriptions) are added on first use.
+ * Codes are only valid within the running process and are never persisted.
+ *
+ * Thread-safe: lookups are lock-free, additions are copy-on-write.
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+final class WeatherVocabulary {
+
+    /**
+     * Code of null
+     */
+    static final char NULL_CODE = 0;
+
+    /**
+     * Condition descriptions of the OpenWeatherMap condition codes (English)
+     */
+    static final WeatherVocabulary CONDITIONS = new WeatherVocabulary(List.of(
+            "thunderstorm with light rain", "thunderstorm with rain", "thunderstorm with heavy rain",
+            "light thunderstorm", "thunderstorm", "heavy thunderstorm", "ragged thunderstorm",
+            "thunderstorm with light drizzle", "thunderstorm with drizzle", "thunderstorm with heavy drizzle",
+            "light intensity drizzle", "drizzle", "heavy intensity drizzle", "light intensity drizzle rain",
+            "drizzle rain", "heavy intensity drizzle rain", "shower rain and drizzle",
+            "heavy shower rain and drizzle", "shower drizzle",
+            "light rain", "moderate rain", "heavy intensity rain", "very heavy rain", "extreme rain",
+            "freezing rain", "light intensity shower rain", "shower rain", "heavy intensity shower rain",
+            "ragged shower rain",
+            "light snow", "snow", "heavy snow", "sleet", "light shower sleet", "shower sleet",
+            "light rain and snow", "rain and snow", "light shower snow", "shower snow", "heavy shower snow",
+            "mist", "smoke", "haze", "sand/dust whirls", "fog", "sand", "dust", "volcanic ash", "squalls",
+            "tornado",
+            "clear sky", "few clouds", "scattered clouds", "broken clouds", "overcast clouds"));
+
+    /**
+     * OpenWeatherMap icon codes, day and night
+     */
+    static final WeatherVocabulary ICONS = new WeatherVocabulary(List.of(
+            "01d", "01n", "02d", "02n", "03d", "03n", "04d", "04n", "09d", "09n",
+            "10d", "10n", "11d", "11n", "13d", "13n", "50d", "50n"));
+
+    private final Map<String, Character> codes = new ConcurrentHashMap<>();
+
+    /**
+     * Values by code; index 0 stands for null
+     */
+    private volatile String[] values = new String[1];
+
+    private WeatherVocabulary(List<String> known) {
+        known.forEach(this::encode);
+    }
+
+    /**
+     * Get the code of a value, adding it to the vocabulary if it is new
+     *
+     * @param value The value, or null
+     * @return Its code; NULL_CODE for null, or if the vocabulary is full
+     */
+    char encode(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Character code = codes.get(value);
+        return code != null ? code : add(value);
+    }
+
+    /**
+     * Get the value of a code
+     *
+     * @param code A code returned by encode
+     * @return The shared value, or null for NULL_CODE
+     */
+    String decode(char code) {
+        return code == NULL_CODE ? null : values[code];
+    }
+
+    /**
+     * Number of values in the vocabulary
+     */
+    int size() {
+        return values.length - 1;
+    }
+
+    private synchronized char add(String value) {
+        Character existing = codes.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        String[] current = values;
+        if (current.length > Character.MAX_VALUE) {
+            return NULL_CODE;
+        }
+        String[] grown = Arrays.copyOf(current, current.length + 1);
+        char code = (char) current.length;
+        grown[code] = value;
+        // Publish the value before its code, so decode never sees an unknown code
+        values = grown;
+        codes.put(value, code);
+        return code;
+    }
+}
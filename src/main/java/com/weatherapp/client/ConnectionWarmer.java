@@ -0,0 +1,89 @@
+package com.weatherapp.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * ConnectionWarmer - Opens Upstream Connections at Startup
+ * 
+ * The first request after a (re)start would otherwise pay the DNS lookup,
+ * TCP handshake and TLS handshake to api.openweathermap.org. Once the
+ * application is ready, this component sends a few HEAD requests to the
+ * root of each upstream host so that pooled, kept-alive connections (and
+ * the cached DNS entry) already exist when the first user arrives.
+ * 
+ * The HEAD requests do not carry an API key and do not count against the
+ * OpenWeatherMap quota. Warm-up runs asynchronously and failures are only
+ * logged, so it never delays or breaks startup.
+ * 
+ * @author Weather App Team
+ * @version 1.0
+ */
+@Component
+@Slf4j
+public class ConnectionWarmer {
+
+    /**
+     * Shared HTTP client used by the RestTemplate
+     * Injected by Spring's dependency injection
+     */
+    @Autowired
+    private HttpClient upstreamHttpClient;
+
+    @Value("${weather.api.base-url}")
+    private String apiBaseUrl;
+
+    @Value("${weather.api.geocoding-url}")
+    private String geocodingUrl;
+
+    @Value("${weather.http.warmup.enabled}")
+    private boolean enabled;
+
+    @Value("${weather.http.warmup.connections}")
+    private int connections;
+
+    /**
+     * Warm up connections once the application has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+
+        // Several endpoints usually share one host; warm each host once
+        Set<URI> hosts = new LinkedHashSet<>();
+        hosts.add(URI.create(apiBaseUrl).resolve("/"));
+        hosts.add(URI.create(geocodingUrl).resolve("/"));
+
+        for (URI host : hosts) {
+            for (int i = 0; i < connections; i++) {
+                HttpRequest request = HttpRequest.newBuilder(host)
+                        .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                        .timeout(Duration.ofSeconds(10))
+                        .build();
+
+                upstreamHttpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, error) -> {
+                            if (error != null) {
+                                log.warn("Connection warm-up to {} failed: {}", host, error.toString());
+                            } else {
+                                log.info("Warmed up connection to {} ({})", host, response.version());
+                            }
+                        });
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.weatherapp.client;
+
+import java.util.Arrays;
+
+/**
+ * LatencyWindow - Percentiles over the Most Recent Upstream Latencies
+ *
+ * Keeps the last N latencies of one endpoint in a ring buffer, so the
+ * percentiles follow the endpoint's current behaviour rather than its
+ * history. The sorted copy used for percentiles is rebuilt lazily, at most
+ * once per REBUILD_INTERVAL new samples, which keeps lookups on the request
+ * path cheap.
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+final class LatencyWindow {
+
+    /**
+     * New samples after which the sorted copy is rebuilt
+     */
+    private static final int REBUILD_INTERVAL = 16;
+
+    private final long[] samples;
+    private int next;
+    private int count;
+    private long[] sorted = new long[0];
+    private int sinceRebuild;
+
+    LatencyWindow(int size) {
+        this.samples = new long[size];
+    }
+
+    /**
+     * Add one latency
+     *
+     * @param nanos Latency in nanoseconds
+     */
+    synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+        sinceRebuild++;
+    }
+
+    /**
+     * Get the number of latencies in the window
+     *
+     * @return Sample count, at most the window size
+     */
+    synchronized int size() {
+        return count;
+    }
+
+    /**
+     * Get a percentile of the latencies in the window
+     *
+     * @param quantile The quantile, e.g. 0.95
+     * @return The latency in nanoseconds, or 0 if the window is empty
+     */
+    synchronized long percentile(double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        if (sorted.length != count || sinceRebuild >= REBUILD_INTERVAL) {
+            sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            sinceRebuild = 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
@@ -0,0 +1,69 @@
+package com.weatherapp.client;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PerHostConnectionLimiter - Caps Concurrent Upstream Requests per Host
+ * 
+ * The JDK HttpClient pools connections but has no per-host limit. This
+ * interceptor holds a permit per in-flight request, from sending the request
+ * until the response is closed (i.e. until its body has been read), so at
+ * most maxPerHost connections (HTTP/1.1) or streams (HTTP/2) are used per host.
+ * 
+ * A request that cannot get a permit within the acquire timeout fails with a
+ * ResourceAccessException instead of queueing without bound.
+ * 
+ * @author Weather App Team
+ * @version 1.0
+ */
+public class PerHostConnectionLimiter implements ClientHttpRequestInterceptor {
+
+    private final int maxPerHost;
+    private final Duration acquireTimeout;
+    private final ConcurrentMap<String, Semaphore> permits = new ConcurrentHashMap<>();
+
+    /**
+     * Create a limiter
+     * 
+     * @param maxPerHost Maximum concurrent requests per host
+     * @param acquireTimeout How long a request may wait for a free slot
+     */
+    public PerHostConnectionLimiter(int maxPerHost, Duration acquireTimeout) {
+        this.maxPerHost = maxPerHost;
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        String host = request.getURI().getAuthority();
+        Semaphore semaphore = permits.computeIfAbsent(host, h -> new Semaphore(maxPerHost, true));
+
+        try {
+            if (!semaphore.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new ResourceAccessException("Connection limit of " + maxPerHost + " reached for host " + host);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException("Interrupted while waiting for a connection to " + host);
+        }
+
+        try {
+            return new PermitReleasingResponse(execution.execute(request, body), semaphore);
+        } catch (IOException | RuntimeException e) {
+            semaphore.release();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.weatherapp.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Semaphore;
+
+/**
+ * PermitReleasingResponse - Returns a Semaphore Permit Once the Response Is Closed
+ * 
+ * Used by the interceptors that bound concurrent upstream requests: the
+ * permit is held until the response body has been read and the response is
+ * closed, not just until the response headers arrive.
+ * 
+ * @author Weather App Team
+ * @version 1.0
+ */
+final class PermitReleasingResponse implements ClientHttpResponse {
+
+    private final ClientHttpResponse delegate;
+    private Semaphore semaphore;
+
+    PermitReleasingResponse(ClientHttpResponse delegate, Semaphore semaphore) {
+        this.delegate = delegate;
+        this.semaphore = semaphore;
+    }
+
+    @Override
+    public HttpStatusCode getStatusCode() throws IOException {
+        return delegate.getStatusCode();
+    }
+
+    @Override
+    public String getStatusText() throws IOException {
+        return delegate.getStatusText();
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return delegate.getHeaders();
+    }
+
+    @Override
+    public InputStream getBody() throws IOException {
+        return delegate.getBody();
+    }
+
+    @Override
+    public void close() {
+        try {
+            delegate.close();
+        } finally {
+            // close() may be called more than once
+            if (semaphore != null) {
+                semaphore.release();
+                semaphore = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package com.weatherapp.client;
+
+import com.weatherapp.exception.UpstreamQuotaExceededException;
+import com.weatherapp.exception.UpstreamUnavailableException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * UpstreamCaller - Adaptive Timeouts and Hedged Requests per Upstream Endpoint
+ *
+ * A static 30 second read timeout is far too long for an endpoint that
+ * usually answers in 200 ms, and our p99 is dominated by the occasional
+ * slow response that a duplicate request would beat. Every OpenWeatherMap
+ * call is therefore made through this class, which tracks the recent
+ * latencies of each endpoint (see LatencyWindow) and derives from them:
+ *
+ * - Timeout: weather.upstream.timeout.multiplier times the endpoint's p99,
+ *   kept between weather.upstream.timeout.min and weather.http.read-timeout
+ *   (the latter is used until enough samples have been seen)
+ * - Hedge delay: when a call has not answered after the endpoint's
+ *   weather.upstream.hedge.percentile latency, a second identical request is
+ *   sent and whichever answers first wins; the other one is cancelled
+ *
+ * Timed-out attempts and primaries beaten by their hedge are recorded in
+ * the latency window with the time they had taken when given up (a lower
+ * bound of their latency), so the timeout rises when the endpoint slows
+ * down instead of timing out every call from then on.
+ *
+ * A cancelled losing attempt is abandoned, not failed: UpstreamCircuitBreakers
+ * does not count it against the endpoint (see isAbandoned). Attempts cut
+ * off by the timeout do count.
+ *
+ * Hedges cost quota, so they are capped twice:
+ * - at most weather.upstream.hedge.max-ratio hedges per call on average
+ *   (a small burst is allowed)
+ * - hedges are sent with BACKGROUND priority, so UpstreamGovernor rejects
+ *   them rather than letting them wait for or eat into the users' budget
+ *
+ * Background calls are never hedged: nobody is waiting for them.
+ *
+ * Metrics (see MeterRegistry):
+ * - weather.upstream.requests: latency histogram of every attempt, tagged
+ *   by endpoint and outcome (success, client_error, server_error, rejected,
+ *   cancelled, error)
+ * - weather.upstream.timeouts, weather.upstream.hedges and
+ *   weather.upstream.hedge.wins: counters per endpoint
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+@Slf4j
+public class UpstreamCaller {
+
+    /**
+     * Maximum number of hedges that can be saved up for a burst
+     */
+    private static final double MAX_HEDGE_CREDITS = 5;
+
+    /**
+     * Whether the attempt running on the current thread was abandoned
+     */
+    private static final ThreadLocal<AtomicBoolean> ABANDONED = new ThreadLocal<>();
+
+    private final int windowSize;
+    private final int minSamples;
+    private final double timeoutMultiplier;
+    private final Duration minTimeout;
+    private final Duration maxTimeout;
+    private final boolean hedgeEnabled;
+    private final double hedgePercentile;
+    private final double hedgeRatio;
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final Object hedgeLock = new Object();
+    private double hedgeCredits;
+
+    /**
+     * Create the caller
+     *
+     * @param windowSize Latencies kept per endpoint
+     * @param minSamples Latencies needed before timeouts adapt and hedging starts
+     * @param timeoutMultiplier Timeout as a multiple of the p99 latency
+     * @param minTimeout Lower bound of the adaptive timeout
+     * @param maxTimeout Upper bound of the adaptive timeout
+     * @param hedgeEnabled Whether hedged requests are sent at all
+     * @param hedgePercentile Latency percentile after which a hedge is sent
+     * @param hedgeRatio Maximum hedges per call on average
+     * @param meterRegistry Registry the upstream metrics are published to
+     */
+    public UpstreamCaller(int windowSize, int minSamples, double timeoutMultiplier, Duration minTimeout,
+                          Duration maxTimeout, boolean hedgeEnabled, double hedgePercentile, double hedgeRatio,
+                          MeterRegistry meterRegistry) {
+        this.windowSize = windowSize;
+        this.minSamples = minSamples;
+        this.timeoutMultiplier = timeoutMultiplier;
+        this.minTimeout = minTimeout;
+        this.maxTimeout = maxTimeout;
+        this.hedgeEnabled = hedgeEnabled;
+        this.hedgePercentile = hedgePercentile;
+        this.hedgeRatio = hedgeRatio;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Make an upstream call with an adaptive timeout and an optional hedge
+     *
+     * @param name Endpoint name, e.g. "weather"
+     * @param request The request; called once, or twice when hedged
+     * @return The first successful result
+     * @throws ResourceAccessException If no result arrived within the timeout
+     */
+    public <T> T call(String name, Supplier<T> request) {
+        Endpoint endpoint = endpoints.computeIfAbsent(name, this::newEndpoint);
+        endpoint.calls.increment();
+        earnHedgeCredit();
+
+        UpstreamPriority priority = UpstreamPriority.current();
+        long timeoutNanos = timeoutNanos(endpoint);
+        long hedgeAfterNanos = priority == UpstreamPriority.BACKGROUND ? -1 : hedgeAfterNanos(endpoint);
+        long start = System.nanoTime();
+        long deadline = start + timeoutNanos;
+
+        List<Future<T>> attempts = new ArrayList<>(2);
+        AtomicBoolean abandoned = new AtomicBoolean();
+        boolean timedOut = false;
+        try (ExecutorService scope = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletionService<T> completion = new ExecutorCompletionService<>(scope);
+            try {
+                attempts.add(completion.submit(() -> timed(endpoint, priority, request, abandoned)));
+                boolean hedgeConsidered = hedgeAfterNanos < 0;
+                RuntimeException primaryFailure = null;
+                RuntimeException hedgeFailure = null;
+                int pending = 1;
+                boolean primaryPending = true;
+
+                while (pending > 0) {
+                    long waitUntil = hedgeConsidered ? deadline : Math.min(deadline, start + hedgeAfterNanos);
+                    Future<T> done = completion.poll(waitUntil - System.nanoTime(), TimeUnit.NANOSECONDS);
+
+                    if (done == null) {
+                        if (System.nanoTime() - deadline >= 0) {
+                            timedOut = true;
+                            endpoint.timeouts.increment();
+                            // Censored sample: the latency was at least this long. Without it, an
+                            // endpoint that became slower than its timeout could never raise it again
+                            endpoint.window.record(System.nanoTime() - start);
+                            throw new ResourceAccessException("Upstream endpoint '" + name + "' did not respond within "
+                                    + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + " ms");
+                        }
+                        hedgeConsidered = true;
+                        if (takeHedgeCredit()) {
+                            endpoint.hedges.increment();
+                            attempts.add(completion.submit(
+                                    () -> timed(endpoint, UpstreamPriority.BACKGROUND, request, abandoned)));
+                            pending++;
+                        }
+                        continue;
+                    }
+
+                    pending--;
+                    boolean primary = done == attempts.get(0);
+                    primaryPending &= !primary;
+                    try {
+                        T result = done.get();
+                        if (!primary) {
+                            endpoint.hedgeWins.increment();
+                            if (primaryPending) {
+                                // The losing primary took at least this long; recording only the
+                                // hedge's latency would make the window read low
+                                endpoint.window.record(System.nanoTime() - start);
+                            }
+                        }
+                        return result;
+                    } catch (ExecutionException e) {
+                        if (primary) {
+                            primaryFailure = unchecked(e.getCause());
+                        } else {
+                            hedgeFailure = unchecked(e.getCause());
+                        }
+                    }
+                }
+                throw primaryFailure != null ? primaryFailure : hedgeFailure;
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ResourceAccessException("Interrupted while calling upstream endpoint '" + name + "'");
+            } finally {
+                // Cancel the losing (or timed-out) attempt so closing the scope never waits for it;
+                // only a timeout is the endpoint's fault
+                abandoned.set(!timedOut);
+                attempts.forEach(attempt -> attempt.cancel(true));
+            }
+        }
+    }
+
+    /**
+     * Get the latency percentiles and derived settings of every endpoint
+     *
+     * @return Latency statistics by endpoint name
+     */
+    public Map<String, EndpointLatency> getStats() {
+        Map<String, EndpointLatency> stats = new TreeMap<>();
+        endpoints.forEach((name, endpoint) -> {
+            long hedgeAfter = hedgeAfterNanos(endpoint);
+            stats.put(name, new EndpointLatency(endpoint.window.size(),
+                    millis(endpoint.window.percentile(0.5)), millis(endpoint.window.percentile(0.95)),
+                    millis(endpoint.window.percentile(0.99)), millis(timeoutNanos(endpoint)),
+                    hedgeAfter < 0 ? null : millis(hedgeAfter), endpoint.calls.sum(), endpoint.timeouts.sum(),
+                    endpoint.hedges.sum(), endpoint.hedgeWins.sum()));
+        });
+        return stats;
+    }
+
+    /**
+     * Whether the attempt running on the current thread was cancelled because
+     * its call no longer needs it (another attempt won, or the caller was
+     * interrupted), rather than because it timed out
+     *
+     * @return true for an abandoned attempt, false otherwise or outside of a call
+     */
+    static boolean isAbandoned() {
+        AtomicBoolean abandoned = ABANDONED.get();
+        return abandoned != null && abandoned.get();
+    }
+
+    private <T> T timed(Endpoint endpoint, UpstreamPriority priority, Supplier<T> request,
+                        AtomicBoolean abandoned) throws Exception {
+        long start = System.nanoTime();
+        String outcome = "error";
+        ABANDONED.set(abandoned);
+        try {
+            T result = priority.call(request::get);
+            outcome = "success";
+            endpoint.window.record(System.nanoTime() - start);
+            return result;
+        } catch (RuntimeException e) {
+            outcome = outcome(e);
+            throw e;
+        } finally {
+            ABANDONED.remove();
+            Timer.builder("weather.upstream.requests")
+                    .description("Latency of OpenWeatherMap requests, including hedges")
+                    .tag("endpoint", endpoint.name)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static String outcome(RuntimeException e) {
+        if (Thread.currentThread().isInterrupted()) {
+            return "cancelled";
+        }
+        if (e instanceof HttpClientErrorException) {
+            return "client_error";
+        }
+        if (e instanceof HttpServerErrorException) {
+            return "server_error";
+        }
+        if (e instanceof UpstreamQuotaExceededException || e instanceof UpstreamUnavailableException) {
+            return "rejected";
+        }
+        return "error";
+    }
+
+    private Endpoint newEndpoint(String name) {
+        Endpoint endpoint = new Endpoint(name, windowSize);
+        FunctionCounter.builder("weather.upstream.timeouts", endpoint.timeouts, LongAdder::sum)
+                .description("Upstream calls that exceeded their adaptive timeout")
+                .tag("endpoint", name)
+                .register(meterRegistry);
+        FunctionCounter.builder("weather.upstream.hedges", endpoint.hedges, LongAdder::sum)
+                .description("Hedged upstream requests sent")
+                .tag("endpoint", name)
+                .register(meterRegistry);
+        FunctionCounter.builder("weather.upstream.hedge.wins", endpoint.hedgeWins, LongAdder::sum)
+                .description("Hedged upstream requests that answered first")
+                .tag("endpoint", name)
+                .register(meterRegistry);
+        return endpoint;
+    }
+
+    private long timeoutNanos(Endpoint endpoint) {
+        if (endpoint.window.size() < minSamples) {
+            return maxTimeout.toNanos();
+        }
+        long adaptive = (long) (endpoint.window.percentile(0.99) * timeoutMultiplier);
+        return Math.max(minTimeout.toNanos(), Math.min(maxTimeout.toNanos(), adaptive));
+    }
+
+    private long hedgeAfterNanos(Endpoint endpoint) {
+        if (!hedgeEnabled || endpoint.window.size() < minSamples) {
+            return -1;
+        }
+        return endpoint.window.percentile(hedgePercentile);
+    }
+
+    private void earnHedgeCredit() {
+        synchronized (hedgeLock) {
+            hedgeCredits = Math.min(MAX_HEDGE_CREDITS, hedgeCredits + hedgeRatio);
+        }
+    }
+
+    private boolean takeHedgeCredit() {
+        synchronized (hedgeLock) {
+            if (hedgeCredits < 1) {
+                return false;
+            }
+            hedgeCredits--;
+            return true;
+        }
+    }
+
+    private static RuntimeException unchecked(Throwable cause) {
+        return cause instanceof RuntimeException runtime ? runtime : new IllegalStateException(cause);
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    /**
+     * Endpoint - Latencies and counters of one upstream endpoint
+     */
+    private static final class Endpoint {
+
+        private final String name;
+        private final LatencyWindow window;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder hedges = new LongAdder();
+        private final LongAdder hedgeWins = new LongAdder();
+
+        Endpoint(String name, int windowSize) {
+            this.name = name;
+            this.window = new LatencyWindow(windowSize);
+        }
+    }
+
+    /**
+     * EndpointLatency - Latency statistics of one upstream endpoint
+     *
+     * @param samples Latencies in the window
+     * @param p50Ms Median latency
+     * @param p95Ms 95th percentile latency
+     * @param p99Ms 99th percentile latency
+     * @param timeoutMs Current timeout
+     * @param hedgeAfterMs Current hedge delay, null while hedging is off
+     * @param calls Calls since startup
+     * @param timeouts Calls that timed out
+     * @param hedges Hedged requests sent
+     * @param hedgeWins Hedged requests that answered first
+     */
+    public record EndpointLatency(int samples, long p50Ms, long p95Ms, long p99Ms, long timeoutMs, Long hedgeAfterMs,
+                                  long calls, long timeouts, long hedges, long hedgeWins) {
+    }
+}
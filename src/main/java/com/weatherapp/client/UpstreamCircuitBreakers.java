@@ -0,0 +1,330 @@
+package com.weatherapp.client;
+
+import com.weatherapp.exception.UpstreamQuotaExceededException;
+import com.weatherapp.exception.UpstreamUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * UpstreamCircuitBreakers - Circuit Breaker and Bulkhead per Upstream Endpoint
+ *
+ * When OpenWeatherMap is slow or down, every cache miss used to wait for the
+ * full connect and read timeouts. This keeps one circuit breaker and one
+ * bulkhead per endpoint, named after the last path segment of the request
+ * ("direct" for geocoding, "weather", "forecast", "air_pollution"), so one
+ * failing endpoint never slows down the others.
+ *
+ * They are two interceptors: this one checks the circuit and records the
+ * outcome, bulkhead() takes the slot. The UpstreamGovernor goes between
+ * them, so an open circuit spends no call budget and a request waiting for
+ * budget holds no slot.
+ *
+ * Circuit breaker:
+ * - CLOSED: requests pass; after weather.upstream.circuit.failure-threshold
+ *   consecutive failures (I/O errors, timeouts, 5xx or 429 responses) the
+ *   circuit opens; attempts abandoned by UpstreamCaller are no failures
+ * - OPEN: requests fail immediately for weather.upstream.circuit.open-duration
+ * - HALF_OPEN: a single trial request is let through; success closes the
+ *   circuit, failure opens it again
+ *
+ * Bulkhead: at most weather.upstream.bulkhead.max-concurrent requests per
+ * endpoint are in flight (by default as many as weather.http.max-connections-per-host
+ * allows). When all are taken, a request a user is waiting for waits up to
+ * weather.upstream.bulkhead.max-wait for a free slot, then fails instead of
+ * queueing behind a slow endpoint. BACKGROUND requests, hedges included
+ * (see UpstreamCaller), never wait and may not take the last
+ * weather.upstream.bulkhead.background-reserve share of the slots, so
+ * refreshes and hedges cannot crowd out users.
+ *
+ * Requests that are not sent fail with UpstreamUnavailableException within
+ * microseconds; WeatherService then serves the last known data (marked as
+ * stale) or a partial response without the affected section.
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+@Slf4j
+public class UpstreamCircuitBreakers implements ClientHttpRequestInterceptor {
+
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final int maxConcurrent;
+    private final long maxWaitNanos;
+    private final int maxBackground;
+    private final ConcurrentMap<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final ClientHttpRequestInterceptor bulkhead = this::acquireSlot;
+
+    /**
+     * Create the circuit breakers
+     *
+     * @param failureThreshold Consecutive failures that open a circuit
+     * @param openDuration How long an open circuit rejects requests before a trial
+     * @param maxConcurrent Maximum in-flight requests per endpoint
+     * @param maxWait How long a non-background request waits for a free slot
+     * @param backgroundReserve Share of the slots (0..1) that BACKGROUND requests may not use
+     */
+    public UpstreamCircuitBreakers(int failureThreshold, Duration openDuration, int maxConcurrent,
+                                   Duration maxWait, double backgroundReserve) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.maxBackground = (int) Math.floor(maxConcurrent * (1 - backgroundReserve));
+    }
+
+    /**
+     * Check the endpoint's circuit and record the outcome of the request
+     *
+     * The bulkhead slot is taken further down the chain (see bulkhead()), so
+     * an open circuit is rejected before anything else is spent.
+     */
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        String name = endpointName(request);
+        Endpoint endpoint = endpoint(name);
+
+        if (!endpoint.allowRequest(System.nanoTime())) {
+            endpoint.rejectedOpen.increment();
+            throw new UpstreamUnavailableException("Circuit for upstream endpoint '" + name + "' is open");
+        }
+
+        ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+        } catch (UpstreamQuotaExceededException | BulkheadFullException | SlotWaitInterruptedException e) {
+            // Not sent at all, so it says nothing about the endpoint's health
+            endpoint.releaseTrial();
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            if (UpstreamCaller.isAbandoned()) {
+                // A losing hedge attempt that was cancelled, not a failing endpoint
+                endpoint.releaseTrial();
+            } else {
+                onFailure(name, endpoint);
+            }
+            throw e;
+        }
+
+        HttpStatusCode status = response.getStatusCode();
+        if (status.is5xxServerError() || status.isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS)) {
+            onFailure(name, endpoint);
+        } else {
+            endpoint.onSuccess();
+        }
+        return response;
+    }
+
+    /**
+     * Get the bulkhead interceptor
+     *
+     * It must come after this interceptor and after the UpstreamGovernor in
+     * the chain, so a request waiting for call budget holds no slot.
+     *
+     * @return The interceptor that takes a bulkhead slot per request
+     */
+    public ClientHttpRequestInterceptor bulkhead() {
+        return bulkhead;
+    }
+
+    private ClientHttpResponse acquireSlot(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        String name = endpointName(request);
+        Endpoint endpoint = endpoint(name);
+        boolean background = UpstreamPriority.current() == UpstreamPriority.BACKGROUND;
+
+        boolean acquired;
+        try {
+            acquired = endpoint.acquire(background, maxWaitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SlotWaitInterruptedException("Interrupted while waiting for upstream endpoint '" + name + "'");
+        }
+        if (!acquired) {
+            endpoint.rejectedFull.increment();
+            throw new BulkheadFullException("Too many concurrent requests to upstream endpoint '" + name + "'");
+        }
+
+        ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+        } catch (IOException | RuntimeException e) {
+            endpoint.release(background);
+            throw e;
+        }
+        response = new PermitReleasingResponse(response, endpoint.bulkhead);
+        return background ? new PermitReleasingResponse(response, endpoint.backgroundSlots) : response;
+    }
+
+    /**
+     * Get the state of every endpoint called so far
+     *
+     * @return Circuit and bulkhead state by endpoint name
+     */
+    public Map<String, CircuitStats> getStats() {
+        Map<String, CircuitStats> stats = new TreeMap<>();
+        endpoints.forEach((name, endpoint) -> stats.put(name, endpoint.stats(maxConcurrent)));
+        return stats;
+    }
+
+    private Endpoint endpoint(String name) {
+        return endpoints.computeIfAbsent(name, n -> new Endpoint(maxConcurrent, maxBackground));
+    }
+
+    private void onFailure(String name, Endpoint endpoint) {
+        if (endpoint.onFailure(System.nanoTime(), failureThreshold, openDuration.toNanos())) {
+            log.warn("Opened circuit for upstream endpoint '{}' for {}", name, openDuration);
+        }
+    }
+
+    private static String endpointName(HttpRequest request) {
+        String path = request.getURI().getPath();
+        if (path == null || path.isEmpty()) {
+            return "/";
+        }
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * State - Circuit breaker states
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * Endpoint - Circuit breaker and bulkhead of one upstream endpoint
+     */
+    private static final class Endpoint {
+
+        private final Semaphore bulkhead;
+        private final Semaphore backgroundSlots;
+        private final LongAdder rejectedOpen = new LongAdder();
+        private final LongAdder rejectedFull = new LongAdder();
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private long openUntil;
+        private long opened;
+
+        Endpoint(int maxConcurrent, int maxBackground) {
+            this.bulkhead = new Semaphore(maxConcurrent);
+            this.backgroundSlots = new Semaphore(maxBackground);
+        }
+
+        /**
+         * @return true if a slot was taken
+         */
+        boolean acquire(boolean background, long maxWaitNanos) throws InterruptedException {
+            if (!background) {
+                return bulkhead.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+            }
+            if (!backgroundSlots.tryAcquire()) {
+                return false;
+            }
+            if (bulkhead.tryAcquire()) {
+                return true;
+            }
+            backgroundSlots.release();
+            return false;
+        }
+
+        void release(boolean background) {
+            bulkhead.release();
+            if (background) {
+                backgroundSlots.release();
+            }
+        }
+
+        synchronized boolean allowRequest(long now) {
+            if (state == State.CLOSED) {
+                return true;
+            }
+            if (state == State.OPEN && now - openUntil >= 0) {
+                // Let exactly one trial request through
+                state = State.HALF_OPEN;
+                return true;
+            }
+            return false;
+        }
+
+        synchronized void releaseTrial() {
+            if (state == State.HALF_OPEN) {
+                state = State.OPEN;
+            }
+        }
+
+        synchronized void onSuccess() {
+            state = State.CLOSED;
+            consecutiveFailures = 0;
+        }
+
+        /**
+         * @return true if this failure opened the circuit
+         */
+        synchronized boolean onFailure(long now, int threshold, long openNanos) {
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= threshold)) {
+                state = State.OPEN;
+                openUntil = now + openNanos;
+                opened++;
+                return true;
+            }
+            return false;
+        }
+
+        synchronized CircuitStats stats(int maxConcurrent) {
+            return new CircuitStats(state, consecutiveFailures, opened, rejectedOpen.sum(), rejectedFull.sum(),
+                    maxConcurrent - bulkhead.availablePermits());
+        }
+    }
+
+    /**
+     * BulkheadFullException - A request rejected by the bulkhead, never sent
+     */
+    private static final class BulkheadFullException extends UpstreamUnavailableException {
+
+        BulkheadFullException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * SlotWaitInterruptedException - A request interrupted while waiting for a slot, never sent
+     */
+    private static final class SlotWaitInterruptedException extends InterruptedIOException {
+
+        SlotWaitInterruptedException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * CircuitStats - Snapshot of one endpoint's circuit and bulkhead
+     *
+     * @param state Current circuit state
+     * @param consecutiveFailures Failures since the last success
+     * @param timesOpened How often the circuit opened since startup
+     * @param rejectedOpen Requests rejected because the circuit was open
+     * @param rejectedFull Requests rejected because the bulkhead was full
+     * @param inFlight Requests currently in flight
+     */
+    public record CircuitStats(State state, int consecutiveFailures, long timesOpened,
+                               long rejectedOpen, long rejectedFull, int inFlight) {
+    }
+}
@@ -0,0 +1,222 @@
+package com.weatherapp.client;
+
+import com.weatherapp.exception.UpstreamQuotaExceededException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * UpstreamGovernor - Shared OpenWeatherMap Call Budget with Priorities
+ *
+ * OpenWeatherMap enforces per-key call quotas; exceeding them gets the key
+ * throttled for every user. This interceptor sits in front of every
+ * RestTemplate call and only lets a request through when it can take a
+ * token from both budgets:
+ * - a per-minute token bucket (weather.upstream.quota.per-minute)
+ * - a per-day token bucket (weather.upstream.quota.per-day), refilled
+ *   continuously over 24 hours as a rolling approximation of the daily quota
+ *
+ * Tokens are handed out by UpstreamPriority:
+ * - INTERACTIVE and BATCH calls wait up to weather.upstream.quota.max-wait
+ *   for a token; a waiting call is always served before any waiting call of
+ *   lower priority
+ * - BACKGROUND calls never wait, and may not use the last
+ *   weather.upstream.quota.background-reserve share of either budget, which
+ *   is kept for users
+ *
+ * A call that gets no token fails fast with UpstreamQuotaExceededException
+ * without being sent; callers keep serving their cached data instead.
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+@Slf4j
+public class UpstreamGovernor implements ClientHttpRequestInterceptor {
+
+    private final TokenBucket minuteBucket;
+    private final TokenBucket dayBucket;
+    private final Duration maxWait;
+    private final double backgroundReserve;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition tokensChanged = lock.newCondition();
+    private final int[] waiting = new int[UpstreamPriority.values().length];
+    private final Map<UpstreamPriority, LongAdder> granted = new EnumMap<>(UpstreamPriority.class);
+    private final Map<UpstreamPriority, LongAdder> rejected = new EnumMap<>(UpstreamPriority.class);
+
+    /**
+     * Create a governor with full budgets
+     *
+     * @param perMinute Upstream calls allowed per minute
+     * @param perDay Upstream calls allowed per day
+     * @param maxWait How long INTERACTIVE and BATCH calls may wait for a token
+     * @param backgroundReserve Share of each budget (0..1) that BACKGROUND calls may not use
+     */
+    public UpstreamGovernor(int perMinute, int perDay, Duration maxWait, double backgroundReserve) {
+        long now = System.nanoTime();
+        this.minuteBucket = new TokenBucket(perMinute, TimeUnit.MINUTES.toNanos(1), now);
+        this.dayBucket = new TokenBucket(perDay, TimeUnit.DAYS.toNanos(1), now);
+        this.maxWait = maxWait;
+        this.backgroundReserve = backgroundReserve;
+        for (UpstreamPriority priority : UpstreamPriority.values()) {
+            granted.put(priority, new LongAdder());
+            rejected.put(priority, new LongAdder());
+        }
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        acquire(UpstreamPriority.current());
+        return execution.execute(request, body);
+    }
+
+    /**
+     * Take one token from both budgets
+     *
+     * @param priority Priority of the call
+     * @throws UpstreamQuotaExceededException If no token could be taken in time
+     */
+    public void acquire(UpstreamPriority priority) {
+        long maxWaitNanos = priority == UpstreamPriority.BACKGROUND ? 0 : maxWait.toNanos();
+        long deadline = System.nanoTime() + maxWaitNanos;
+
+        lock.lock();
+        waiting[priority.ordinal()]++;
+        try {
+            while (true) {
+                long now = System.nanoTime();
+                minuteBucket.refill(now);
+                dayBucket.refill(now);
+
+                double minuteNeeded = 1 + reserve(priority, minuteBucket);
+                double dayNeeded = 1 + reserve(priority, dayBucket);
+                if (!higherPriorityWaiting(priority)
+                        && minuteBucket.tokens >= minuteNeeded && dayBucket.tokens >= dayNeeded) {
+                    minuteBucket.tokens--;
+                    dayBucket.tokens--;
+                    granted.get(priority).increment();
+                    return;
+                }
+
+                long remaining = deadline - now;
+                if (remaining <= 0 || dayBucket.tokens < dayNeeded) {
+                    // Waiting a few seconds never refills the daily budget noticeably
+                    throw reject(priority, dayBucket.tokens < dayNeeded ? "daily" : "per-minute");
+                }
+                long untilToken = Math.max(minuteBucket.nanosUntil(minuteNeeded), TimeUnit.MILLISECONDS.toNanos(1));
+                tokensChanged.awaitNanos(Math.min(remaining, untilToken));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw reject(priority, "per-minute");
+        } finally {
+            waiting[priority.ordinal()]--;
+            // Let lower priorities re-check once this call got (or gave up on) a token
+            tokensChanged.signalAll();
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get the remaining budgets and the per-priority counters
+     *
+     * @return The budget snapshot
+     */
+    public Budget getBudget() {
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            minuteBucket.refill(now);
+            dayBucket.refill(now);
+
+            Map<UpstreamPriority, Long> grantedCounts = new EnumMap<>(UpstreamPriority.class);
+            Map<UpstreamPriority, Long> rejectedCounts = new EnumMap<>(UpstreamPriority.class);
+            Map<UpstreamPriority, Integer> waitingCounts = new EnumMap<>(UpstreamPriority.class);
+            for (UpstreamPriority priority : UpstreamPriority.values()) {
+                grantedCounts.put(priority, granted.get(priority).sum());
+                rejectedCounts.put(priority, rejected.get(priority).sum());
+                waitingCounts.put(priority, waiting[priority.ordinal()]);
+            }
+            return new Budget(minuteBucket.capacity, (long) minuteBucket.tokens,
+                    dayBucket.capacity, (long) dayBucket.tokens, grantedCounts, rejectedCounts, waitingCounts);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean higherPriorityWaiting(UpstreamPriority priority) {
+        for (int i = 0; i < priority.ordinal(); i++) {
+            if (waiting[i] > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private double reserve(UpstreamPriority priority, TokenBucket bucket) {
+        return priority == UpstreamPriority.BACKGROUND ? backgroundReserve * bucket.capacity : 0;
+    }
+
+    private UpstreamQuotaExceededException reject(UpstreamPriority priority, String budget) {
+        rejected.get(priority).increment();
+        log.warn("Upstream {} call budget exhausted, rejecting {} call", budget, priority);
+        return new UpstreamQuotaExceededException("Upstream " + budget + " call budget exhausted");
+    }
+
+    /**
+     * TokenBucket - Budget refilled continuously up to its capacity
+     *
+     * Only accessed while holding the governor's lock.
+     */
+    private static final class TokenBucket {
+
+        private final long capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long refilledAt;
+
+        TokenBucket(long capacity, long periodNanos, long now) {
+            this.capacity = capacity;
+            this.tokensPerNano = (double) capacity / periodNanos;
+            this.tokens = capacity;
+            this.refilledAt = now;
+        }
+
+        void refill(long now) {
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+        }
+
+        long nanosUntil(double needed) {
+            return tokens >= needed ? 0 : (long) Math.ceil((needed - tokens) / tokensPerNano);
+        }
+    }
+
+    /**
+     * Budget - Remaining upstream call budget and usage per priority
+     *
+     * @param perMinuteLimit Calls allowed per minute
+     * @param perMinuteRemaining Calls currently available in the per-minute budget
+     * @param perDayLimit Calls allowed per day
+     * @param perDayRemaining Calls currently available in the per-day budget
+     * @param granted Calls let through since startup, per priority
+     * @param rejected Calls rejected since startup, per priority
+     * @param waiting Calls currently waiting for a token, per priority
+     */
+    public record Budget(long perMinuteLimit, long perMinuteRemaining, long perDayLimit, long perDayRemaining,
+                         Map<UpstreamPriority, Long> granted, Map<UpstreamPriority, Long> rejected,
+                         Map<UpstreamPriority, Integer> waiting) {
+    }
+}
@@ -0,0 +1,76 @@
+package com.weatherapp.client;
+
+import java.util.concurrent.Callable;
+
+/**
+ * UpstreamPriority - Who Is Waiting for an Upstream Call
+ *
+ * UpstreamGovernor hands out the OpenWeatherMap call budget by priority, so
+ * that a user waiting on a page never loses a token to a background job.
+ *
+ * The priority of the current thread is set around a unit of work with
+ * call() or run(); upstream calls made while it runs are governed with that
+ * priority. Threads without a priority count as INTERACTIVE. Work handed to
+ * other threads must carry the priority over explicitly, e.g.:
+ *
+ *   UpstreamPriority priority = UpstreamPriority.current();
+ *   executor.submit(() -> priority.call(() -> fetch(...)));
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+public enum UpstreamPriority {
+
+    /** A user is waiting for a single city (page or /api/weather) */
+    INTERACTIVE,
+
+    /** A batch request is waiting for one of many cities */
+    BATCH,
+
+    /** Nobody is waiting: refresh-ahead and other background loads */
+    BACKGROUND;
+
+    private static final ThreadLocal<UpstreamPriority> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Get the priority of the current thread
+     *
+     * @return The priority set by call() or run(), INTERACTIVE if none
+     */
+    public static UpstreamPriority current() {
+        UpstreamPriority priority = CURRENT.get();
+        return priority != null ? priority : INTERACTIVE;
+    }
+
+    /**
+     * Run a task with this priority
+     *
+     * @param task The task
+     * @return The task's result
+     * @throws Exception The task's failure
+     */
+    public <T> T call(Callable<T> task) throws Exception {
+        UpstreamPriority previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return task.call();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Run a task with this priority
+     *
+     * @param task The task
+     */
+    public void run(Runnable task) {
+        UpstreamPriority previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            task.run();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+}
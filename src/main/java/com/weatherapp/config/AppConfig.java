@@ -1,15 +1,36 @@
 package com.weatherapp.config;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.weatherapp.cache.CacheWeigher;
+import com.weatherapp.cache.WeatherCachePolicy;
+import com.weatherapp.client.PerHostConnectionLimiter;
+import com.weatherapp.client.UpstreamCaller;
+import com.weatherapp.client.UpstreamCircuitBreakers;
+import com.weatherapp.client.UpstreamGovernor;
+import com.weatherapp.service.Gazetteer;
+import com.weatherapp.service.WeatherDataset;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.util.unit.DataSize;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
 import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 /**
  * AppConfig - Application Configuration Class
@@ -32,8 +53,99 @@ import java.time.Duration;
  * @version 1.0
  */
 @Configuration
+@Slf4j
 public class AppConfig {
 
+    /**
+     * Upstream HttpClient Bean Configuration
+     * 
+     * This method creates the JDK HttpClient used for all calls to
+     * OpenWeatherMap. A single shared client keeps a pool of kept-alive
+     * connections, so most requests skip the TCP and TLS handshakes.
+     * 
+     * Configuration includes:
+     * - HTTP/2 where the server supports it (negotiated via ALPN), which
+     *   multiplexes concurrent requests over one connection
+     * - Connection timeout from weather.http.connect-timeout
+     * - Idle connection eviction and DNS caching, applied JVM-wide by
+     *   HttpClientEnvironmentPostProcessor
+     * 
+     * @return Shared HttpClient instance
+     */
+    @Bean
+    public HttpClient upstreamHttpClient(
+            @Value("${weather.http.connect-timeout}") Duration connectTimeout,
+            @Value("${weather.http.version}") HttpClient.Version version) {
+        return HttpClient.newBuilder()
+                .version(version)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    /**
+     * Upstream Governor Bean Configuration
+     * 
+     * Creates the single call budget shared by all OpenWeatherMap requests
+     * (see UpstreamGovernor), so the per-minute and per-day quotas of our API
+     * key are respected across the whole application.
+     * 
+     * @return The shared upstream governor
+     */
+    @Bean
+    public UpstreamGovernor upstreamGovernor(
+            @Value("${weather.upstream.quota.per-minute}") int perMinute,
+            @Value("${weather.upstream.quota.per-day}") int perDay,
+            @Value("${weather.upstream.quota.max-wait}") Duration maxWait,
+            @Value("${weather.upstream.quota.background-reserve}") double backgroundReserve) {
+        return new UpstreamGovernor(perMinute, perDay, maxWait, backgroundReserve);
+    }
+
+    /**
+     * Upstream Circuit Breakers Bean Configuration
+     * 
+     * Creates the circuit breaker and bulkhead of every OpenWeatherMap
+     * endpoint (see UpstreamCircuitBreakers), so an unavailable endpoint
+     * fails within microseconds instead of after the connect and read timeouts.
+     * 
+     * @return The shared circuit breakers
+     */
+    @Bean
+    public UpstreamCircuitBreakers upstreamCircuitBreakers(
+            @Value("${weather.upstream.circuit.failure-threshold}") int failureThreshold,
+            @Value("${weather.upstream.circuit.open-duration}") Duration openDuration,
+            @Value("${weather.upstream.bulkhead.max-concurrent}") int maxConcurrent,
+            @Value("${weather.upstream.bulkhead.max-wait}") Duration maxWait,
+            @Value("${weather.upstream.bulkhead.background-reserve}") double backgroundReserve) {
+        return new UpstreamCircuitBreakers(failureThreshold, openDuration, maxConcurrent, maxWait,
+                backgroundReserve);
+    }
+
+    /**
+     * Upstream Caller Bean Configuration
+     * 
+     * Creates the caller through which every OpenWeatherMap request is made
+     * (see UpstreamCaller). It adapts each endpoint's timeout to its recent
+     * latencies and hedges slow requests; weather.http.read-timeout remains
+     * the upper bound of every timeout.
+     * 
+     * @return The shared upstream caller
+     */
+    @Bean
+    public UpstreamCaller upstreamCaller(
+            @Value("${weather.upstream.latency.window}") int windowSize,
+            @Value("${weather.upstream.latency.min-samples}") int minSamples,
+            @Value("${weather.upstream.timeout.multiplier}") double timeoutMultiplier,
+            @Value("${weather.upstream.timeout.min}") Duration minTimeout,
+            @Value("${weather.http.read-timeout}") Duration maxTimeout,
+            @Value("${weather.upstream.hedge.enabled}") boolean hedgeEnabled,
+            @Value("${weather.upstream.hedge.percentile}") double hedgePercentile,
+            @Value("${weather.upstream.hedge.max-ratio}") double hedgeRatio,
+            MeterRegistry meterRegistry) {
+        return new UpstreamCaller(windowSize, minSamples, timeoutMultiplier, minTimeout, maxTimeout,
+                hedgeEnabled, hedgePercentile, hedgeRatio, meterRegistry);
+    }
+
     /**
      * RestTemplate Bean Configuration
      * 
@@ -41,8 +153,14 @@ public class AppConfig {
      * to external APIs (like OpenWeatherMap). RestTemplate is Spring's HTTP client.
      * 
      * Configuration includes:
-     * - Connection timeout: 10 seconds
-     * - Read timeout: 30 seconds
+     * - Pooled JDK HttpClient (see upstreamHttpClient) instead of HttpURLConnection
+     * - Read timeout from weather.http.read-timeout
+     * - Per-endpoint circuit breaker (see upstreamCircuitBreakers), checked
+     *   first so an open circuit spends neither budget nor connections
+     * - Upstream call budget (see upstreamGovernor), checked before a
+     *   bulkhead or connection slot is taken so waiting for budget never holds one
+     * - Per-endpoint bulkhead (UpstreamCircuitBreakers.bulkhead()) and per-host
+     *   connection limit (weather.http.max-connections-per-host)
      * - JSON message converter for API responses
      * - Error handling capabilities
      * 
@@ -55,19 +173,114 @@ public class AppConfig {
      * @return Configured RestTemplate instance
      */
     @Bean
-    public RestTemplate restTemplate(RestTemplateBuilder builder) {
+    public RestTemplate restTemplate(RestTemplateBuilder builder,
+            HttpClient upstreamHttpClient,
+            UpstreamCircuitBreakers upstreamCircuitBreakers,
+            UpstreamGovernor upstreamGovernor,
+            @Value("${weather.http.read-timeout}") Duration readTimeout,
+            @Value("${weather.http.max-connections-per-host}") int maxConnectionsPerHost,
+            @Value("${weather.http.acquire-timeout}") Duration acquireTimeout) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(upstreamHttpClient);
+        requestFactory.setReadTimeout(readTimeout);
+
         return builder
-                .setConnectTimeout(Duration.ofSeconds(10))  // Connection timeout
-                .setReadTimeout(Duration.ofSeconds(30))     // Read timeout
+                .requestFactory(() -> requestFactory)
+                .additionalInterceptors(upstreamCircuitBreakers, upstreamGovernor,
+                        upstreamCircuitBreakers.bulkhead(),
+                        new PerHostConnectionLimiter(maxConnectionsPerHost, acquireTimeout))
                 .build();
     }
 
+    /**
+     * Gazetteer Bean Configuration
+     * 
+     * Loads the embedded city index from weather.gazetteer.location, so known
+     * cities are resolved without calling the geocoding API. When
+     * weather.gazetteer.enabled is false, every city is geocoded upstream.
+     * 
+     * @return The shared gazetteer
+     */
+    @Bean
+    public Gazetteer gazetteer(
+            @Value("${weather.gazetteer.enabled}") boolean enabled,
+            @Value("${weather.gazetteer.location}") Resource location) throws IOException {
+        if (!enabled) {
+            return Gazetteer.empty();
+        }
+        try (InputStream in = location.getInputStream()) {
+            Gazetteer gazetteer = Gazetteer.load(in);
+            log.info("Loaded gazetteer with {} cities and {} names from {}",
+                    gazetteer.size(), gazetteer.names(), location);
+            return gazetteer;
+        }
+    }
+
+    /**
+     * Weather Cache Policy Bean Configuration
+     * 
+     * Creates the size bounds and TTLs of the per-dataset weather caches from
+     * weather.cache.current.*, weather.cache.forecast.* and weather.cache.aqi.*.
+     * They can be changed at runtime through /api/admin/cache-policy.
+     * 
+     * @return The shared weather cache policy
+     */
+    @Bean
+    public WeatherCachePolicy weatherCachePolicy(
+            @Value("${weather.cache.current.max-weight}") DataSize currentMaxWeight,
+            @Value("${weather.cache.current.soft-ttl}") Duration currentSoftTtl,
+            @Value("${weather.cache.current.hard-ttl}") Duration currentHardTtl,
+            @Value("${weather.cache.forecast.max-weight}") DataSize forecastMaxWeight,
+            @Value("${weather.cache.forecast.soft-ttl}") Duration forecastSoftTtl,
+            @Value("${weather.cache.forecast.hard-ttl}") Duration forecastHardTtl,
+            @Value("${weather.cache.aqi.max-weight}") DataSize aqiMaxWeight,
+            @Value("${weather.cache.aqi.soft-ttl}") Duration aqiSoftTtl,
+            @Value("${weather.cache.aqi.hard-ttl}") Duration aqiHardTtl) {
+        return new WeatherCachePolicy(Map.of(
+                WeatherDataset.CURRENT,
+                new WeatherCachePolicy.Settings(currentMaxWeight.toBytes(), currentSoftTtl, currentHardTtl),
+                WeatherDataset.FORECAST,
+                new WeatherCachePolicy.Settings(forecastMaxWeight.toBytes(), forecastSoftTtl, forecastHardTtl),
+                WeatherDataset.AQI,
+                new WeatherCachePolicy.Settings(aqiMaxWeight.toBytes(), aqiSoftTtl, aqiHardTtl)));
+    }
+
     /**
      * Cache Manager Bean Configuration
      * 
      * This method creates and configures a Caffeine cache manager.
-     * It uses the "weather-cache" name and applies cache specifications
-     * (like maximum size and expiration time) defined in application.properties.
+     * Every cache is registered explicitly with the size bound and expiration
+     * defined in application.properties; no other caches are created.
+     * 
+     * Weather data is cached per upstream dataset (see WeatherDataset), each
+     * keyed by geohash cell with its own size bound and hard TTL:
+     * - "weather-current-cache": current conditions (weather.cache.current.*)
+     * - "weather-forecast-cache": forecast (weather.cache.forecast.*)
+     * - "weather-aqi-cache": air quality (weather.cache.aqi.*)
+     * Refreshing them earlier (after their soft TTLs) is handled by WeatherService.
+     * Entries vary a lot in size, so these caches and the last-known cache are
+     * bounded by estimated bytes (see CacheWeigher) instead of entry counts.
+     * "weather-retry-cache" remembers optional datasets whose fetch failed, so
+     * they are retried after weather.cache.dataset-retry-delay.
+     * 
+     * "weather-last-known-cache" keeps the last assembled weather of each cell
+     * for weather.cache.last-known.ttl, well past the hard TTLs, so it can be
+     * served (marked as stale) while the upstream API is unavailable.
+     * 
+     * "weather-alias-cache" maps the city names users type to their cell and
+     * lives as long as geocoding results.
+     * 
+     * The weather, last-known, alias and geocoding caches use per-entry (variable)
+     * expiration, so CacheSnapshotter can read each entry's remaining lifetime
+     * and restore it after a restart.
+     * 
+     * It also registers the "geocoding-cache", which has its own size bound and
+     * a much longer lifetime because city coordinates practically never change:
+     * - Locations found by the geocoding API live for weather.geocoding.cache.ttl
+     * - Search terms with no result live for weather.geocoding.cache.negative-ttl
+     * 
+     * "weather-not-found-cache" holds "city not found" results for a short time
+     * (weather.cache.not-found.ttl), bounded separately so that a burst of
+     * typos cannot evict real weather data. Transient errors are never cached.
      * 
      * Why we use Caffeine:
      * - High-performance caching library
@@ -78,12 +291,135 @@ public class AppConfig {
      * @return Configured CacheManager instance
      */
     @Bean
-    public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager("weather-cache");
-        // Configure Caffeine properties from application.properties
-        // This ensures that the cache settings (e.g., maximumSize, expireAfterWrite)
-        // defined in application.properties are applied to the Caffeine cache.
-        cacheManager.setCacheSpecification("maximumSize=100,expireAfterWrite=30m");
+    public CacheManager cacheManager(WeatherCachePolicy weatherCachePolicy,
+            @Value("${weather.cache.retry.max-size}") long retryMaxSize,
+            @Value("${weather.cache.dataset-retry-delay}") Duration datasetRetryDelay,
+            @Value("${weather.cache.last-known.max-weight}") DataSize lastKnownMaxWeight,
+            @Value("${weather.cache.last-known.ttl}") Duration lastKnownTtl,
+            @Value("${weather.cache.alias.max-size}") long aliasMaxSize,
+            @Value("${weather.cache.alias.ttl}") Duration aliasTtl,
+            @Value("${weather.cache.not-found.max-size}") long notFoundMaxSize,
+            @Value("${weather.cache.not-found.ttl}") Duration notFoundTtl,
+            @Value("${weather.geocoding.cache.max-size}") long geocodingMaxSize,
+            @Value("${weather.geocoding.cache.ttl}") Duration geocodingTtl,
+            @Value("${weather.geocoding.cache.negative-ttl}") Duration geocodingNegativeTtl) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Only the caches registered below exist (no caches created on demand).
+        // All of them record statistics, published as the cache.* metrics.
+        cacheManager.setCacheNames(List.of());
+
+        // One cache per upstream dataset, bounded by estimated bytes, each with
+        // its own lifetime; both can be changed at runtime (WeatherCachePolicy)
+        for (WeatherDataset dataset : WeatherDataset.values()) {
+            cacheManager.registerCustomCache(dataset.getCacheName(), Caffeine.newBuilder()
+                    .maximumWeight(weatherCachePolicy.get(dataset).maxWeightBytes())
+                    .weigher(new CacheWeigher())
+                    .expireAfter(weatherCachePolicy.expiry(dataset))
+                    .evictionListener(weatherCachePolicy.evictionCounter(dataset))
+                    .recordStats()
+                    .build());
+        }
+
+        // Failed optional datasets are not retried before the delay has passed
+        cacheManager.registerCustomCache("weather-retry-cache", Caffeine.newBuilder()
+                .maximumSize(retryMaxSize)
+                .expireAfterWrite(datasetRetryDelay)
+                .recordStats()
+                .build());
+
+        // Last successfully loaded weather per cell, the fallback during upstream outages
+        cacheManager.registerCustomCache("weather-last-known-cache", Caffeine.newBuilder()
+                .maximumWeight(lastKnownMaxWeight.toBytes())
+                .weigher(new CacheWeigher())
+                .expireAfter(new WriteExpiry(lastKnownTtl))
+                .recordStats()
+                .build());
+
+        // City name -> cell index, sized for the many spellings of each place
+        cacheManager.registerCustomCache("weather-alias-cache", Caffeine.newBuilder()
+                .maximumSize(aliasMaxSize)
+                .expireAfter(new WriteExpiry(aliasTtl))
+                .recordStats()
+                .build());
+
+        // "City not found" results get a short-lived cache of their own
+        cacheManager.registerCustomCache("weather-not-found-cache", Caffeine.newBuilder()
+                .maximumSize(notFoundMaxSize)
+                .expireAfterWrite(notFoundTtl)
+                .recordStats()
+                .build());
+
+        // Geocoding results get their own, long-lived cache
+        cacheManager.registerCustomCache("geocoding-cache", Caffeine.newBuilder()
+                .maximumSize(geocodingMaxSize)
+                .expireAfter(new GeocodingExpiry(geocodingTtl, geocodingNegativeTtl))
+                .recordStats()
+                .build());
         return cacheManager;
     }
+
+    /**
+     * WriteExpiry - Fixed time-to-live measured from the last write
+     * 
+     * Behaves like expireAfterWrite, but as a variable expiration policy, so
+     * entries can also be inserted with an explicit remaining lifetime (used
+     * when a cache snapshot is restored).
+     */
+    private static class WriteExpiry implements Expiry<Object, Object> {
+
+        private final long ttlNanos;
+
+        WriteExpiry(Duration ttl) {
+            this.ttlNanos = ttl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(Object key, Object value, long currentTime) {
+            return ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+            return ttlNanos;
+        }
+
+        @Override
+        public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    /**
+     * GeocodingExpiry - Per-entry expiration for the geocoding cache
+     * 
+     * Found locations and empty results ("this search term matches nothing")
+     * are both cached, but empty results expire sooner in case the geocoding
+     * database learns about the place later.
+     */
+    private static class GeocodingExpiry implements Expiry<Object, Object> {
+
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        GeocodingExpiry(Duration ttl, Duration negativeTtl) {
+            this.ttlNanos = ttl.toNanos();
+            this.negativeTtlNanos = negativeTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(Object key, Object value, long currentTime) {
+            boolean empty = value instanceof Collection<?> locations && locations.isEmpty();
+            return empty ? negativeTtlNanos : ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
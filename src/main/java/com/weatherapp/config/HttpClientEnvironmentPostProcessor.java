@@ -0,0 +1,61 @@
+package com.weatherapp.config;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+import java.security.Security;
+import java.time.Duration;
+
+/**
+ * HttpClientEnvironmentPostProcessor - JVM-Wide Networking Settings
+ * 
+ * A few settings of the JDK networking stack are global and are read only
+ * once, the first time the corresponding class is used:
+ * - jdk.httpclient.keepalive.timeout: how long idle pooled connections are
+ *   kept before they are evicted
+ * - jdk.httpclient.connectionPoolSize: how many idle connections are kept
+ * - networkaddress.cache.ttl: how long successful DNS lookups are cached
+ * 
+ * They therefore have to be applied before the application context creates
+ * any HTTP client or resolves any host name. An EnvironmentPostProcessor runs
+ * right after application.properties is loaded, which is early enough.
+ * 
+ * Values given explicitly on the command line (-D...) are left untouched,
+ * and so is a DNS cache TTL set in the JDK's java.security file or with the
+ * legacy sun.net.inetaddr.ttl system property.
+ * 
+ * Registered in META-INF/spring.factories.
+ * 
+ * @author Weather App Team
+ * @version 1.0
+ */
+public class HttpClientEnvironmentPostProcessor implements EnvironmentPostProcessor {
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        Duration idleTimeout = duration(environment, "weather.http.idle-timeout", "60s");
+        Duration dnsCacheTtl = duration(environment, "weather.http.dns-cache-ttl", "5m");
+        String maxIdleConnections = environment.getProperty("weather.http.max-idle-connections", "50");
+
+        setSystemPropertyIfAbsent("jdk.httpclient.keepalive.timeout", String.valueOf(idleTimeout.toSeconds()));
+        setSystemPropertyIfAbsent("jdk.httpclient.connectionPoolSize", maxIdleConnections);
+
+        // A security property, not a system property; the JDK default is 30 seconds
+        if (Security.getProperty("networkaddress.cache.ttl") == null
+                && System.getProperty("sun.net.inetaddr.ttl") == null) {
+            Security.setProperty("networkaddress.cache.ttl", String.valueOf(dnsCacheTtl.toSeconds()));
+        }
+    }
+
+    private static Duration duration(ConfigurableEnvironment environment, String key, String defaultValue) {
+        return DurationStyle.detectAndParse(environment.getProperty(key, defaultValue));
+    }
+
+    private static void setSystemPropertyIfAbsent(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.weatherapp.config;
+
+import com.weatherapp.client.UpstreamCircuitBreakers;
+import com.weatherapp.client.UpstreamGovernor;
+import com.weatherapp.metrics.WeatherRequestObservationConvention;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * MetricsConfig - Application Metrics Configuration
+ *
+ * Spring Boot Actuator already publishes the JVM, Tomcat, HTTP request and
+ * cache metrics (see /actuator/prometheus). This configuration adds what is
+ * specific to this application:
+ * - A "cache" tag on http.server.requests, so /weather latency can be
+ *   split into cache hits and misses (see WeatherRequestObservationConvention)
+ * - Gauges for the remaining upstream quota and the open circuits
+ * - A filter that keeps query strings out of the "uri" tag of
+ *   http.client.requests; our upstream URLs carry the API key and the
+ *   coordinates, which must neither leak nor create a series per location
+ *   (this covers http.client.requests.active as well)
+ *
+ * The upstream latency histograms and the per-client request rates are
+ * published by UpstreamCaller and ClientRequestRates themselves.
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Upstream endpoints that have a circuit breaker
+     */
+    private static final List<String> UPSTREAM_ENDPOINTS = List.of("direct", "weather", "forecast", "air_pollution");
+
+    /**
+     * Request Observation Convention Bean
+     *
+     * Picked up by Spring Boot for http.server.requests.
+     *
+     * @return Convention adding the cache result tag
+     */
+    @Bean
+    public WeatherRequestObservationConvention weatherRequestObservationConvention() {
+        return new WeatherRequestObservationConvention();
+    }
+
+    /**
+     * Client Request URI Filter Bean
+     *
+     * Strips the query string from the "uri" tag of http.client.requests
+     * and http.client.requests.active.
+     *
+     * @return Meter filter for client request tags
+     */
+    @Bean
+    public MeterFilter clientRequestUriFilter() {
+        return new MeterFilter() {
+            @Override
+            public Meter.Id map(Meter.Id id) {
+                if (!id.getName().startsWith("http.client.requests")) {
+                    return id;
+                }
+                String uri = id.getTag("uri");
+                if (uri == null || uri.indexOf('?') < 0) {
+                    return id;
+                }
+                List<Tag> tags = id.getTags().stream()
+                        .map(tag -> tag.getKey().equals("uri")
+                                ? Tag.of("uri", uri.substring(0, uri.indexOf('?')))
+                                : tag)
+                        .toList();
+                return id.replaceTags(tags);
+            }
+        };
+    }
+
+    /**
+     * Upstream Protection Metrics Bean
+     *
+     * Publishes the remaining upstream quota per window and whether each
+     * endpoint's circuit is open (1) or not (0).
+     *
+     * @param governor The upstream quota governor
+     * @param circuitBreakers The upstream circuit breakers
+     * @return Binder registering the gauges
+     */
+    @Bean
+    public MeterBinder upstreamProtectionMetrics(UpstreamGovernor governor, UpstreamCircuitBreakers circuitBreakers) {
+        return registry -> {
+            Gauge.builder("weather.upstream.budget.remaining", governor, g -> g.getBudget().perMinuteRemaining())
+                    .description("Upstream calls left in the current quota window")
+                    .tag("window", "minute")
+                    .register(registry);
+            Gauge.builder("weather.upstream.budget.remaining", governor, g -> g.getBudget().perDayRemaining())
+                    .description("Upstream calls left in the current quota window")
+                    .tag("window", "day")
+                    .register(registry);
+
+            for (String endpoint : UPSTREAM_ENDPOINTS) {
+                Gauge.builder("weather.upstream.circuit.open", circuitBreakers, breakers -> {
+                            UpstreamCircuitBreakers.CircuitStats stats = breakers.getStats().get(endpoint);
+                            return stats != null && stats.state() == UpstreamCircuitBreakers.State.OPEN ? 1 : 0;
+                        })
+                        .description("Whether the circuit of an upstream endpoint is open")
+                        .tag("endpoint", endpoint)
+                        .register(registry);
+            }
+        };
+    }
+}
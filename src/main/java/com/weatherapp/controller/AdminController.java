@@ -0,0 +1,255 @@
+package com.weatherapp.controller;
+
+import com.weatherapp.cache.RequestCoalescer;
+import com.weatherapp.cache.WeatherCachePolicy;
+import com.weatherapp.client.UpstreamCaller;
+import com.weatherapp.client.UpstreamCircuitBreakers;
+import com.weatherapp.client.UpstreamGovernor;
+import com.weatherapp.service.PopularCityRefresher;
+import com.weatherapp.service.WeatherDataset;
+import com.weatherapp.service.WeatherService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * AdminController - Operational Endpoints for Tuning and Monitoring
+ *
+ * This controller exposes internal statistics of the weather pipeline as JSON,
+ * so that caching behaviour can be observed in production, and lets the
+ * weather cache policy be tuned without a restart.
+ *
+ * Statistics are read-only and open like /actuator/metrics. Changing a
+ * setting requires the shared secret weather.admin.token in the
+ * X-Admin-Token header, and is disabled (404) while no token is configured.
+ *
+ * Why we use @RestController here:
+ * - These endpoints are consumed by tools and dashboards, not browsers
+ * - Responses are serialized to JSON instead of rendered by a JSP view
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    /**
+     * Request header carrying the admin token
+     */
+    static final String ADMIN_TOKEN_HEADER = "X-Admin-Token";
+
+    /**
+     * Shared secret required to change settings (empty disables changes)
+     * Injected from application.properties
+     */
+    @Value("${weather.admin.token}")
+    private String adminToken;
+
+    /**
+     * WeatherService whose statistics are exposed
+     * Injected by Spring's dependency injection
+     */
+    @Autowired
+    private WeatherService weatherService;
+
+    /**
+     * Refresh-ahead of popular cities, whose statistics are exposed
+     */
+    @Autowired
+    private PopularCityRefresher popularCityRefresher;
+
+    /**
+     * Shared upstream call budget, whose usage is exposed
+     */
+    @Autowired
+    private UpstreamGovernor upstreamGovernor;
+
+    /**
+     * Per-endpoint circuit breakers, whose state is exposed
+     */
+    @Autowired
+    private UpstreamCircuitBreakers upstreamCircuitBreakers;
+
+    /**
+     * Adaptive timeouts and hedging, whose latency statistics are exposed
+     */
+    @Autowired
+    private UpstreamCaller upstreamCaller;
+
+    /**
+     * Request coalescing statistics
+     *
+     * Shows how many weather loads actually ran upstream and how many
+     * concurrent cache misses were served by joining a load already in flight.
+     *
+     * @return Coalescing counters for the weather cache
+     */
+    @GetMapping("/coalescing")
+    public RequestCoalescer.Stats coalescing() {
+        return weatherService.getCoalescingStats();
+    }
+
+    /**
+     * Coordinate-keyed cache statistics
+     *
+     * Shows how many city names and geohash cells are cached, and how many
+     * newly resolved names were served from a cell another name had loaded.
+     *
+     * @return Alias index and cell cache counters
+     */
+    @GetMapping("/cell-cache")
+    public WeatherService.CellCacheStats cellCache() {
+        return weatherService.getCellCacheStats();
+    }
+
+    /**
+     * Weather cache policy and statistics
+     *
+     * Shows, per dataset cache, its maximum and current weight (estimated
+     * bytes), soft and hard TTL, hit ratio and evictions by cause.
+     *
+     * @return Policy and live statistics by dataset
+     */
+    @GetMapping("/cache-policy")
+    public Map<WeatherDataset, WeatherService.CachePolicyStats> cachePolicy() {
+        return weatherService.getCachePolicyStats();
+    }
+
+    /**
+     * Change the policy of a weather cache at runtime
+     *
+     * Parameters that are left out keep their current value. Sizes use the
+     * property syntax ("16MB"), durations as well ("10m", "PT1H").
+     * Example: POST /api/admin/cache-policy/forecast?maxWeight=16MB&softTtl=2h
+     * with the header X-Admin-Token set to weather.admin.token
+     *
+     * @param token Admin token from the X-Admin-Token header
+     * @param dataset current, forecast or aqi
+     * @param maxWeight New maximum weight
+     * @param softTtl New soft TTL
+     * @param hardTtl New hard TTL
+     * @return Policy and statistics of the cache after the change
+     */
+    @PostMapping("/cache-policy/{dataset}")
+    public WeatherService.CachePolicyStats updateCachePolicy(
+            @RequestHeader(value = ADMIN_TOKEN_HEADER, required = false) String token,
+            @PathVariable String dataset,
+            @RequestParam(required = false) String maxWeight,
+            @RequestParam(required = false) String softTtl,
+            @RequestParam(required = false) String hardTtl) {
+        checkAdminToken(token);
+        try {
+            WeatherDataset cacheDataset = WeatherDataset.valueOf(dataset.toUpperCase(Locale.ROOT));
+            WeatherCachePolicy.Settings current = weatherService.getCachePolicy(cacheDataset);
+            WeatherCachePolicy.Settings settings = new WeatherCachePolicy.Settings(
+                    maxWeight != null ? DataSize.parse(maxWeight).toBytes() : current.maxWeightBytes(),
+                    softTtl != null ? DurationStyle.detectAndParse(softTtl) : current.softTtl(),
+                    hardTtl != null ? DurationStyle.detectAndParse(hardTtl) : current.hardTtl());
+            return weatherService.updateCachePolicy(cacheDataset, settings);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Error caching statistics
+     *
+     * Shows how many "city not found" results were cached and served from the
+     * negative cache, and how many transient errors were left uncached.
+     *
+     * @return Error caching counters
+     */
+    @GetMapping("/error-caching")
+    public WeatherService.ErrorCachingStats errorCaching() {
+        return weatherService.getErrorCachingStats();
+    }
+
+    /**
+     * Popular cities and their refresh-ahead statistics
+     *
+     * Shows the current top-N cities with their decayed request scores and
+     * how many upstream calls the scheduled refresh spends, for tuning
+     * weather.popularity.refresh.top-n against the API quota.
+     *
+     * @return Top-N cities and refresh counters
+     */
+    @GetMapping("/popular")
+    public PopularCityRefresher.Report popular() {
+        return popularCityRefresher.getReport();
+    }
+
+    /**
+     * Upstream call budget
+     *
+     * Shows how many OpenWeatherMap calls are left in the per-minute and
+     * per-day budgets, and how many calls were let through, rejected or are
+     * waiting, per priority.
+     *
+     * @return Remaining budgets and usage counters
+     */
+    @GetMapping("/upstream-quota")
+    public UpstreamGovernor.Budget upstreamQuota() {
+        return upstreamGovernor.getBudget();
+    }
+
+    /**
+     * Upstream circuit breakers
+     *
+     * Shows, per OpenWeatherMap endpoint, whether its circuit is closed or
+     * open, how often it opened, and how many requests were rejected by the
+     * open circuit or the full bulkhead.
+     *
+     * @return Circuit and bulkhead state by endpoint
+     */
+    @GetMapping("/circuits")
+    public Map<String, UpstreamCircuitBreakers.CircuitStats> circuits() {
+        return upstreamCircuitBreakers.getStats();
+    }
+
+    /**
+     * Upstream latencies
+     *
+     * Shows, per OpenWeatherMap endpoint, the recent latency percentiles,
+     * the timeout and hedge delay derived from them, and how many calls
+     * timed out, were hedged, or were won by the hedge.
+     *
+     * @return Latency statistics by endpoint
+     */
+    @GetMapping("/upstream-latency")
+    public Map<String, UpstreamCaller.EndpointLatency> upstreamLatency() {
+        return upstreamCaller.getStats();
+    }
+
+    /**
+     * Reject a settings change without the configured admin token
+     *
+     * @param token Token sent by the client, or null
+     * @throws ResponseStatusException 404 if no token is configured, 403 if the token does not match
+     */
+    private void checkAdminToken(String token) {
+        if (adminToken == null || adminToken.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        // Constant-time comparison, so the token cannot be guessed from response times
+        if (token == null || !MessageDigest.isEqual(adminToken.getBytes(StandardCharsets.UTF_8),
+                token.getBytes(StandardCharsets.UTF_8))) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Invalid admin token");
+        }
+    }
+}
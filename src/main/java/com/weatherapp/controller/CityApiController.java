@@ -0,0 +1,65 @@
+package com.weatherapp.controller;
+
+import com.weatherapp.dto.CitySuggestion;
+import com.weatherapp.service.CityDirectory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * CityApiController - JSON API for City Name Typeahead
+ *
+ * Serves the suggestions of the search form while the user types. Lookups
+ * are answered from memory by the CityDirectory and never call an upstream
+ * API, so they are cheap enough to send on every keystroke.
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+@RestController
+@RequestMapping("/api/cities")
+public class CityApiController {
+
+    /**
+     * How long clients and proxies may reuse a suggestion list
+     */
+    private static final Duration SUGGESTION_MAX_AGE = Duration.ofMinutes(5);
+
+    /**
+     * CityDirectory answering the suggestions
+     * Injected by Spring's dependency injection
+     */
+    @Autowired
+    private CityDirectory cityDirectory;
+
+    /**
+     * Maximum number of suggestions per request
+     * Injected from application.properties
+     */
+    @Value("${weather.suggest.max-results}")
+    private int maxResults;
+
+    /**
+     * Cities whose name starts with the typed text
+     *
+     * Each suggestion's id is the canonical city name; submitting it as the
+     * city of /weather or /api/weather skips geocoding.
+     *
+     * @param query The beginning of a city name
+     * @return Matching cities, most popular first (empty if none match)
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<CitySuggestion>> suggest(@RequestParam("q") String query) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(SUGGESTION_MAX_AGE))
+                .body(cityDirectory.suggest(query, maxResults));
+    }
+}
@@ -0,0 +1,253 @@
+package com.weatherapp.controller;
+
+import com.weatherapp.cache.PopularityTracker;
+import com.weatherapp.dto.BatchWeatherResponse;
+import com.weatherapp.dto.WeatherData;
+import com.weatherapp.metrics.WeatherRequestObservationConvention;
+import com.weatherapp.service.WeatherService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * WeatherApiController - JSON API for Weather Data
+ *
+ * This controller serves weather data as JSON for dashboards and other
+ * programmatic clients, next to the JSP pages served by WeatherController.
+ *
+ * Why a separate controller:
+ * - WeatherController renders views; these endpoints return JSON documents
+ * - API clients ask for many cities at once, which the page flow never does
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+@RestController
+@RequestMapping("/api/weather")
+@Slf4j
+public class WeatherApiController {
+
+    /**
+     * WeatherService for fetching weather data
+     * Injected by Spring's dependency injection
+     */
+    @Autowired
+    private WeatherService weatherService;
+
+    /**
+     * Counts successful lookups per city for the popular-city refresh
+     */
+    @Autowired
+    private PopularityTracker popularityTracker;
+
+    /**
+     * Maximum number of distinct cities per batch request
+     * Injected from application.properties
+     */
+    @Value("${weather.batch.max-cities}")
+    private int maxCities;
+
+    /**
+     * Weather for a single city as JSON
+     *
+     * Supports conditional GET for clients that poll: the response carries a
+     * weak ETag built from the dataset versions, fetchedAt and the stale flag,
+     * and a Last-Modified header from fetchedAt. The ETag is weak because the
+     * body also holds per-request fields (cached, responseTimeMs). Both only
+     * change when a dataset is reloaded upstream, so polls within one cache
+     * generation that send If-None-Match (or If-Modified-Since) get a 304 Not
+     * Modified. A stale last-known copy has its own ETag and no Last-Modified,
+     * so a client holding the fresh copy is sent stale=true. The 304 is
+     * produced by Spring's ResponseEntity handling before the body is written,
+     * so the WeatherData is never serialized for it.
+     *
+     * Cache-Control: no-cache lets clients keep the response but makes them
+     * revalidate on every poll.
+     *
+     * @param city The name of the city to get weather for
+     * @param request The HTTP request, tagged with the cache result for metrics
+     * @return The weather data with validators, or an error status with the
+     *         error WeatherData as body
+     */
+    @GetMapping
+    public CompletableFuture<ResponseEntity<WeatherData>> weather(@RequestParam("city") String city,
+                                                                  HttpServletRequest request) {
+        if (city.isBlank()) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+
+        return weatherService.getWeatherDataAsync(city.trim()).handle((weatherData, failure) -> {
+            if (failure != null) {
+                Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+                if (cause instanceof TaskRejectedException) {
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+                }
+                log.error("Unexpected error in weather API for city: {}", city, cause);
+                return ResponseEntity.internalServerError().build();
+            }
+            if (weatherData.isValid()) {
+                // Counted under the canonical name, the ID of the city's suggestion,
+                // so every spelling of a city adds to the same score
+                String canonicalCityName = weatherData.getCanonicalCityName();
+                popularityTracker.record(canonicalCityName != null ? canonicalCityName : city);
+            }
+            WeatherRequestObservationConvention.markCacheResult(request, weatherData);
+            return toWeatherEntity(weatherData);
+        });
+    }
+
+    /**
+     * Wrap weather data in a response with conditional GET validators
+     *
+     * @param weatherData The weather data to serve
+     * @return 200 with ETag and (unless stale) Last-Modified, or an error status
+     */
+    private ResponseEntity<WeatherData> toWeatherEntity(WeatherData weatherData) {
+        if (!weatherData.isValid()) {
+            return ResponseEntity.status(statusFor(weatherData.getErrorType())).body(weatherData);
+        }
+        if (weatherData.getFetchedAt() == null || weatherData.getVersion() == null) {
+            return ResponseEntity.ok(weatherData);
+        }
+
+        Instant lastModified = weatherData.getFetchedAt().atZone(ZoneId.systemDefault()).toInstant();
+        String generation = weatherData.getGeneration() != null
+                ? weatherData.getGeneration() : weatherData.getVersion().toString();
+        String eTag = "W/\"" + generation + "-" + lastModified.toEpochMilli()
+                + (weatherData.isStale() ? "-stale" : "") + "\"";
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache());
+        if (!weatherData.isStale()) {
+            // If-Modified-Since alone would answer 304 to a stale copy
+            response.lastModified(lastModified);
+        }
+        return response.body(weatherData);
+    }
+
+    /**
+     * Map an error type to the HTTP status reported to API clients
+     *
+     * @param errorType The kind of failure
+     * @return The matching HTTP status
+     */
+    private HttpStatus statusFor(WeatherData.ErrorType errorType) {
+        if (errorType == null) {
+            return HttpStatus.INTERNAL_SERVER_ERROR;
+        }
+        return switch (errorType) {
+            case INVALID_INPUT -> HttpStatus.BAD_REQUEST;
+            case NOT_FOUND -> HttpStatus.NOT_FOUND;
+            case UPSTREAM_ERROR -> HttpStatus.BAD_GATEWAY;
+            case RATE_LIMITED -> HttpStatus.SERVICE_UNAVAILABLE;
+        };
+    }
+
+    /**
+     * Weather for many cities in one request
+     *
+     * Cities can be given as a comma-separated list (?cities=Pune,Mumbai) or as
+     * repeated parameters (?city=Pune&city=Mumbai). Repeated parameters are
+     * taken as-is, so they may contain commas (?city=Pune,IN).
+     *
+     * Each distinct place is loaded upstream at most once (see
+     * WeatherService.getWeatherDataBatch). The work runs on the task executor
+     * through a Callable, so the Tomcat thread is released while it runs.
+     *
+     * @param cities Comma-separated city names
+     * @param request HTTP request, for repeated "city" parameters
+     * @return One JSON document with a result per city, or 400 for an
+     *         empty or oversized batch
+     */
+    @GetMapping("/batch")
+    public Callable<ResponseEntity<BatchWeatherResponse>> batch(
+            @RequestParam(value = "cities", required = false) String cities,
+            HttpServletRequest request) {
+
+        List<String> cityNames = parseCityNames(cities, request.getParameterValues("city"));
+        log.info("Batch weather requested for {} cities", cityNames.size());
+
+        if (cityNames.isEmpty() || cityNames.size() > maxCities) {
+            log.warn("Rejected batch of {} cities (max {})", cityNames.size(), maxCities);
+            return () -> ResponseEntity.badRequest().build();
+        }
+
+        return () -> ResponseEntity.ok(toResponse(weatherService.getWeatherDataBatch(cityNames)));
+    }
+
+    /**
+     * Collect the distinct, non-blank city names of a batch request
+     *
+     * @param cities Comma-separated city names (may be null)
+     * @param repeated Values of repeated "city" parameters (may be null)
+     * @return Trimmed city names in request order, without exact duplicates
+     */
+    private List<String> parseCityNames(String cities, String[] repeated) {
+        Set<String> cityNames = new LinkedHashSet<>();
+        if (cities != null) {
+            for (String city : cities.split(",")) {
+                addCityName(cityNames, city);
+            }
+        }
+        if (repeated != null) {
+            for (String city : repeated) {
+                addCityName(cityNames, city);
+            }
+        }
+        return new ArrayList<>(cityNames);
+    }
+
+    private void addCityName(Set<String> cityNames, String city) {
+        if (city != null && !city.isBlank()) {
+            cityNames.add(city.trim());
+        }
+    }
+
+    /**
+     * Build the JSON document for a finished batch
+     *
+     * @param results Weather data per requested city, in request order
+     * @return The batch response with per-city results and counts
+     */
+    private BatchWeatherResponse toResponse(Map<String, WeatherData> results) {
+        List<BatchWeatherResponse.CityResult> cityResults = new ArrayList<>(results.size());
+        int succeeded = 0;
+        int cacheHits = 0;
+
+        for (Map.Entry<String, WeatherData> entry : results.entrySet()) {
+            WeatherData weatherData = entry.getValue();
+            if (weatherData.isValid()) {
+                succeeded++;
+                if (Boolean.TRUE.equals(weatherData.getCached())) {
+                    cacheHits++;
+                }
+                cityResults.add(new BatchWeatherResponse.CityResult(entry.getKey(), true, null, null, weatherData));
+            } else {
+                cityResults.add(new BatchWeatherResponse.CityResult(entry.getKey(), false,
+                        weatherData.getErrorType(), weatherData.getErrorMessage(), null));
+            }
+        }
+
+        return new BatchWeatherResponse(results.size(), succeeded, results.size() - succeeded, cacheHits, cityResults);
+    }
+}
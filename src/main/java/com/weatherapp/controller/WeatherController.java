@@ -1,6 +1,9 @@
 package com.weatherapp.controller;
 
+import com.weatherapp.cache.PopularityTracker;
 import com.weatherapp.dto.WeatherData;
+import com.weatherapp.metrics.ClientRequestRates;
+import com.weatherapp.metrics.WeatherRequestObservationConvention;
 import com.weatherapp.service.WeatherService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,11 +11,15 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.core.task.TaskRejectedException;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletionException;
 
 /**
  * WeatherController - Web Controller for Weather Application
@@ -46,6 +53,12 @@ public class WeatherController {
     @Autowired
     private WeatherService weatherService;
 
+    /**
+     * Counts successful lookups per city for the popular-city refresh
+     */
+    @Autowired
+    private PopularityTracker popularityTracker;
+
     /**
      * Home page - Search form
      * 
@@ -80,15 +93,18 @@ public class WeatherController {
      * This method handles weather search requests ("/weather?city=London").
      * It fetches weather data for the specified city and displays it in weather.jsp.
      * 
+     * The request is processed asynchronously (DeferredResult): on a cache miss
+     * the Tomcat worker thread is released while the upstream APIs are called,
+     * so slow upstream responses cannot exhaust the worker pool and delay
+     * requests that are served from cache. Cache hits complete immediately.
+     * 
      * @param city The city name from the request parameter
-     * @param model Spring MVC Model object for passing data to JSP
      * @param session HTTP session for storing search history
      * @param request HTTP request object for logging
-     * @return "weather" - the name of the JSP page to render
+     * @return Deferred view ("weather" or "index" with an error) and its model
      */
     @GetMapping("/weather")
-    public String getWeather(@RequestParam(required = false) String city, 
-                           Model model, 
+    public DeferredResult<ModelAndView> getWeather(@RequestParam(required = false) String city, 
                            HttpSession session,
                            HttpServletRequest request) {
         
@@ -99,85 +115,118 @@ public class WeatherController {
         String userAgent = request.getHeader("User-Agent");
         log.debug("Request from IP: {}, User-Agent: {}", userIp, userAgent);
         
+        DeferredResult<ModelAndView> result = new DeferredResult<>();
+        result.onTimeout(() -> {
+            log.warn("Weather request timed out for city: {}", city);
+            result.setResult(errorView("The weather service is taking too long to respond. Please try again.", session));
+        });
+        
         // Handle case when no city is provided
         if (city == null || city.trim().isEmpty()) {
             log.warn("No city provided in request");
-            model.addAttribute("error", "Please enter a city name");
-            model.addAttribute("pageTitle", "Weather Search - Error");
-            
-            // Get search history for the error page
-            @SuppressWarnings("unchecked")
-            List<String> searchHistory = (List<String>) session.getAttribute("searchHistory");
-            if (searchHistory == null) {
-                searchHistory = new ArrayList<>();
-            }
-            model.addAttribute("searchHistory", searchHistory);
-            
-            return "index";
+            result.setResult(errorView("Please enter a city name", session));
+            return result;
         }
         
-        try {
-            // Fetch weather data from service
-            WeatherData weatherData = weatherService.getWeatherData(city.trim());
-            
-            // Check if weather data is valid
-            if (weatherData.isValid()) {
-                log.info("Successfully retrieved weather data for city: {}", city);
-                
-                // Add weather data to model for JSP
-                model.addAttribute("weather", weatherData);
-                model.addAttribute("pageTitle", "Weather in " + weatherData.getCityName());
-                
-                // Update search history
-                updateSearchHistory(session, city.trim());
-                
-                // Add search history to model
-                @SuppressWarnings("unchecked")
-                List<String> searchHistory = (List<String>) session.getAttribute("searchHistory");
-                model.addAttribute("searchHistory", searchHistory);
-                
-                return "weather";
-                
+        // Fetch weather data from service (completes immediately on a cache hit)
+        weatherService.getWeatherDataAsync(city.trim()).whenComplete((weatherData, error) -> {
+            if (error != null) {
+                result.setResult(exceptionView(city, error, session));
             } else {
-                log.warn("Failed to retrieve weather data for city: {}", city);
-                model.addAttribute("error", weatherData.getErrorMessage());
-                model.addAttribute("pageTitle", "Weather Search - Error");
-                
-                // Get search history for the error page
-                @SuppressWarnings("unchecked")
-                List<String> searchHistory = (List<String>) session.getAttribute("searchHistory");
-                if (searchHistory == null) {
-                    searchHistory = new ArrayList<>();
+                if (weatherData.isValid()) {
+                    // "pune" and "Poona" both count for "Pune, Maharashtra, IN"
+                    String canonicalCityName = weatherData.getCanonicalCityName();
+                    popularityTracker.record(canonicalCityName != null ? canonicalCityName : city);
                 }
-                model.addAttribute("searchHistory", searchHistory);
-                
-                return "index";
-            }
-            
-        } catch (Exception e) {
-            log.error("Error processing weather request for city: {}", city, e);
-            
-            // Provide more specific error messages based on the exception
-            String errorMessage;
-            if (e.getMessage() != null && e.getMessage().contains("City not found")) {
-                errorMessage = "City not found: " + city + ". Try using format: City, CountryCode (e.g., Nanded,IN or Mumbai, India)";
-            } else {
-                errorMessage = "An unexpected error occurred. Please try again.";
+                WeatherRequestObservationConvention.markCacheResult(request, weatherData);
+                result.setResult(weatherView(city, weatherData, session));
             }
-            
-            model.addAttribute("error", errorMessage);
-            model.addAttribute("pageTitle", "Weather Search - Error");
-            
-            // Get search history for the error page
-            @SuppressWarnings("unchecked")
-            List<String> searchHistory = (List<String>) session.getAttribute("searchHistory");
-            if (searchHistory == null) {
-                searchHistory = new ArrayList<>();
-            }
-            model.addAttribute("searchHistory", searchHistory);
-            
-            return "index";
+        });
+        
+        return result;
+    }
+
+    /**
+     * Build the view for a completed weather lookup
+     * 
+     * @param city The city name as requested
+     * @param weatherData The weather data returned by the service
+     * @param session HTTP session for storing search history
+     * @return "weather" view on success, "index" view with the error otherwise
+     */
+    private ModelAndView weatherView(String city, WeatherData weatherData, HttpSession session) {
+        // Check if weather data is valid
+        if (!weatherData.isValid()) {
+            log.warn("Failed to retrieve weather data for city: {}", city);
+            return errorView(weatherData.getErrorMessage(), session);
         }
+        
+        log.info("Successfully retrieved weather data for city: {}", city);
+        
+        // Update search history
+        updateSearchHistory(session, city.trim());
+        
+        // Add weather data and search history to model for JSP
+        ModelAndView view = new ModelAndView("weather");
+        view.addObject("weather", weatherData);
+        view.addObject("pageTitle", "Weather in " + weatherData.getCityName());
+        view.addObject("searchHistory", getSearchHistory(session));
+        return view;
+    }
+
+    /**
+     * Build the error view for a lookup that failed with an exception
+     * 
+     * @param city The city name as requested
+     * @param error The failure
+     * @param session HTTP session for the search history
+     * @return "index" view with a user-friendly error message
+     */
+    private ModelAndView exceptionView(String city, Throwable error, HttpSession session) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        log.error("Error processing weather request for city: {}", city, cause);
+        
+        // Provide more specific error messages based on the exception
+        String errorMessage;
+        if (cause.getMessage() != null && cause.getMessage().contains("City not found")) {
+            errorMessage = "City not found: " + city + ". Try using format: City, CountryCode (e.g., Nanded,IN or Mumbai, India)";
+        } else if (cause instanceof TaskRejectedException) {
+            errorMessage = "The weather service is busy right now. Please try again in a moment.";
+        } else {
+            errorMessage = "An unexpected error occurred. Please try again.";
+        }
+        
+        return errorView(errorMessage, session);
+    }
+
+    /**
+     * Build the search page with an error message
+     * 
+     * @param errorMessage The message to display
+     * @param session HTTP session for the search history
+     * @return "index" view with the error
+     */
+    private ModelAndView errorView(String errorMessage, HttpSession session) {
+        ModelAndView view = new ModelAndView("index");
+        view.addObject("error", errorMessage);
+        view.addObject("pageTitle", "Weather Search - Error");
+        view.addObject("searchHistory", getSearchHistory(session));
+        return view;
+    }
+
+    /**
+     * Get the search history from the session
+     * 
+     * @param session HTTP session object
+     * @return The search history (empty if none)
+     */
+    private List<String> getSearchHistory(HttpSession session) {
+        @SuppressWarnings("unchecked")
+        List<String> searchHistory = (List<String>) session.getAttribute("searchHistory");
+        if (searchHistory == null) {
+            searchHistory = new ArrayList<>();
+        }
+        return searchHistory;
     }
 
     /**
@@ -240,21 +289,12 @@ public class WeatherController {
      * 
      * This method extracts the real IP address of the client,
      * handling cases where the application is behind a proxy or load balancer.
+     * The same address is used for the per-client request metrics.
      * 
      * @param request HTTP request object
      * @return Client IP address as string
      */
     private String getClientIpAddress(HttpServletRequest request) {
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty() && !"unknown".equalsIgnoreCase(xForwardedFor)) {
-            return xForwardedFor.split(",")[0];
-        }
-        
-        String xRealIp = request.getHeader("X-Real-IP");
-        if (xRealIp != null && !xRealIp.isEmpty() && !"unknown".equalsIgnoreCase(xRealIp)) {
-            return xRealIp;
-        }
-        
-        return request.getRemoteAddr();
+        return ClientRequestRates.clientIp(request);
     }
 }
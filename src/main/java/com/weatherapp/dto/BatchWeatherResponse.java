@@ -0,0 +1,86 @@
+package com.weatherapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * BatchWeatherResponse - Result of a Multi-City Weather Request
+ *
+ * Returned as a single JSON document by /api/weather/batch. Every requested
+ * city gets one entry, in request order; a city that could not be loaded is
+ * reported inline with its error instead of failing the whole batch.
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchWeatherResponse {
+
+    /**
+     * Number of distinct cities in the request
+     */
+    private int requested;
+
+    /**
+     * Number of cities that were loaded successfully
+     */
+    private int succeeded;
+
+    /**
+     * Number of cities that failed
+     */
+    private int failed;
+
+    /**
+     * Number of successful cities served from the cache
+     */
+    private int cacheHits;
+
+    /**
+     * One entry per requested city, in request order
+     */
+    private List<CityResult> results;
+
+    /**
+     * CityResult - Outcome for a single requested city
+     *
+     * Either weather is set, or errorType and error describe the failure.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class CityResult {
+
+        /**
+         * The city name as given in the request
+         */
+        private String query;
+
+        /**
+         * Whether the weather data was loaded successfully
+         */
+        private boolean success;
+
+        /**
+         * Type of failure (INVALID_INPUT, NOT_FOUND, UPSTREAM_ERROR, RATE_LIMITED)
+         */
+        private WeatherData.ErrorType errorType;
+
+        /**
+         * User-friendly error message
+         */
+        private String error;
+
+        /**
+         * The weather data, for successful cities
+         */
+        private WeatherData weather;
+    }
+}
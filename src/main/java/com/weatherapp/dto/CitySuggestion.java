@@ -0,0 +1,32 @@
+package com.weatherapp.dto;
+
+/**
+ * CitySuggestion - One Completion of a Partly Typed City Name
+ *
+ * Returned by /api/cities/suggest. The id is the canonical name of the city
+ * (see ResolvedLocation.canonicalName); submitted as the city of a weather
+ * request, it is resolved without calling the geocoding API.
+ *
+ * @param id Canonical name, e.g. "Pune, Maharashtra, IN"
+ * @param name City name
+ * @param state State or region (may be null)
+ * @param country ISO country code (may be null)
+ * @param latitude Latitude of the city
+ * @param longitude Longitude of the city
+ * @author Weather App Team
+ * @version 1.0
+ */
+public record CitySuggestion(String id, String name, String state, String country,
+                             double latitude, double longitude) {
+
+    /**
+     * Create the suggestion of a resolved location
+     *
+     * @param location The location
+     * @return The suggestion, identified by the canonical name of the location
+     */
+    public static CitySuggestion of(ResolvedLocation location) {
+        return new CitySuggestion(location.canonicalName(), location.name(), location.state(),
+                location.country(), location.latitude(), location.longitude());
+    }
+}
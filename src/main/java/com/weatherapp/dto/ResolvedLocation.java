@@ -0,0 +1,73 @@
+package com.weatherapp.dto;
+
+import com.weatherapp.cache.GeoHash;
+
+import java.util.Map;
+
+/**
+ * ResolvedLocation - A City Name Resolved to Coordinates
+ *
+ * Result of geocoding one search term, as stored in the "weather-alias-cache".
+ * The cell is the geohash of the coordinates and keys the shared weather
+ * data in the per-dataset weather caches; the remaining fields describe the
+ * place the user asked for, so every alias can be shown with its own name.
+ *
+ * @param name City name as known by the geocoding API
+ * @param state State or region (may be null)
+ * @param country ISO country code (may be null)
+ * @param latitude Latitude of the city
+ * @param longitude Longitude of the city
+ * @param cell Geohash cell of the coordinates
+ * @author Weather App Team
+ * @version 1.0
+ */
+public record ResolvedLocation(String name, String state, String country,
+                               double latitude, double longitude, String cell) {
+
+    /**
+     * Create a resolved location from a geocoding API result
+     *
+     * @param location Location map with name, state, country, lat and lon
+     * @param precision Geohash precision of the cell
+     * @return The resolved location
+     */
+    public static ResolvedLocation of(Map<String, Object> location, int precision) {
+        double latitude = ((Number) location.get("lat")).doubleValue();
+        double longitude = ((Number) location.get("lon")).doubleValue();
+        return new ResolvedLocation((String) location.get("name"), (String) location.get("state"),
+                (String) location.get("country"), latitude, longitude,
+                GeoHash.encode(latitude, longitude, precision));
+    }
+
+    /**
+     * Get the name shown to users, e.g. "Pune, Maharashtra"
+     *
+     * @return The city name, followed by the state if known
+     */
+    public String displayName() {
+        if (state != null && !state.isEmpty()) {
+            return name + ", " + state;
+        }
+        return name;
+    }
+
+    /**
+     * Get the canonical name, e.g. "Pune, Maharashtra, IN"
+     *
+     * City suggestions use it as their ID: the gazetteer, or the city
+     * directory for cities geocoded earlier, resolves it without calling the
+     * geocoding API.
+     *
+     * @return The city name, followed by the state and country if known
+     */
+    public String canonicalName() {
+        StringBuilder canonical = new StringBuilder(name);
+        if (state != null && !state.isEmpty()) {
+            canonical.append(", ").append(state);
+        }
+        if (country != null && !country.isEmpty()) {
+            canonical.append(", ").append(country);
+        }
+        return canonical.toString();
+    }
+}
@@ -1,6 +1,8 @@
 package com.weatherapp.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -21,12 +23,16 @@ import java.util.List;
  * - Allows us to customize data for specific views
  * - Makes the API more maintainable and flexible
  * 
+ * The builder (toBuilder) is used to hand out copies of cached entries, so
+ * per-response metadata such as "cached" never modifies the shared instance.
+ * 
  * @author Weather App Team
  * @version 1.0
  */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@Builder(toBuilder = true)
 public class WeatherData {
 
     // =============================================================================
@@ -53,6 +59,13 @@ public class WeatherData {
      */
     private Double longitude;
 
+    /**
+     * Canonical name of the resolved city (e.g., "Pune, Maharashtra, IN"),
+     * the ID of its city suggestion; set on served copies only
+     */
+    @JsonIgnore
+    private String canonicalCityName;
+
     // =============================================================================
     // CURRENT WEATHER INFORMATION
     // =============================================================================
@@ -176,11 +189,31 @@ public class WeatherData {
      */
     private LocalDateTime fetchedAt;
 
+    /**
+     * Version of the cache entry; changes with every upstream load
+     * (together with fetchedAt it identifies one cache generation)
+     */
+    private Long version;
+
+    /**
+     * Versions of the datasets this data was assembled from
+     * (current.forecast.aqi, "-" for a missing dataset); the HTTP validator,
+     * so a reload of any dataset is told apart without loss
+     */
+    @JsonIgnore
+    private String generation;
+
     /**
      * Whether this data was served from cache
      */
     private Boolean cached;
 
+    /**
+     * Whether this is the last known data, served because the upstream API
+     * is unavailable (it may be older than the usual cache lifetime)
+     */
+    private boolean stale;
+
     /**
      * Response time in milliseconds
      */
@@ -191,6 +224,25 @@ public class WeatherData {
      */
     private String errorMessage;
 
+    /**
+     * Kind of error if any occurred (decides whether the result is cached)
+     */
+    private ErrorType errorType;
+
+    /**
+     * ErrorType - Classification of failed weather lookups
+     */
+    public enum ErrorType {
+        /** The request itself was invalid (e.g. empty city name) */
+        INVALID_INPUT,
+        /** The city does not exist; safe to cache for a short time */
+        NOT_FOUND,
+        /** Timeout or server error upstream; must not be cached */
+        UPSTREAM_ERROR,
+        /** Upstream call budget exhausted; must not be cached */
+        RATE_LIMITED
+    }
+
     // =============================================================================
     // UTILITY METHODS FOR JSP COMPATIBILITY
     // =============================================================================
@@ -0,0 +1,44 @@
+package com.weatherapp.dto.openweathermap;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * AirPollutionResponse - Typed model of the OpenWeatherMap "/air_pollution" response
+ * 
+ * Only the air quality index is mapped; the individual pollutant components
+ * are skipped while streaming.
+ * 
+ * @author Weather App Team
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class AirPollutionResponse {
+
+    private List<Item> list;
+
+    /**
+     * Item - Air quality at one point in time
+     */
+    @Data
+    @NoArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Item {
+        private Main main;
+    }
+
+    /**
+     * Main - Air quality index
+     */
+    @Data
+    @NoArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Main {
+        private Integer aqi;
+    }
+}
@@ -0,0 +1,93 @@
+package com.weatherapp.dto.openweathermap;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * CurrentWeatherResponse - Typed model of the OpenWeatherMap "/weather" response
+ * 
+ * Jackson deserializes the response stream straight into this class, so no
+ * intermediate Map/List tree is built and numbers arrive with the right type
+ * (no instanceof Integer/Long/Double checks needed).
+ * 
+ * Only the fields used by WeatherData are mapped; unknown fields are skipped.
+ * 
+ * @author Weather App Team
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CurrentWeatherResponse {
+
+    private String name;
+    private Coord coord;
+    private List<WeatherCondition> weather;
+    private Main main;
+    private Integer visibility;
+    private Wind wind;
+    private Clouds clouds;
+    private Sys sys;
+
+    /**
+     * Coord - Coordinates of the location
+     */
+    @Data
+    @NoArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Coord {
+        private Double lat;
+        private Double lon;
+    }
+
+    /**
+     * Main - Temperature, humidity and pressure
+     */
+    @Data
+    @NoArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Main {
+        private Double temp;
+        @JsonProperty("feels_like")
+        private Double feelsLike;
+        private Integer humidity;
+        private Integer pressure;
+    }
+
+    /**
+     * Wind - Wind speed and direction
+     */
+    @Data
+    @NoArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Wind {
+        private Double speed;
+        private Integer deg;
+    }
+
+    /**
+     * Clouds - Cloudiness percentage
+     */
+    @Data
+    @NoArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Clouds {
+        private Integer all;
+    }
+
+    /**
+     * Sys - Country and sun times (Unix timestamps)
+     */
+    @Data
+    @NoArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Sys {
+        private String country;
+        private Long sunrise;
+        private Long sunset;
+    }
+}
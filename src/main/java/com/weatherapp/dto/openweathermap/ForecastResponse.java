@@ -0,0 +1,86 @@
+package com.weatherapp.dto.openweathermap;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * ForecastResponse - Typed model of the OpenWeatherMap "/forecast" response
+ * 
+ * The 5 day / 3 hour forecast is the largest payload we parse (40 entries).
+ * Mapping only the fields we use lets Jackson skip everything else while
+ * streaming (temp_min, pressure, gust, dt_txt, ...), instead of building a
+ * LinkedHashMap with boxed values for every field of every entry.
+ * The city's UTC offset decides which local day each entry belongs to.
+ * 
+ * @author Weather App Team
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ForecastResponse {
+
+    private List<Item> list;
+    private City city;
+
+    /**
+     * Item - One 3-hour forecast entry
+     */
+    @Data
+    @NoArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Item {
+        private long dt;
+        private Main main;
+        private List<WeatherCondition> weather;
+        private Wind wind;
+        private Rain rain;
+    }
+
+    /**
+     * Main - Temperature and humidity
+     */
+    @Data
+    @NoArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Main {
+        private Double temp;
+        private Integer humidity;
+    }
+
+    /**
+     * Wind - Wind speed
+     */
+    @Data
+    @NoArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Wind {
+        private Double speed;
+    }
+
+    /**
+     * Rain - Rain volume for the last 3 hours in mm
+     */
+    @Data
+    @NoArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Rain {
+        @JsonProperty("3h")
+        private Double threeHours;
+    }
+
+    /**
+     * City - The forecast location
+     */
+    @Data
+    @NoArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class City {
+        /** Shift in seconds from UTC */
+        private Integer timezone;
+    }
+}
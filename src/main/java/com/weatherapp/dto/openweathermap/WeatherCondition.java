@@ -0,0 +1,30 @@
+package com.weatherapp.dto.openweathermap;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * WeatherCondition - One entry of the "weather" array in OpenWeatherMap responses
+ * 
+ * Only the fields we display are mapped; Jackson skips the rest of the
+ * object while streaming, without allocating anything for it.
+ * 
+ * @author Weather App Team
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class WeatherCondition {
+
+    /**
+     * Condition description (e.g. "scattered clouds")
+     */
+    private String description;
+
+    /**
+     * Icon code (e.g. "03d")
+     */
+    private String icon;
+}
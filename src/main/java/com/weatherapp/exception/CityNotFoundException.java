@@ -0,0 +1,23 @@
+package com.weatherapp.exception;
+
+/**
+ * CityNotFoundException - Thrown when a city name cannot be resolved
+ * 
+ * Raised when the geocoding API answered every search variation but none of
+ * them matched a location. This is a permanent result for the given input
+ * (typically a typo), unlike timeouts or server errors, which are transient.
+ * 
+ * @author Weather App Team
+ * @version 1.0
+ */
+public class CityNotFoundException extends RuntimeException {
+
+    /**
+     * Create the exception for a city name
+     * 
+     * @param cityName The city name that could not be resolved
+     */
+    public CityNotFoundException(String cityName) {
+        super("City not found: " + cityName);
+    }
+}
@@ -0,0 +1,24 @@
+package com.weatherapp.exception;
+
+/**
+ * UpstreamQuotaExceededException - Thrown when no upstream call budget is left
+ *
+ * Raised by UpstreamGovernor instead of sending a request to OpenWeatherMap
+ * when the per-minute or per-day budget is used up (or reserved for more
+ * important work). Like a timeout this is transient, so the result must not
+ * be cached; cached data, even if stale, should be served instead.
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+public class UpstreamQuotaExceededException extends RuntimeException {
+
+    /**
+     * Create the exception
+     *
+     * @param message Which budget was exhausted
+     */
+    public UpstreamQuotaExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,24 @@
+package com.weatherapp.exception;
+
+/**
+ * UpstreamUnavailableException - Thrown when an upstream endpoint is not called
+ *
+ * Raised by UpstreamCircuitBreakers instead of sending a request when the
+ * endpoint's circuit is open (it has been failing) or its bulkhead is full
+ * (too many requests are already waiting on it). The failure is immediate
+ * and transient; callers fall back to the last known data.
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+public class UpstreamUnavailableException extends RuntimeException {
+
+    /**
+     * Create the exception
+     *
+     * @param message Which endpoint was skipped and why
+     */
+    public UpstreamUnavailableException(String message) {
+        super(message);
+    }
+}
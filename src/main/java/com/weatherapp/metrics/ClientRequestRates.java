@@ -0,0 +1,175 @@
+package com.weatherapp.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ClientRequestRates - Requests per Client IP, Exported as Metrics
+ *
+ * Counts the requests of every client IP during the current minute. At the
+ * end of each minute the counts are published as the gauge
+ * "weather.client.requests" (requests in the last minute, tagged by client).
+ *
+ * Why only the top clients:
+ * - Every tag value is a separate time series in Prometheus; one series per
+ *   IP would grow without bound
+ * - Only the weather.metrics.client-ip.top-n busiest clients get their own
+ *   series; all others are summed up as client="other", and series of
+ *   clients that dropped out of the top are removed
+ * - At most weather.metrics.client-ip.max-tracked IPs are counted per minute
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+@Component
+public class ClientRequestRates extends OncePerRequestFilter implements MeterBinder {
+
+    /**
+     * Tag value for all clients outside the top
+     */
+    static final String OTHER = "other";
+
+    @Value("${weather.metrics.client-ip.top-n}")
+    private int topN;
+
+    @Value("${weather.metrics.client-ip.max-tracked}")
+    private int maxTracked;
+
+    /**
+     * Request counts of the current minute
+     */
+    private volatile ConcurrentMap<String, LongAdder> currentMinute = new ConcurrentHashMap<>();
+
+    /**
+     * Published rates of the last complete minute
+     */
+    private volatile List<ClientRate> lastMinute = List.of();
+
+    private volatile MultiGauge gauge;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        count(clientIp(request));
+        chain.doFilter(request, response);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Prometheus scrapes are not client traffic
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        gauge = MultiGauge.builder("weather.client.requests")
+                .description("Requests per client IP during the last minute")
+                .baseUnit("requests")
+                .register(registry);
+    }
+
+    /**
+     * Publish the counts of the finished minute and start a new one
+     */
+    @Scheduled(fixedRate = 60_000, initialDelay = 60_000)
+    public void rotate() {
+        Map<String, LongAdder> finished = currentMinute;
+        currentMinute = new ConcurrentHashMap<>();
+
+        List<ClientRate> rates = new ArrayList<>();
+        finished.forEach((client, count) -> rates.add(new ClientRate(client, count.sum())));
+        rates.sort(Comparator.comparingLong(ClientRate::requests).reversed());
+
+        List<ClientRate> published = new ArrayList<>();
+        long other = 0;
+        for (ClientRate rate : rates) {
+            if (published.size() < topN && !OTHER.equals(rate.client())) {
+                published.add(rate);
+            } else {
+                other += rate.requests();
+            }
+        }
+        if (other > 0) {
+            published.add(new ClientRate(OTHER, other));
+        }
+
+        lastMinute = List.copyOf(published);
+        MultiGauge registered = gauge;
+        if (registered != null) {
+            List<MultiGauge.Row<?>> rows = new ArrayList<>();
+            for (ClientRate rate : published) {
+                rows.add(MultiGauge.Row.of(Tags.of("client", rate.client()), rate.requests()));
+            }
+            registered.register(rows, true);
+        }
+    }
+
+    /**
+     * Get the published rates of the last complete minute
+     *
+     * @return Busiest clients first, then "other"
+     */
+    public List<ClientRate> getLastMinute() {
+        return lastMinute;
+    }
+
+    /**
+     * Get the IP address of the client that sent a request
+     *
+     * Handles applications behind a proxy or load balancer, which pass the
+     * original address in X-Forwarded-For or X-Real-IP.
+     *
+     * @param request HTTP request object
+     * @return Client IP address as string
+     */
+    public static String clientIp(HttpServletRequest request) {
+        String xForwardedFor = request.getHeader("X-Forwarded-For");
+        if (xForwardedFor != null && !xForwardedFor.isEmpty() && !"unknown".equalsIgnoreCase(xForwardedFor)) {
+            return xForwardedFor.split(",")[0].trim();
+        }
+
+        String xRealIp = request.getHeader("X-Real-IP");
+        if (xRealIp != null && !xRealIp.isEmpty() && !"unknown".equalsIgnoreCase(xRealIp)) {
+            return xRealIp;
+        }
+
+        return request.getRemoteAddr();
+    }
+
+    private void count(String client) {
+        ConcurrentMap<String, LongAdder> counts = currentMinute;
+        LongAdder count = counts.get(client);
+        if (count == null) {
+            count = counts.computeIfAbsent(counts.size() >= maxTracked ? OTHER : client, c -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    /**
+     * ClientRate - Requests of one client in one minute
+     *
+     * @param client Client IP, or "other"
+     * @param requests Number of requests
+     */
+    public record ClientRate(String client, long requests) {
+    }
+}
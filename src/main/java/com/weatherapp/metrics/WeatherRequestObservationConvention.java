@@ -0,0 +1,61 @@
+package com.weatherapp.metrics;
+
+import com.weatherapp.dto.WeatherData;
+import io.micrometer.common.KeyValues;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+
+/**
+ * WeatherRequestObservationConvention - Cache Result Tag on Request Metrics
+ *
+ * Spring Boot already times every request as "http.server.requests", but a
+ * /weather request answered from the cache and one waiting on
+ * OpenWeatherMap end up in the same histogram. This convention adds a
+ * "cache" tag, so both paths can be told apart:
+ * - hit: served from the cache
+ * - miss: loaded from the upstream API
+ * - stale: upstream unavailable, last known data served
+ * - error: no weather data could be served
+ * - none: requests that do not look up weather
+ *
+ * The weather controllers record the result with markCacheResult() before
+ * the (possibly asynchronous) request completes.
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+public class WeatherRequestObservationConvention extends DefaultServerRequestObservationConvention {
+
+    /**
+     * Request attribute holding the cache result of a weather lookup
+     */
+    static final String CACHE_ATTRIBUTE = WeatherRequestObservationConvention.class.getName() + ".cache";
+
+    /**
+     * Record how a weather lookup was served, for the request's metrics
+     *
+     * @param request The current request
+     * @param weatherData The weather data returned by the service
+     */
+    public static void markCacheResult(HttpServletRequest request, WeatherData weatherData) {
+        request.setAttribute(CACHE_ATTRIBUTE, cacheResult(weatherData));
+    }
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        Object cacheResult = context.getCarrier().getAttribute(CACHE_ATTRIBUTE);
+        return super.getLowCardinalityKeyValues(context)
+                .and("cache", cacheResult != null ? cacheResult.toString() : "none");
+    }
+
+    private static String cacheResult(WeatherData weatherData) {
+        if (weatherData == null || !weatherData.isValid()) {
+            return "error";
+        }
+        if (weatherData.isStale()) {
+            return "stale";
+        }
+        return Boolean.TRUE.equals(weatherData.getCached()) ? "hit" : "miss";
+    }
+}
@@ -0,0 +1,168 @@
+package com.weatherapp.service;
+
+import com.weatherapp.cache.PopularityTracker;
+import com.weatherapp.dto.CitySuggestion;
+import com.weatherapp.dto.ResolvedLocation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * CityDirectory - Cities Resolvable Without the Geocoding API, and Typeahead
+ *
+ * The directory knows two kinds of cities:
+ * - the cities of the embedded Gazetteer
+ * - cities the geocoding API resolved earlier, remembered under their
+ *   canonical name ("Khadki, Maharashtra, IN") in a sorted map, up to
+ *   weather.suggest.learned.max-size of them
+ *
+ * Both are kept sorted by normalized name, so suggest() finds the cities
+ * starting with a typed prefix with a binary search (packed gazetteer
+ * arrays) and a range view (ConcurrentSkipListMap). Candidates are ranked
+ * by how often their canonical name was requested recently (see
+ * PopularityTracker), then by population.
+ *
+ * Suggestions carry the canonical name as ID. Selecting one submits it as
+ * the city, and resolve() maps it back to the location without calling the
+ * geocoding API.
+ *
+ * Thread-safe.
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+@Service
+public class CityDirectory {
+
+    /**
+     * Queries longer than this are no city name prefix and get no suggestions
+     */
+    private static final int MAX_QUERY_LENGTH = 100;
+
+    /**
+     * Embedded gazetteer of known cities
+     * Injected by Spring's dependency injection
+     */
+    @Autowired
+    private Gazetteer gazetteer;
+
+    /**
+     * Recent request counts per city, used for ranking
+     * Injected by Spring's dependency injection
+     */
+    @Autowired
+    private PopularityTracker popularityTracker;
+
+    /**
+     * Geohash precision of resolved cells
+     * Injected from application.properties
+     */
+    @Value("${weather.cache.geohash-precision}")
+    private int geohashPrecision;
+
+    /**
+     * Maximum number of remembered geocoded cities
+     * Injected from application.properties
+     */
+    @Value("${weather.suggest.learned.max-size}")
+    private int learnedMaxSize;
+
+    /**
+     * Cities resolved by the geocoding API, by normalized canonical name
+     */
+    private final ConcurrentSkipListMap<String, ResolvedLocation> learned = new ConcurrentSkipListMap<>();
+
+    /**
+     * Size of learned (ConcurrentSkipListMap.size() is not constant-time)
+     */
+    private final AtomicInteger learnedCount = new AtomicInteger();
+
+    /**
+     * Resolve a city query without the geocoding API
+     *
+     * @param query City name as requested, e.g. "Pune,IN" or a suggestion ID
+     * @return The location from the gazetteer or of a remembered city, or null if unknown
+     */
+    public ResolvedLocation resolve(String query) {
+        ResolvedLocation location = gazetteer.resolve(query, geohashPrecision);
+        if (location == null) {
+            location = learned.get(Gazetteer.key(query));
+        }
+        return location;
+    }
+
+    /**
+     * Remember a city resolved by the geocoding API
+     *
+     * Cities the gazetteer already knows are skipped, as are new cities once
+     * the directory is full.
+     *
+     * @param location The geocoded location
+     */
+    public void remember(ResolvedLocation location) {
+        String canonicalName = location.canonicalName();
+        String key = Gazetteer.key(canonicalName);
+        if (key.isEmpty() || learned.containsKey(key) || learnedCount.get() >= learnedMaxSize
+                || gazetteer.resolve(canonicalName, geohashPrecision) != null) {
+            return;
+        }
+        if (learned.putIfAbsent(key, location) == null) {
+            learnedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Suggest cities whose name starts with a prefix
+     *
+     * @param query The beginning of a city name, as typed
+     * @param limit Maximum number of suggestions (at most Gazetteer.MAX_COMPLETIONS)
+     * @return Matching cities, the most requested and then most populous first
+     */
+    public List<CitySuggestion> suggest(String query, int limit) {
+        String prefix = query.length() > MAX_QUERY_LENGTH ? "" : Gazetteer.key(query);
+        if (prefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        List<Candidate> candidates = new ArrayList<>();
+        for (Gazetteer.Match match : gazetteer.complete(prefix, Gazetteer.MAX_COMPLETIONS, geohashPrecision)) {
+            candidates.add(candidate(match.location(), match.population()));
+        }
+        for (ResolvedLocation location : learned.subMap(prefix, prefix + Character.MAX_VALUE).values()) {
+            candidates.add(candidate(location, 0));
+            if (candidates.size() >= 2 * Gazetteer.MAX_COMPLETIONS) {
+                break;
+            }
+        }
+
+        candidates.sort(Comparator.comparingDouble(Candidate::score).reversed()
+                .thenComparing(Comparator.comparingInt(Candidate::population).reversed()));
+        return candidates.stream()
+                .limit(Math.min(limit, Gazetteer.MAX_COMPLETIONS))
+                .map(Candidate::suggestion)
+                .toList();
+    }
+
+    /**
+     * Get the number of remembered geocoded cities
+     *
+     * @return Cities resolved by the geocoding API that suggest() can return
+     */
+    public int getLearnedCount() {
+        return learnedCount.get();
+    }
+
+    private Candidate candidate(ResolvedLocation location, int population) {
+        CitySuggestion suggestion = CitySuggestion.of(location);
+        return new Candidate(suggestion, popularityTracker.score(suggestion.id()), population);
+    }
+
+    private record Candidate(CitySuggestion suggestion, double score, int population) {
+    }
+}
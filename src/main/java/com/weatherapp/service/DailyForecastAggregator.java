@@ -0,0 +1,173 @@
+package com.weatherapp.service;
+
+import com.weatherapp.dto.WeatherData;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * DailyForecastAggregator - Single-Pass Aggregation of Forecast Entries into Days
+ *
+ * Forecast entries are fed in chronological order, each with the epoch day
+ * it belongs to in the location's time zone. All statistics of the current
+ * day are kept in primitive accumulators; when the day changes, one
+ * DailyForecast is emitted and the accumulators are reset. There is no
+ * grouping map, no per-entry date string and no pass per statistic.
+ *
+ * Per day:
+ * - min and max temperature
+ * - average humidity, wind speed and precipitation (missing values count as 0)
+ * - the most frequent condition (the earliest one on a tie) with the icon of
+ *   its first occurrence
+ * - the start of the day in the location's time zone as its date, so the
+ *   date always matches the day the entries were grouped into
+ *
+ * Not thread-safe; use one instance per forecast.
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+final class DailyForecastAggregator {
+
+    /**
+     * Distinct conditions per day before the arrays grow
+     * (a 3-hour forecast has at most 8 entries per day)
+     */
+    private static final int INITIAL_CONDITIONS = 8;
+
+    private final List<WeatherData.DailyForecast> days;
+
+    private long epochDay = Long.MIN_VALUE;
+    private int count;
+    private boolean hasTemperature;
+    private double minTemperature;
+    private double maxTemperature;
+    private long humiditySum;
+    private double windSpeedSum;
+    private long precipitationSum;
+
+    private String[] conditions = new String[INITIAL_CONDITIONS];
+    private String[] icons = new String[INITIAL_CONDITIONS];
+    private int[] conditionCounts = new int[INITIAL_CONDITIONS];
+    private int distinctConditions;
+
+    /**
+     * @param expectedDays Capacity hint for the result list
+     */
+    DailyForecastAggregator(int expectedDays) {
+        this.days = new ArrayList<>(expectedDays);
+    }
+
+    /**
+     * Add one forecast entry
+     *
+     * @param epochDay Day of the entry in the location's time zone; must not
+     *                 be earlier than the day of the previous entry
+     * @param temperature Temperature, or null
+     * @param humidity Humidity in percent, or null
+     * @param windSpeed Wind speed, or null
+     * @param precipitation Precipitation, or null
+     * @param condition Condition description, or null
+     * @param icon Icon code of the condition, or null
+     */
+    void add(long epochDay, Double temperature, Integer humidity, Double windSpeed,
+             Integer precipitation, String condition, String icon) {
+        if (epochDay != this.epochDay) {
+            if (epochDay < this.epochDay) {
+                throw new IllegalArgumentException("Forecast entries must be in chronological order");
+            }
+            emitDay();
+            this.epochDay = epochDay;
+        }
+
+        count++;
+        if (temperature != null) {
+            double value = temperature;
+            if (!hasTemperature) {
+                minTemperature = value;
+                maxTemperature = value;
+                hasTemperature = true;
+            } else if (value < minTemperature) {
+                minTemperature = value;
+            } else if (value > maxTemperature) {
+                maxTemperature = value;
+            }
+        }
+        if (humidity != null) {
+            humiditySum += humidity;
+        }
+        if (windSpeed != null) {
+            windSpeedSum += windSpeed;
+        }
+        if (precipitation != null) {
+            precipitationSum += precipitation;
+        }
+        if (condition != null) {
+            countCondition(condition, icon);
+        }
+    }
+
+    /**
+     * Emit the last day and return all days
+     *
+     * @return Daily forecasts in chronological order
+     */
+    List<WeatherData.DailyForecast> finish() {
+        emitDay();
+        return days;
+    }
+
+    private void countCondition(String condition, String icon) {
+        for (int i = 0; i < distinctConditions; i++) {
+            if (conditions[i].equals(condition)) {
+                conditionCounts[i]++;
+                return;
+            }
+        }
+        if (distinctConditions == conditions.length) {
+            conditions = Arrays.copyOf(conditions, distinctConditions * 2);
+            icons = Arrays.copyOf(icons, distinctConditions * 2);
+            conditionCounts = Arrays.copyOf(conditionCounts, distinctConditions * 2);
+        }
+        conditions[distinctConditions] = condition;
+        icons[distinctConditions] = icon;
+        conditionCounts[distinctConditions] = 1;
+        distinctConditions++;
+    }
+
+    private void emitDay() {
+        if (count == 0) {
+            return;
+        }
+
+        // Strictly greater, so the earliest condition wins a tie
+        int mostFrequent = -1;
+        for (int i = 0; i < distinctConditions; i++) {
+            if (mostFrequent < 0 || conditionCounts[i] > conditionCounts[mostFrequent]) {
+                mostFrequent = i;
+            }
+        }
+
+        WeatherData.DailyForecast daily = new WeatherData.DailyForecast();
+        daily.setDate(LocalDate.ofEpochDay(epochDay).atStartOfDay());
+        daily.setMinTemperature(hasTemperature ? minTemperature : 0);
+        daily.setMaxTemperature(hasTemperature ? maxTemperature : 0);
+        daily.setWeatherCondition(mostFrequent < 0 ? null : conditions[mostFrequent]);
+        daily.setWeatherIcon(mostFrequent < 0 ? null : icons[mostFrequent]);
+        daily.setHumidity((int) Math.round((double) humiditySum / count));
+        daily.setWindSpeed(windSpeedSum / count);
+        daily.setPrecipitation((int) Math.round((double) precipitationSum / count));
+        days.add(daily);
+
+        count = 0;
+        hasTemperature = false;
+        humiditySum = 0;
+        windSpeedSum = 0;
+        precipitationSum = 0;
+        Arrays.fill(conditions, 0, distinctConditions, null);
+        Arrays.fill(icons, 0, distinctConditions, null);
+        distinctConditions = 0;
+    }
+}
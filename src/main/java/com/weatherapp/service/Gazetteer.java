@@ -0,0 +1,467 @@
+package com.weatherapp.service;
+
+import com.weatherapp.cache.GeoHash;
+import com.weatherapp.dto.ResolvedLocation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Gazetteer - Embedded, Read-Only Index of Known Cities
+ *
+ * Resolves city names to coordinates locally, so the most common lookups
+ * need none of the one to three geocoding API calls of
+ * WeatherService.resolveCityCoordinates. The cities are loaded once from a
+ * bundled tab-separated file (see gazetteer/cities.tsv) with their alternate
+ * names, state, country and population.
+ *
+ * The index is a handful of packed arrays instead of one object per city:
+ * - names: all searchable names (lowercase, accents and punctuation removed)
+ *   in one char[], sorted, with an int[] of offsets; a lookup is a binary
+ *   search over it
+ * - places: display name, coordinates (1e-5 degrees) and population per city
+ *   in parallel arrays; states and countries as 16-bit dictionary codes
+ *
+ * A query is a name optionally followed by qualifiers, as users type them:
+ * "Pune", "Pune,IN", "Aurangabad, Bihar", "Portland, Maine, United States".
+ * Every qualifier must match the state, ISO country code or English country
+ * name of the city. When several cities match, the most populous one wins.
+ * Queries that match no city are left to the geocoding API.
+ *
+ * The sorted names also serve prefix searches for typeahead (complete): the
+ * names starting with a prefix are one contiguous range. Prefixes of one or
+ * two characters, which match the largest ranges, have their most populous
+ * cities precomputed.
+ *
+ * Immutable and thread-safe.
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+public final class Gazetteer {
+
+    private static final double COORDINATE_SCALE = 1e5;
+
+    /**
+     * Maximum number of cities returned by complete
+     */
+    public static final int MAX_COMPLETIONS = 16;
+
+    /**
+     * Length up to which prefixes have their completions precomputed
+     */
+    private static final int SHORT_PREFIX = 2;
+
+    /**
+     * Code of "no state"
+     */
+    private static final char NO_REGION = 0;
+
+    private final PackedStrings placeNames;
+    private final int[] latitudes;
+    private final int[] longitudes;
+    private final int[] populations;
+    private final char[] placeRegions;
+    private final char[] placeCountries;
+
+    private final String[] regionNames;
+    private final String[] regionKeys;
+    private final String[] countryCodes;
+    private final String[] countryKeys;
+
+    /**
+     * Searchable names, sorted; for equal names the most populous place comes first
+     */
+    private final PackedStrings keys;
+    private final int[] keyPlaces;
+
+    /**
+     * Most populous places per prefix of up to SHORT_PREFIX characters
+     */
+    private final Map<String, int[]> shortPrefixPlaces = new HashMap<>();
+
+    private Gazetteer(List<Row> rows) {
+        int size = rows.size();
+        List<String> names = new ArrayList<>(size);
+        latitudes = new int[size];
+        longitudes = new int[size];
+        populations = new int[size];
+        placeRegions = new char[size];
+        placeCountries = new char[size];
+
+        Map<String, Character> regions = new LinkedHashMap<>();
+        regions.put("", NO_REGION);
+        Map<String, Character> countries = new LinkedHashMap<>();
+        List<KeyEntry> entries = new ArrayList<>();
+
+        for (int place = 0; place < size; place++) {
+            Row row = rows.get(place);
+            names.add(row.name());
+            latitudes[place] = (int) Math.round(row.latitude() * COORDINATE_SCALE);
+            longitudes[place] = (int) Math.round(row.longitude() * COORDINATE_SCALE);
+            populations[place] = row.population();
+            placeRegions[place] = code(regions, row.state());
+            placeCountries[place] = code(countries, row.country());
+
+            List<String> placeKeys = new ArrayList<>();
+            for (String name : row.names()) {
+                String key = key(name);
+                if (!key.isEmpty() && !placeKeys.contains(key)) {
+                    placeKeys.add(key);
+                    entries.add(new KeyEntry(key, place, row.population()));
+                }
+            }
+        }
+
+        placeNames = new PackedStrings(names);
+        regionNames = regions.keySet().toArray(new String[0]);
+        regionKeys = regions.keySet().stream().map(Gazetteer::key).toArray(String[]::new);
+        countryCodes = countries.keySet().toArray(new String[0]);
+        countryKeys = countries.keySet().stream()
+                .map(code -> key(Locale.of("", code).getDisplayCountry(Locale.ENGLISH)))
+                .toArray(String[]::new);
+
+        entries.sort(Comparator.comparing(KeyEntry::key)
+                .thenComparing(Comparator.comparingInt(KeyEntry::population).reversed())
+                .thenComparingInt(KeyEntry::place));
+        keys = new PackedStrings(entries.stream().map(KeyEntry::key).toList());
+        keyPlaces = entries.stream().mapToInt(KeyEntry::place).toArray();
+
+        TreeSet<String> shortPrefixes = new TreeSet<>();
+        for (KeyEntry entry : entries) {
+            for (int length = 1; length <= Math.min(SHORT_PREFIX, entry.key().length()); length++) {
+                shortPrefixes.add(entry.key().substring(0, length));
+            }
+        }
+        for (String prefix : shortPrefixes) {
+            shortPrefixPlaces.put(prefix, topPlaces(prefix));
+        }
+    }
+
+    /**
+     * Load a gazetteer from a tab-separated city list
+     *
+     * Each line holds name, alternate names (comma-separated), state, ISO
+     * country code, latitude, longitude and population. Blank lines and
+     * lines starting with # are skipped.
+     *
+     * @param in The city list (UTF-8), closed by the caller
+     * @return The gazetteer
+     * @throws IOException if the list cannot be read
+     * @throws IllegalArgumentException if a line is malformed
+     */
+    public static Gazetteer load(InputStream in) throws IOException {
+        List<Row> rows = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\t", -1);
+            try {
+                if (fields.length != 7 || fields[0].isBlank() || fields[3].isBlank()) {
+                    throw new IllegalArgumentException("expected name, alternate names, state, country, "
+                            + "latitude, longitude and population");
+                }
+                List<String> names = new ArrayList<>();
+                names.add(fields[0].trim());
+                for (String alternate : fields[1].split(",")) {
+                    if (!alternate.isBlank()) {
+                        names.add(alternate.trim());
+                    }
+                }
+                rows.add(new Row(names, fields[2].trim(), fields[3].trim().toUpperCase(Locale.ROOT),
+                        Double.parseDouble(fields[4]), Double.parseDouble(fields[5]),
+                        Integer.parseInt(fields[6].trim())));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid gazetteer line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        return new Gazetteer(rows);
+    }
+
+    /**
+     * Create a gazetteer that knows no cities (every query goes to the geocoding API)
+     *
+     * @return An empty gazetteer
+     */
+    public static Gazetteer empty() {
+        return new Gazetteer(List.of());
+    }
+
+    /**
+     * Resolve a city query to a location
+     *
+     * @param query City name, optionally followed by comma-separated state and country
+     * @param precision Geohash precision of the cell
+     * @return The most populous matching city, or null if the gazetteer knows none
+     */
+    public ResolvedLocation resolve(String query, int precision) {
+        int place = find(query);
+        return place < 0 ? null : location(place, precision);
+    }
+
+    /**
+     * Find the most populous cities with a name starting with a prefix
+     *
+     * Alternate names count too, so "bomb" finds Mumbai. Each city is
+     * returned once.
+     *
+     * @param prefix Beginning of a city name, as typed
+     * @param limit Maximum number of cities (at most MAX_COMPLETIONS)
+     * @param precision Geohash precision of the cells
+     * @return Matching cities, most populous first
+     */
+    public List<Match> complete(String prefix, int limit, int precision) {
+        String key = key(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        int[] places = key.length() <= SHORT_PREFIX
+                ? shortPrefixPlaces.getOrDefault(key, new int[0]) : topPlaces(key);
+
+        List<Match> matches = new ArrayList<>(Math.min(limit, places.length));
+        for (int i = 0; i < places.length && i < limit; i++) {
+            matches.add(new Match(location(places[i], precision), populations[places[i]]));
+        }
+        return matches;
+    }
+
+    private ResolvedLocation location(int place, int precision) {
+        double latitude = latitudes[place] / COORDINATE_SCALE;
+        double longitude = longitudes[place] / COORDINATE_SCALE;
+        String state = placeRegions[place] == NO_REGION ? null : regionNames[placeRegions[place]];
+        return new ResolvedLocation(placeNames.get(place), state, countryCodes[placeCountries[place]],
+                latitude, longitude, GeoHash.encode(latitude, longitude, precision));
+    }
+
+    /**
+     * @return Number of cities in the gazetteer
+     */
+    public int size() {
+        return populations.length;
+    }
+
+    /**
+     * @return Number of searchable names (city names and alternate names)
+     */
+    public int names() {
+        return keyPlaces.length;
+    }
+
+    private int find(String query) {
+        String[] parts = query.split(",");
+        String name = parts.length == 0 ? "" : key(parts[0]);
+        if (name.isEmpty()) {
+            return -1;
+        }
+        List<String> qualifiers = new ArrayList<>();
+        for (int i = 1; i < parts.length; i++) {
+            String qualifier = key(parts[i]);
+            if (!qualifier.isEmpty()) {
+                qualifiers.add(qualifier);
+            }
+        }
+
+        for (int i = keys.lowerBound(name); i < keyPlaces.length && keys.compare(i, name) == 0; i++) {
+            if (matches(keyPlaces[i], qualifiers)) {
+                return keyPlaces[i];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Most populous distinct places with a name starting with a normalized prefix
+     */
+    private int[] topPlaces(String prefix) {
+        int from = keys.lowerBound(prefix);
+        int to = keys.lowerBound(prefix + Character.MAX_VALUE);
+        int[] top = new int[MAX_COMPLETIONS];
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            int place = keyPlaces[i];
+            if (count == MAX_COMPLETIONS && populations[place] <= populations[top[count - 1]]) {
+                continue;
+            }
+            if (contains(top, count, place)) {
+                continue;
+            }
+            // Insertion into the small sorted array, dropping the least populous when full
+            int j = count < MAX_COMPLETIONS ? count++ : count - 1;
+            while (j > 0 && populations[top[j - 1]] < populations[place]) {
+                top[j] = top[j - 1];
+                j--;
+            }
+            top[j] = place;
+        }
+        return Arrays.copyOf(top, count);
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean matches(int place, List<String> qualifiers) {
+        for (String qualifier : qualifiers) {
+            char region = placeRegions[place];
+            char country = placeCountries[place];
+            boolean matched = qualifier.equalsIgnoreCase(countryCodes[country])
+                    || qualifier.equals(countryKeys[country])
+                    || (region != NO_REGION && qualifier.equals(regionKeys[region]));
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Normalize a name for searching
+     *
+     * Lowercases, strips accents and turns runs of punctuation and whitespace
+     * into single spaces: "São Paulo" and "sao  paulo" both become "sao paulo",
+     * "Pimpri-Chinchwad" becomes "pimpri chinchwad".
+     *
+     * @param name The name
+     * @return The normalized name (empty if it has no letters or digits)
+     */
+    static String key(String name) {
+        String decomposed = Normalizer.normalize(name, Normalizer.Form.NFD);
+        StringBuilder key = new StringBuilder(decomposed.length());
+        boolean separator = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                if (separator && !key.isEmpty()) {
+                    key.append(' ');
+                }
+                separator = false;
+                key.append(Character.toLowerCase(c));
+            } else {
+                separator = true;
+            }
+        }
+        return key.toString();
+    }
+
+    private static char code(Map<String, Character> dictionary, String value) {
+        Character code = dictionary.get(value);
+        if (code == null) {
+            if (dictionary.size() > Character.MAX_VALUE) {
+                throw new IllegalArgumentException("Too many distinct values: " + value);
+            }
+            code = (char) dictionary.size();
+            dictionary.put(value, code);
+        }
+        return code;
+    }
+
+    /**
+     * Match - A city found by prefix
+     *
+     * @param location The city
+     * @param population Its population
+     */
+    public record Match(ResolvedLocation location, int population) {
+    }
+
+    private record Row(List<String> names, String state, String country,
+                       double latitude, double longitude, int population) {
+
+        String name() {
+            return names.get(0);
+        }
+    }
+
+    private record KeyEntry(String key, int place, int population) {
+    }
+
+    /**
+     * PackedStrings - Read-only list of strings stored in one char array
+     */
+    private static final class PackedStrings {
+
+        private final char[] chars;
+
+        /**
+         * Start of each string in chars, followed by the total length
+         */
+        private final int[] offsets;
+
+        PackedStrings(List<String> values) {
+            offsets = new int[values.size() + 1];
+            int length = 0;
+            for (int i = 0; i < values.size(); i++) {
+                offsets[i] = length;
+                length += values.get(i).length();
+            }
+            offsets[values.size()] = length;
+            chars = new char[length];
+            for (int i = 0; i < values.size(); i++) {
+                values.get(i).getChars(0, values.get(i).length(), chars, offsets[i]);
+            }
+        }
+
+        String get(int index) {
+            return new String(chars, offsets[index], offsets[index + 1] - offsets[index]);
+        }
+
+        /**
+         * Compare a stored string with a value, like String.compareTo
+         */
+        int compare(int index, String value) {
+            int start = offsets[index];
+            int length = offsets[index + 1] - start;
+            int common = Math.min(length, value.length());
+            for (int i = 0; i < common; i++) {
+                int difference = chars[start + i] - value.charAt(i);
+                if (difference != 0) {
+                    return difference;
+                }
+            }
+            return length - value.length();
+        }
+
+        /**
+         * Index of the first stored string not less than a value (the list is sorted)
+         */
+        int lowerBound(String value) {
+            int low = 0;
+            int high = offsets.length - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (compare(middle, value) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
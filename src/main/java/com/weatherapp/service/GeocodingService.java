@@ -0,0 +1,107 @@
+package com.weatherapp.service;
+
+import com.weatherapp.client.UpstreamCaller;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * GeocodingService - Cached Access to the OpenWeatherMap Geocoding API
+ *
+ * This service turns a search term (e.g. "Pune", "Pune,IN") into the list of
+ * candidate locations returned by the geocoding "direct" endpoint.
+ *
+ * Key Responsibilities:
+ * - Call the geocoding API for a single search term
+ * - Cache results in the dedicated "geocoding-cache"
+ * - Cache empty results too, so known-bad search terms are not retried
+ *
+ * Why a separate cache:
+ * - City coordinates practically never change, so they can be kept for days
+ * - The weather cache expires after minutes; without this cache every weather
+ *   refresh would also repeat up to three geocoding calls
+ * - The cache has its own TTLs and size bound (see AppConfig.cacheManager)
+ *
+ * Exceptions (timeouts, 5xx, ...) are not cached: they propagate to the caller
+ * and the next request tries the geocoding API again.
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+@Service
+@Slf4j
+public class GeocodingService {
+
+    /**
+     * RestTemplate for making HTTP requests to OpenWeatherMap API
+     * Injected by Spring's dependency injection
+     */
+    @Autowired
+    private RestTemplate restTemplate;
+
+    /**
+     * UpstreamCaller applying adaptive timeouts and hedging to API calls
+     * Injected by Spring's dependency injection
+     */
+    @Autowired
+    private UpstreamCaller upstreamCaller;
+
+    /**
+     * OpenWeatherMap Geocoding API base URL
+     * Injected from application.properties
+     */
+    @Value("${weather.api.geocoding-url}")
+    private String geocodingUrl;
+
+    /**
+     * OpenWeatherMap API key
+     * Injected from application.properties
+     */
+    @Value("${weather.api.key}")
+    private String apiKey;
+
+    /**
+     * Look up candidate locations for a search term
+     *
+     * Results are cached under the normalized search term, so "Pune",
+     * " pune " and "PUNE" share one entry. An empty list means the geocoding
+     * API knows no location for the term; it is cached with a shorter TTL.
+     *
+     * @param searchTerm The search term to send to the geocoding API
+     * @return Candidate locations (never null, empty if nothing was found)
+     */
+    @Cacheable(value = "geocoding-cache", key = "T(com.weatherapp.service.GeocodingService).normalize(#searchTerm)")
+    @SuppressWarnings("unchecked")
+    public List<Map<String, Object>> lookup(String searchTerm) {
+        String url = String.format("%s/direct?q=%s&limit=5&appid=%s", geocodingUrl, searchTerm, apiKey);
+
+        log.debug("Making geocoding API request to: {}", url);
+
+        List<Map<String, Object>> response = upstreamCaller.call("direct", () -> restTemplate.getForObject(url, List.class));
+        if (response == null || response.isEmpty()) {
+            log.info("Geocoding API returned no locations for: {}", searchTerm);
+            return Collections.emptyList();
+        }
+        return response;
+    }
+
+    /**
+     * Normalize a search term for use as a cache key
+     *
+     * Trims, lowercases and collapses runs of whitespace.
+     *
+     * @param searchTerm The raw search term
+     * @return The normalized search term
+     */
+    public static String normalize(String searchTerm) {
+        return searchTerm.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,195 @@
+package com.weatherapp.service;
+
+import com.weatherapp.cache.PopularityTracker;
+import com.weatherapp.client.UpstreamPriority;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * PopularCityRefresher - Scheduled Refresh-Ahead of the Most Requested Cities
+ *
+ * Without this, even the most popular cities regularly hit an expired cache
+ * entry whenever nobody asked for them during the hard TTL window, and the
+ * first request afterwards waits for OpenWeatherMap.
+ *
+ * Every weather.popularity.refresh.interval, this component takes the top-N
+ * cities from the PopularityTracker and refreshes every one whose cached
+ * datasets are stale or missing, so their entries never expire while they
+ * are popular.
+ *
+ * Why a call budget:
+ * - Every refreshed dataset is one upstream call against our API quota
+ * - A round stops once weather.popularity.refresh.budget-per-minute calls
+ *   (scaled to the interval) have been spent; the remaining cities are
+ *   picked up in the next round
+ *
+ * Only cities that were resolved before are refreshed; the refresh never
+ * geocodes names on its own. A round runs on the application task executor,
+ * not on the scheduler thread it shares with the other scheduled tasks, one
+ * city after the other, with BACKGROUND upstream priority. Rounds never
+ * overlap.
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+@Component
+@Slf4j
+public class PopularCityRefresher {
+
+    /**
+     * weather.popularity.refresh.interval in milliseconds
+     */
+    private static final String INTERVAL_MILLIS = "#{T(org.springframework.boot.convert.DurationStyle)"
+            + ".detectAndParse('${weather.popularity.refresh.interval}').toMillis()}";
+
+    @Autowired
+    private PopularityTracker popularityTracker;
+
+    @Autowired
+    private WeatherService weatherService;
+
+    /**
+     * Executor the refresh rounds run on
+     */
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor executor;
+
+    @Value("${weather.popularity.refresh.enabled}")
+    private boolean enabled;
+
+    @Value("${weather.popularity.refresh.top-n}")
+    private int topN;
+
+    @Value("${weather.popularity.refresh.budget-per-minute}")
+    private int budgetPerMinute;
+
+    @Value(INTERVAL_MILLIS)
+    private long intervalMillis;
+
+    /**
+     * Set while a round is queued or running
+     */
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    // Refresh counters since startup
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong citiesRefreshed = new AtomicLong();
+    private final AtomicLong refreshFailures = new AtomicLong();
+    private final AtomicLong upstreamCalls = new AtomicLong();
+    private final AtomicLong skippedOverBudget = new AtomicLong();
+    private volatile int lastRunCalls;
+
+    /**
+     * Refresh the stale entries of the top-N cities within the call budget
+     *
+     * A round that is still running when the next one is due makes the
+     * next one be skipped.
+     */
+    @Scheduled(fixedRateString = INTERVAL_MILLIS, initialDelayString = INTERVAL_MILLIS)
+    public void refreshPopularCities() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    UpstreamPriority.BACKGROUND.run(this::refresh);
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            // Executor is saturated by user requests; try again next round
+            running.set(false);
+            log.debug("Skipped popular city refresh: executor is busy");
+        }
+    }
+
+    /**
+     * Run one refresh round
+     *
+     * @return Number of upstream calls spent
+     */
+    public int refresh() {
+        int roundBudget = roundBudget();
+        int budget = roundBudget;
+        int skipped = 0;
+
+        for (PopularityTracker.Popularity popular : popularityTracker.top(topN)) {
+            int calls = weatherService.countRefreshCalls(popular.city());
+            if (calls == 0) {
+                continue;
+            }
+            if (calls > budget) {
+                skipped++;
+                continue;
+            }
+
+            budget -= calls;
+            if (weatherService.refreshAhead(popular.city())) {
+                citiesRefreshed.incrementAndGet();
+            } else {
+                refreshFailures.incrementAndGet();
+            }
+        }
+
+        int spent = roundBudget - budget;
+        runs.incrementAndGet();
+        upstreamCalls.addAndGet(spent);
+        skippedOverBudget.addAndGet(skipped);
+        lastRunCalls = spent;
+        if (spent > 0 || skipped > 0) {
+            log.info("Refreshed popular cities with {} upstream calls ({} cities over budget)", spent, skipped);
+        }
+        return spent;
+    }
+
+    /**
+     * Upstream calls one round may spend: the per-minute budget scaled to the interval
+     */
+    private int roundBudget() {
+        return (int) Math.max(1, budgetPerMinute * intervalMillis / 60_000);
+    }
+
+    /**
+     * Get the current top-N cities with the refresh counters
+     *
+     * @return The refresh report
+     */
+    public Report getReport() {
+        List<PopularityTracker.Popularity> top = popularityTracker.top(topN);
+        return new Report(top, popularityTracker.getTrackedCount(), popularityTracker.getDroppedCount(),
+                budgetPerMinute, runs.get(), citiesRefreshed.get(), refreshFailures.get(),
+                upstreamCalls.get(), skippedOverBudget.get(), lastRunCalls);
+    }
+
+    /**
+     * Report - Popular cities and refresh counters
+     *
+     * @param top The current top-N cities, most popular first
+     * @param tracked Number of city names being tracked
+     * @param droppedHits Hits not counted because the tracker was full
+     * @param budgetPerMinute Upstream calls the refresh may spend per minute
+     * @param runs Refresh rounds since startup
+     * @param citiesRefreshed Successful city refreshes
+     * @param refreshFailures Failed city refreshes
+     * @param upstreamCalls Upstream calls spent on refreshes
+     * @param skippedOverBudget Stale cities left for a later round because the budget ran out
+     * @param lastRunCalls Upstream calls spent in the last round
+     */
+    public record Report(List<PopularityTracker.Popularity> top, int tracked, long droppedHits,
+                         int budgetPerMinute, long runs, long citiesRefreshed, long refreshFailures,
+                         long upstreamCalls, long skippedOverBudget, int lastRunCalls) {
+    }
+}
@@ -0,0 +1,251 @@
+package com.weatherapp.service;
+
+import com.weatherapp.dto.WeatherData;
+import com.weatherapp.dto.openweathermap.AirPollutionResponse;
+import com.weatherapp.dto.openweathermap.CurrentWeatherResponse;
+import com.weatherapp.dto.openweathermap.ForecastResponse;
+import com.weatherapp.dto.openweathermap.WeatherCondition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * WeatherDataMapper - Maps OpenWeatherMap Responses to WeatherData
+ * 
+ * This component fills our WeatherData DTO from the typed OpenWeatherMap
+ * response models (see the dto.openweathermap package).
+ * 
+ * Why typed responses instead of untyped Maps:
+ * - Jackson streams the JSON straight into small typed objects and skips
+ *   every field we do not map, instead of building nested LinkedHashMaps
+ * - Numbers arrive with their final type, so no instanceof Integer/Long/Double
+ *   chains are needed to read them
+ * - WeatherMappingBenchmark compares forecast parsing with the former
+ *   Map-based parsing (parseForecast, parseForecastMapBaseline)
+ * 
+ * @author Weather App Team
+ * @version 1.0
+ */
+@Component
+public class WeatherDataMapper {
+
+    private static final int SECONDS_PER_DAY = 86_400;
+
+    /**
+     * Temperature units (metric, imperial, kelvin)
+     * Injected from application.properties
+     */
+    @Value("${weather.api.units}")
+    private String units;
+
+    /**
+     * Extract current weather data from API response
+     * 
+     * @param response The current weather API response
+     * @return WeatherData object with current weather information
+     */
+    public WeatherData extractCurrentWeatherData(CurrentWeatherResponse response) {
+        WeatherData weatherData = new WeatherData();
+
+        // Extract basic location information
+        weatherData.setCityName(response.getName());
+
+        CurrentWeatherResponse.Sys sys = response.getSys();
+        if (sys != null) {
+            weatherData.setCountryCode(sys.getCountry());
+            weatherData.setSunrise(sys.getSunrise());
+            weatherData.setSunset(sys.getSunset());
+        }
+
+        // Extract coordinates
+        CurrentWeatherResponse.Coord coord = response.getCoord();
+        if (coord != null) {
+            weatherData.setLatitude(coord.getLat());
+            weatherData.setLongitude(coord.getLon());
+        }
+
+        // Extract main weather data
+        CurrentWeatherResponse.Main main = response.getMain();
+        if (main != null) {
+            weatherData.setTemperature(main.getTemp());
+            weatherData.setFeelsLike(main.getFeelsLike());
+            weatherData.setHumidity(main.getHumidity());
+            weatherData.setPressure(main.getPressure());
+        }
+
+        // Extract wind information
+        CurrentWeatherResponse.Wind wind = response.getWind();
+        if (wind != null) {
+            weatherData.setWindSpeed(wind.getSpeed());
+            weatherData.setWindDirection(wind.getDeg());
+        }
+
+        // Extract weather conditions
+        List<WeatherCondition> conditions = response.getWeather();
+        if (conditions != null && !conditions.isEmpty()) {
+            weatherData.setWeatherCondition(conditions.get(0).getDescription());
+            weatherData.setWeatherIcon(conditions.get(0).getIcon());
+        }
+
+        // Extract additional data
+        weatherData.setVisibility(response.getVisibility());
+        if (response.getClouds() != null) {
+            weatherData.setCloudiness(response.getClouds().getAll());
+        }
+
+        // Set temperature unit
+        weatherData.setTemperatureUnit(
+                units.equals("metric") ? "Celsius" : units.equals("imperial") ? "Fahrenheit" : "Kelvin");
+
+        return weatherData;
+    }
+
+    /**
+     * Extract forecast data from API response
+     * 
+     * The daily forecast is aggregated in the same pass over the entries,
+     * binned by day in the city's time zone (see DailyForecastAggregator).
+     * 
+     * @param response    The forecast API response
+     * @param weatherData The weather data object to populate
+     */
+    public void extractForecastData(ForecastResponse response, WeatherData weatherData) {
+        List<ForecastResponse.Item> list = response.getList();
+        if (list == null)
+            return;
+
+        if (!isChronological(list)) {
+            list = new ArrayList<>(list);
+            list.sort(Comparator.comparingLong(ForecastResponse.Item::getDt));
+        }
+
+        // Without the city's offset, days follow the server's time zone like the hourly times
+        ZoneId zone = ZoneId.systemDefault();
+        Integer offsetSeconds = response.getCity() != null ? response.getCity().getTimezone() : null;
+
+        List<WeatherData.HourlyForecast> hourlyForecast = new ArrayList<>(list.size());
+        DailyForecastAggregator daily = new DailyForecastAggregator(list.size() / 8 + 1);
+
+        for (ForecastResponse.Item item : list) {
+            ForecastResponse.Main main = item.getMain();
+            List<WeatherCondition> conditions = item.getWeather();
+
+            if (main != null && conditions != null && !conditions.isEmpty()) {
+                WeatherData.HourlyForecast hourly = new WeatherData.HourlyForecast();
+                hourly.setTime(LocalDateTime.ofInstant(Instant.ofEpochSecond(item.getDt()), zone));
+                hourly.setTemperature(main.getTemp());
+                hourly.setHumidity(main.getHumidity());
+                hourly.setWeatherCondition(conditions.get(0).getDescription());
+                hourly.setWeatherIcon(conditions.get(0).getIcon());
+
+                if (item.getWind() != null) {
+                    hourly.setWindSpeed(item.getWind().getSpeed());
+                }
+
+                // Extract precipitation data from rain field
+                ForecastResponse.Rain rain = item.getRain();
+                if (rain != null && rain.getThreeHours() != null) {
+                    hourly.setPrecipitation(rain.getThreeHours().intValue());
+                } else {
+                    hourly.setPrecipitation(0);
+                }
+
+                hourlyForecast.add(hourly);
+
+                long epochDay = offsetSeconds != null
+                        ? Math.floorDiv(item.getDt() + offsetSeconds, SECONDS_PER_DAY)
+                        : hourly.getTime().toLocalDate().toEpochDay();
+                add(daily, epochDay, hourly);
+            }
+        }
+
+        weatherData.setHourlyForecast(hourlyForecast);
+        weatherData.setDailyForecast(daily.finish());
+    }
+
+    /**
+     * Generate daily forecast from hourly data
+     * 
+     * Days follow the calendar dates of the hourly times. Unordered input is
+     * sorted by time first.
+     * 
+     * @param hourlyForecast List of hourly forecasts
+     * @return List of daily forecasts
+     */
+    public List<WeatherData.DailyForecast> generateDailyForecast(List<WeatherData.HourlyForecast> hourlyForecast) {
+        List<WeatherData.HourlyForecast> ordered = hourlyForecast;
+        for (int i = 1; i < hourlyForecast.size(); i++) {
+            if (hourlyForecast.get(i).getTime().isBefore(hourlyForecast.get(i - 1).getTime())) {
+                ordered = new ArrayList<>(hourlyForecast);
+                ordered.sort(Comparator.comparing(WeatherData.HourlyForecast::getTime));
+                break;
+            }
+        }
+
+        DailyForecastAggregator daily = new DailyForecastAggregator(ordered.size() / 8 + 1);
+        for (WeatherData.HourlyForecast hourly : ordered) {
+            add(daily, hourly.getTime().toLocalDate().toEpochDay(), hourly);
+        }
+        return daily.finish();
+    }
+
+    private static void add(DailyForecastAggregator daily, long epochDay, WeatherData.HourlyForecast hourly) {
+        daily.add(epochDay, hourly.getTemperature(), hourly.getHumidity(),
+                hourly.getWindSpeed(), hourly.getPrecipitation(), hourly.getWeatherCondition(),
+                hourly.getWeatherIcon());
+    }
+
+    private static boolean isChronological(List<ForecastResponse.Item> list) {
+        for (int i = 1; i < list.size(); i++) {
+            if (list.get(i).getDt() < list.get(i - 1).getDt()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Extract AQI data from API response
+     * 
+     * @param response    The air pollution API response
+     * @param weatherData The weather data object to populate
+     */
+    public void extractAQIData(AirPollutionResponse response, WeatherData weatherData) {
+        List<AirPollutionResponse.Item> list = response.getList();
+        if (list == null || list.isEmpty())
+            return;
+
+        AirPollutionResponse.Main main = list.get(0).getMain();
+        if (main != null && main.getAqi() != null) {
+            int aqi = main.getAqi();
+            weatherData.setAqi(aqi);
+
+            // Determine AQI category and color
+            if (aqi <= 50) {
+                weatherData.setAqiCategory("Good");
+                weatherData.setAqiColor("#00E400");
+            } else if (aqi <= 100) {
+                weatherData.setAqiCategory("Moderate");
+                weatherData.setAqiColor("#FFFF00");
+            } else if (aqi <= 150) {
+                weatherData.setAqiCategory("Unhealthy for Sensitive Groups");
+                weatherData.setAqiColor("#FF7E00");
+            } else if (aqi <= 200) {
+                weatherData.setAqiCategory("Unhealthy");
+                weatherData.setAqiColor("#FF0000");
+            } else if (aqi <= 300) {
+                weatherData.setAqiCategory("Very Unhealthy");
+                weatherData.setAqiColor("#8F3F97");
+            } else {
+                weatherData.setAqiCategory("Hazardous");
+                weatherData.setAqiColor("#7E0023");
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.weatherapp.service;
+
+/**
+ * WeatherDataset - The Independently Cached Parts of a Weather Response
+ *
+ * Each OpenWeatherMap dataset changes at its own pace, so each one has its
+ * own cache (keyed by geohash cell) with its own TTLs and size bound:
+ * - CURRENT: current conditions, updated upstream about every 10 minutes
+ * - FORECAST: the 5-day / 3-hour forecast, updated every few hours
+ * - AQI: air pollution, updated about hourly
+ *
+ * WeatherService assembles the WeatherData shown to users from the three
+ * caches and refetches only the parts that are stale.
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+public enum WeatherDataset {
+
+    /** Current conditions; required for every response */
+    CURRENT("weather-current-cache"),
+
+    /** Hourly and daily forecast; optional */
+    FORECAST("weather-forecast-cache"),
+
+    /** Air quality index; optional */
+    AQI("weather-aqi-cache");
+
+    /**
+     * Name of the cache holding this dataset
+     */
+    private final String cacheName;
+
+    WeatherDataset(String cacheName) {
+        this.cacheName = cacheName;
+    }
+
+    /**
+     * Get the name of the cache holding this dataset
+     *
+     * @return The cache name
+     */
+    public String getCacheName() {
+        return cacheName;
+    }
+}
@@ -1,21 +1,52 @@
 package com.weatherapp.service;
 
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.weatherapp.cache.CompactForecast;
+import com.weatherapp.cache.RequestCoalescer;
+import com.weatherapp.cache.WeatherCachePolicy;
+import com.weatherapp.client.UpstreamCaller;
+import com.weatherapp.client.UpstreamPriority;
+import com.weatherapp.dto.ResolvedLocation;
 import com.weatherapp.dto.WeatherData;
+import com.weatherapp.dto.openweathermap.AirPollutionResponse;
+import com.weatherapp.dto.openweathermap.CurrentWeatherResponse;
+import com.weatherapp.dto.openweathermap.ForecastResponse;
+import com.weatherapp.exception.CityNotFoundException;
+import com.weatherapp.exception.UpstreamQuotaExceededException;
+import com.weatherapp.exception.UpstreamUnavailableException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.client.HttpClientErrorException;
 
-import java.time.Instant;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * WeatherService - Business Logic Layer for Weather Operations
@@ -52,88 +83,1012 @@ public class WeatherService {
     @Autowired
     private RestTemplate restTemplate;
 
+    /**
+     * UpstreamCaller applying adaptive timeouts and hedging to API calls
+     * Injected by Spring's dependency injection
+     */
+    @Autowired
+    private UpstreamCaller upstreamCaller;
+
+    /**
+     * WeatherDataMapper for turning API responses into WeatherData
+     * Injected by Spring's dependency injection
+     */
+    @Autowired
+    private WeatherDataMapper weatherDataMapper;
+
+    /**
+     * GeocodingService for resolving city names (cached separately)
+     * Injected by Spring's dependency injection
+     */
+    @Autowired
+    private GeocodingService geocodingService;
+
+    /**
+     * CityDirectory resolving known cities without the geocoding API
+     * Injected by Spring's dependency injection
+     */
+    @Autowired
+    private CityDirectory cityDirectory;
+
     /**
      * OpenWeatherMap API base URL
      * Injected from application.properties
      */
-    @Value("${weather.api.base-url}")
-    private String apiBaseUrl;
+    @Value("${weather.api.base-url}")
+    private String apiBaseUrl;
+
+    /**
+     * OpenWeatherMap API key
+     * Injected from application.properties
+     */
+    @Value("${weather.api.key}")
+    private String apiKey;
+
+    /**
+     * Temperature units (metric, imperial, kelvin)
+     * Injected from application.properties
+     */
+    @Value("${weather.api.units}")
+    private String units;
+
+    /**
+     * Overall deadline for the concurrent upstream calls of a single request
+     * Injected from application.properties
+     */
+    @Value("${weather.api.request-deadline:15s}")
+    private Duration requestDeadline;
+
+    /**
+     * Size bounds and TTLs of the dataset caches, adjustable at runtime
+     * Injected by Spring's dependency injection
+     */
+    @Autowired
+    private WeatherCachePolicy cachePolicy;
+
+    /**
+     * CacheManager holding the weather caches
+     * Injected by Spring's dependency injection
+     */
+    @Autowired
+    private CacheManager cacheManager;
+
+    /**
+     * Executor for asynchronous cache misses and background refreshes
+     * (sized by spring.task.execution.pool.*)
+     * Injected by Spring's dependency injection
+     */
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor loadExecutor;
+
+    /**
+     * Maximum concurrent upstream operations of a single batch request
+     * Injected from application.properties
+     */
+    @Value("${weather.batch.max-concurrency}")
+    private int batchConcurrency;
+
+    /**
+     * Geohash precision of the cells that key the weather caches
+     * Injected from application.properties
+     */
+    @Value("${weather.cache.geohash-precision}")
+    private int geohashPrecision;
+
+    /**
+     * Coalesces concurrent cache misses for the same city name into one
+     * resolution (geocoding plus weather load)
+     */
+    private final RequestCoalescer<String, WeatherData> coalescer = new RequestCoalescer<>();
+
+    /**
+     * Coalesces concurrent upstream weather loads for the same geohash cell
+     */
+    private final RequestCoalescer<String, WeatherData> cellCoalescer = new RequestCoalescer<>();
+
+    /**
+     * Geohash cells with a background refresh currently scheduled or running
+     */
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Source of cache entry versions; every successful upstream load gets the next one
+     */
+    private final AtomicLong versions = new AtomicLong();
+
+    /**
+     * Number of city names resolved to a cell (alias cache misses)
+     */
+    private final LongAdder aliasMisses = new LongAdder();
+
+    /**
+     * Number of city names resolved by the city directory (gazetteer or
+     * canonical names of cities geocoded earlier) instead of the geocoding API
+     */
+    private final LongAdder directoryHits = new LongAdder();
+
+    /**
+     * Number of newly resolved city names whose cell was already cached
+     */
+    private final LongAdder sharedCellHits = new LongAdder();
+
+    /**
+     * Number of "city not found" results stored in the negative cache
+     */
+    private final LongAdder notFoundCached = new LongAdder();
+
+    /**
+     * Number of requests answered from the negative cache
+     */
+    private final LongAdder notFoundHits = new LongAdder();
+
+    /**
+     * Number of transient errors that were deliberately not cached
+     */
+    private final LongAdder uncachedErrors = new LongAdder();
+
+    /**
+     * Get complete weather data for a city
+     * 
+     * This method fetches current weather, forecast, and AQI data for a given city.
+     * It implements caching to improve performance for repeated requests.
+     * 
+     * Weather data is cached by place, not by spelling:
+     * - "weather-alias-cache" maps each normalized city name ("pune",
+     *   "pune,in", "pune, india") to its ResolvedLocation, whose geohash cell
+     *   (weather.cache.geohash-precision) identifies the place
+     * - Each cell's weather is shared by every alias and by neighbouring
+     *   cities inside the same cell
+     * - Served copies carry the requested city's own name and coordinates
+     * 
+     * Every upstream dataset (see WeatherDataset) has its own cache per cell,
+     * and the response is assembled from them. Each dataset uses a
+     * refresh-ahead (stale-while-revalidate) policy with its own TTLs
+     * (weather.cache.current.*, weather.cache.forecast.*, weather.cache.aqi.*):
+     * - Younger than its soft TTL: served from cache
+     * - Older than the soft TTL: still served from cache immediately, and a
+     *   background refresh fetches only the stale datasets
+     * - Older than its hard TTL: evicted; missing current conditions make the
+     *   next request load them, a missing forecast or AQI is refetched in the
+     *   background and left out of the response meanwhile
+     * 
+     * Entries served from cache are returned as copies with cached=true.
+     * 
+     * Concurrent misses go through RequestCoalescers: when a city is not
+     * cached, only one request resolves it, only one request per cell fetches
+     * it upstream, and all concurrent requests share the result.
+     * 
+     * @param cityName The name of the city to get weather for
+     * @return WeatherData object containing all weather information
+     */
+    public WeatherData getWeatherData(String cityName) {
+        WeatherData cachedData = getCachedWeatherData(cityName);
+        if (cachedData != null) {
+            return cachedData;
+        }
+        return loadAndCache(cityName);
+    }
+
+    /**
+     * Get complete weather data for a city without blocking the caller
+     * 
+     * Cache hits (including cached "city not found" results) are answered
+     * immediately with an already completed future, on the calling thread.
+     * Only misses are handed to the application task executor, so they never
+     * hold up requests that could be served from cache.
+     * 
+     * If the executor is saturated, the returned future fails with a
+     * TaskRejectedException instead of queueing without bound.
+     * 
+     * @param cityName The name of the city to get weather for
+     * @return Future completing with the weather data
+     */
+    public CompletableFuture<WeatherData> getWeatherDataAsync(String cityName) {
+        WeatherData cachedData = getCachedWeatherData(cityName);
+        if (cachedData != null) {
+            return CompletableFuture.completedFuture(cachedData);
+        }
+
+        try {
+            return CompletableFuture.supplyAsync(() -> loadAndCache(cityName), loadExecutor);
+        } catch (TaskRejectedException e) {
+            log.warn("Weather request executor is saturated, rejecting request for city: {}", cityName);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Look up a city in the alias, weather and "city not found" caches
+     * 
+     * Never performs upstream I/O: entries past the soft TTL are returned
+     * as well, and their refresh is scheduled in the background.
+     * 
+     * @param cityName The name of the city to look up
+     * @return A copy of the cached entry with cached=true, or null on a miss
+     */
+    private WeatherData getCachedWeatherData(String cityName) {
+        long startTime = System.currentTimeMillis();
+        String aliasKey = GeocodingService.normalize(cityName);
+
+        ResolvedLocation location = aliasCache().get(aliasKey, ResolvedLocation.class);
+        if (location != null) {
+            WeatherData current = datasetCache(WeatherDataset.CURRENT).get(location.cell(), WeatherData.class);
+            if (current != null) {
+                log.debug("Serving weather data for city '{}' from cache (cell {})", cityName, location.cell());
+                return serveCachedCell(location, current, startTime);
+            }
+        }
+
+        WeatherData notFound = notFoundCache().get(aliasKey, WeatherData.class);
+        if (notFound != null) {
+            notFoundHits.increment();
+            log.debug("Serving cached 'city not found' result for: {}", cityName);
+            return notFound.toBuilder()
+                    .cached(true)
+                    .responseTimeMs(System.currentTimeMillis() - startTime)
+                    .build();
+        }
+
+        return null;
+    }
+
+    /**
+     * Load a city from the upstream APIs and cache the result
+     * 
+     * The city name is resolved to its cell first (geocoding is cached for
+     * days). If another alias or a neighbouring city already loaded that cell,
+     * its data is served without any weather API call.
+     * 
+     * Concurrent calls for the same city share a single load.
+     * 
+     * @param cityName The name of the city to load
+     * @return The loaded weather data
+     */
+    private WeatherData loadAndCache(String cityName) {
+        String aliasKey = GeocodingService.normalize(cityName);
+        return coalescer.execute(aliasKey, () -> {
+            long startTime = System.currentTimeMillis();
+            log.info("Fetching weather data for city: {}", cityName);
+
+            // Validate input
+            if (cityName.isBlank()) {
+                log.warn("Invalid city name provided: {}", cityName);
+                return createErrorWeatherData(WeatherData.ErrorType.INVALID_INPUT, "City name cannot be empty");
+            }
+
+            ResolvedLocation location;
+            try {
+                location = resolveLocation(aliasKey, cityName);
+            } catch (Exception e) {
+                WeatherData errorData = createErrorWeatherData(cityName, e);
+                cacheFailure(aliasKey, errorData);
+                return errorData;
+            }
+
+            return loadForLocation(aliasKey, location, startTime);
+        });
+    }
+
+    /**
+     * Serve a resolved city from its cell, loading the cell if needed
+     * 
+     * @param aliasKey The normalized city name
+     * @param location The resolved location of the city
+     * @param startTime When the request started (for responseTimeMs)
+     * @return The weather data for the city, or error data
+     */
+    private WeatherData loadForLocation(String aliasKey, ResolvedLocation location, long startTime) {
+        WeatherData current = datasetCache(WeatherDataset.CURRENT).get(location.cell(), WeatherData.class);
+        if (current != null) {
+            sharedCellHits.increment();
+            log.debug("City '{}' shares cached cell {}", aliasKey, location.cell());
+            return serveCachedCell(location, current, startTime);
+        }
+
+        WeatherData loaded = loadCell(location);
+        if (!loaded.isValid()) {
+            cacheFailure(aliasKey, loaded);
+            return loaded;
+        }
+        return forLocation(loaded, location, false, startTime);
+    }
+
+    /**
+     * Resolve a city name to its location and geohash cell
+     * 
+     * Cities known to the embedded gazetteer, and canonical names of cities
+     * geocoded earlier (as submitted from city suggestions), are resolved
+     * locally by the CityDirectory; other names are geocoded upstream, and
+     * the result is remembered for suggestions. Resolutions are kept in
+     * "weather-alias-cache", so each spelling is resolved once and afterwards
+     * only costs a cache lookup; the canonical name of the location is cached
+     * along with it.
+     * 
+     * @param aliasKey The normalized city name
+     * @param cityName The city name as requested by the user
+     * @return The resolved location
+     * @throws CityNotFoundException if the geocoding API knows no such city
+     * @throws RuntimeException if the city could not be resolved because of upstream errors
+     */
+    private ResolvedLocation resolveLocation(String aliasKey, String cityName) {
+        ResolvedLocation location = aliasCache().get(aliasKey, ResolvedLocation.class);
+        if (location == null) {
+            location = cityDirectory.resolve(cityName);
+            if (location != null) {
+                directoryHits.increment();
+            } else {
+                location = ResolvedLocation.of(resolveCityCoordinates(cityName), geohashPrecision);
+                cityDirectory.remember(location);
+            }
+            aliasCache().put(aliasKey, location);
+            // Popular cities are tracked, and refreshed ahead, under their canonical name
+            aliasCache().put(GeocodingService.normalize(location.canonicalName()), location);
+            aliasMisses.increment();
+        }
+        return location;
+    }
+
+    /**
+     * Serve a cell whose current conditions are cached
+     * 
+     * Schedules a background refresh when any dataset of the cell is stale
+     * or missing.
+     * 
+     * @param location The requested city's resolved location
+     * @param current The cached current conditions of the cell
+     * @param startTime When the request started (for responseTimeMs)
+     * @return The assembled weather data for the city, with cached=true
+     */
+    private WeatherData serveCachedCell(ResolvedLocation location, WeatherData current, long startTime) {
+        if (!datasetsToLoad(location.cell()).isEmpty()) {
+            scheduleRefresh(location);
+        }
+        return forLocation(assemble(location.cell(), current), location, true, startTime);
+    }
+
+    /**
+     * Load the stale or missing datasets of a cell from the upstream APIs
+     * 
+     * Concurrent loads of the same cell share a single set of upstream calls.
+     * Only datasets that are missing or past their soft TTL are fetched;
+     * each is stored in its own cache under the cell. Failures are returned
+     * as error data and never replace cached weather.
+     * 
+     * @param location The resolved location used to query the cell
+     * @return The assembled weather data of the cell, or error data
+     */
+    private WeatherData loadCell(ResolvedLocation location) {
+        String cell = location.cell();
+        return cellCoalescer.execute(cell, () -> {
+            long startTime = System.currentTimeMillis();
+            try {
+                Set<WeatherDataset> datasets = datasetsToLoad(cell);
+                WeatherData current = fetchDatasets(location, datasets);
+                if (current == null) {
+                    current = datasetCache(WeatherDataset.CURRENT).get(cell, WeatherData.class);
+                }
+                if (current == null) {
+                    throw new IllegalStateException("Current weather is not available for cell " + cell);
+                }
+
+                WeatherData weatherData = assemble(cell, current);
+                weatherData.setCached(false);
+                weatherData.setResponseTimeMs(System.currentTimeMillis() - startTime);
+                lastKnownCache().put(cell, weatherData);
+                log.info("Loaded {} for cell {} ({})", datasets, cell, location.displayName());
+                return weatherData;
+
+            } catch (Exception e) {
+                WeatherData errorData = createErrorWeatherData(location.displayName(), e);
+                return lastKnownOr(cell, errorData, startTime);
+            }
+        });
+    }
+
+    /**
+     * Fall back to the last known weather of a cell after a failed load
+     * 
+     * While the upstream API is unavailable (open circuit, exhausted budget,
+     * timeouts), users get the last weather loaded for the cell, marked as
+     * stale, instead of an error page. "City not found" is never replaced.
+     * 
+     * @param cell The geohash cell
+     * @param errorData The error of the failed load
+     * @param startTime When the load started
+     * @return The last known weather marked as stale, or the error if there is none
+     */
+    private WeatherData lastKnownOr(String cell, WeatherData errorData, long startTime) {
+        if (errorData.getErrorType() == WeatherData.ErrorType.NOT_FOUND) {
+            return errorData;
+        }
+        WeatherData lastKnown = lastKnownCache().get(cell, WeatherData.class);
+        if (lastKnown == null) {
+            return errorData;
+        }
+        log.warn("Serving last known weather from {} for cell {}: {}",
+                lastKnown.getFetchedAt(), cell, errorData.getErrorMessage());
+        return lastKnown.toBuilder()
+                .stale(true)
+                .responseTimeMs(System.currentTimeMillis() - startTime)
+                .build();
+    }
+
+    /**
+     * Find the datasets of a cell that need to be fetched
+     * 
+     * A dataset needs fetching when it is missing or past its soft TTL.
+     * Optional datasets whose last fetch failed are skipped until
+     * weather.cache.dataset-retry-delay has passed, so a failing forecast or
+     * AQI endpoint is not called on every request.
+     * 
+     * @param cell The geohash cell
+     * @return The datasets to fetch (empty if everything is fresh)
+     */
+    private Set<WeatherDataset> datasetsToLoad(String cell) {
+        Set<WeatherDataset> datasets = EnumSet.noneOf(WeatherDataset.class);
+        for (WeatherDataset dataset : WeatherDataset.values()) {
+            WeatherData part = cachedDataset(dataset, cell);
+            if (part != null && !isPastSoftTtl(part, softTtl(dataset))) {
+                continue;
+            }
+            if (dataset == WeatherDataset.CURRENT || retryCache().get(retryKey(cell, dataset)) == null) {
+                datasets.add(dataset);
+            }
+        }
+        return datasets;
+    }
+
+    /**
+     * Assemble the weather data of a cell from its dataset caches
+     * 
+     * The result starts from the current conditions and adds the cached
+     * forecast and AQI sections, if present. fetchedAt is the time of the most
+     * recent dataset fetch. The version is the newest dataset version and the
+     * generation lists all three, so ETag and Last-Modified follow every change.
+     * 
+     * @param cell The geohash cell
+     * @param current The current conditions of the cell
+     * @return A new WeatherData combining all cached datasets
+     */
+    private WeatherData assemble(String cell, WeatherData current) {
+        WeatherData forecast = cachedDataset(WeatherDataset.FORECAST, cell);
+        WeatherData aqi = cachedDataset(WeatherDataset.AQI, cell);
+
+        WeatherData.WeatherDataBuilder assembled = current.toBuilder();
+        LocalDateTime fetchedAt = current.getFetchedAt();
+        Long forecastVersion = null;
+        Long aqiVersion = null;
+
+        if (forecast != null) {
+            assembled.hourlyForecast(forecast.getHourlyForecast())
+                    .dailyForecast(forecast.getDailyForecast());
+            fetchedAt = latest(fetchedAt, forecast.getFetchedAt());
+            forecastVersion = forecast.getVersion();
+        }
+        if (aqi != null) {
+            assembled.aqi(aqi.getAqi())
+                    .aqiCategory(aqi.getAqiCategory())
+                    .aqiColor(aqi.getAqiColor());
+            fetchedAt = latest(fetchedAt, aqi.getFetchedAt());
+            aqiVersion = aqi.getVersion();
+        }
+
+        return assembled
+                .fetchedAt(fetchedAt)
+                .version(newest(current.getVersion(), forecastVersion, aqiVersion))
+                .generation(versionPart(current.getVersion()) + "." + versionPart(forecastVersion)
+                        + "." + versionPart(aqiVersion))
+                .build();
+    }
+
+    /**
+     * The newest of the dataset versions; versions come from one counter, so
+     * it changes whenever any dataset is reloaded
+     */
+    private static Long newest(Long current, Long forecast, Long aqi) {
+        Long newest = current;
+        for (Long version : new Long[] {forecast, aqi}) {
+            if (version != null && (newest == null || version > newest)) {
+                newest = version;
+            }
+        }
+        return newest;
+    }
+
+    private static String versionPart(Long version) {
+        return version == null ? "-" : version.toString();
+    }
+
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+        if (a == null) {
+            return b;
+        }
+        return b != null && b.isAfter(a) ? b : a;
+    }
+
+    /**
+     * Copy cell data for a specific city
+     * 
+     * The cell is shared by aliases and neighbouring cities, so each copy
+     * carries the name and coordinates of the city that was asked for.
+     * 
+     * @param cellData The shared weather data of the cell
+     * @param location The requested city's resolved location
+     * @param cached Whether the data came from the cache
+     * @param startTime When the request started (for responseTimeMs)
+     * @return A copy of the cell data for the city
+     */
+    private WeatherData forLocation(WeatherData cellData, ResolvedLocation location, boolean cached, long startTime) {
+        return cellData.toBuilder()
+                .cityName(location.displayName())
+                .canonicalCityName(location.canonicalName())
+                .countryCode(location.country())
+                .latitude(location.latitude())
+                .longitude(location.longitude())
+                .cached(cached)
+                .responseTimeMs(System.currentTimeMillis() - startTime)
+                .build();
+    }
+
+    /**
+     * Store a freshly fetched dataset in its cache
+     * 
+     * Forecasts are stored as CompactForecast, about a tenth of the heap of
+     * the mapped hourly and daily lists.
+     * 
+     * @param dataset The dataset
+     * @param cell The geohash cell
+     * @param part WeatherData holding only this dataset's fields
+     */
+    private void storeDataset(WeatherDataset dataset, String cell, WeatherData part) {
+        part.setFetchedAt(LocalDateTime.now());
+        part.setVersion(versions.incrementAndGet());
+        datasetCache(dataset).put(cell, dataset == WeatherDataset.FORECAST ? CompactForecast.of(part) : part);
+        retryCache().evict(retryKey(cell, dataset));
+    }
+
+    /**
+     * Read a dataset of a cell from its cache
+     * 
+     * A cached forecast is returned with its lists as views of the compact
+     * entry; nothing is expanded until the lists are rendered.
+     * 
+     * @param dataset The dataset
+     * @param cell The geohash cell
+     * @return WeatherData holding the dataset's fields, or null if not cached
+     */
+    private WeatherData cachedDataset(WeatherDataset dataset, String cell) {
+        Cache.ValueWrapper cached = datasetCache(dataset).get(cell);
+        if (cached == null) {
+            return null;
+        }
+        return cached.get() instanceof CompactForecast forecast ? forecast.toWeatherData() : (WeatherData) cached.get();
+    }
+
+    /**
+     * Remember that an optional dataset could not be fetched
+     * 
+     * The cached copy (if any) keeps being served; the dataset is retried
+     * after weather.cache.dataset-retry-delay.
+     * 
+     * @param dataset The dataset
+     * @param cell The geohash cell
+     */
+    private void deferRetry(WeatherDataset dataset, String cell) {
+        retryCache().put(retryKey(cell, dataset), Boolean.TRUE);
+    }
+
+    private static String retryKey(String cell, WeatherDataset dataset) {
+        return cell + "/" + dataset;
+    }
+
+    /**
+     * Store a failed result according to its cause
+     * 
+     * - "City not found" results go to "weather-not-found-cache", which has a
+     *   short TTL of its own, so typos do not repeat the geocoding chain
+     * - Transient upstream errors are not cached at all, so a single timeout
+     *   does not hide a city until the cache entry expires
+     * 
+     * Successful results are cached by loadCell under their cell.
+     * 
+     * @param aliasKey The normalized city name
+     * @param weatherData The failed result
+     */
+    private void cacheFailure(String aliasKey, WeatherData weatherData) {
+        if (weatherData.getErrorType() == WeatherData.ErrorType.NOT_FOUND) {
+            notFoundCache().put(aliasKey, weatherData);
+            notFoundCached.increment();
+        } else {
+            uncachedErrors.increment();
+        }
+    }
+
+    /**
+     * Get the error caching counters
+     * 
+     * @return How many failures were cached, served from cache or left uncached
+     */
+    public ErrorCachingStats getErrorCachingStats() {
+        return new ErrorCachingStats(notFoundCached.sum(), notFoundHits.sum(), uncachedErrors.sum());
+    }
+
+    /**
+     * Get the alias and cell cache counters
+     * 
+     * @return How many names were resolved, locally or upstream, and how many of them shared a cached cell
+     */
+    public CellCacheStats getCellCacheStats() {
+        return new CellCacheStats(estimatedSize(aliasCache()), estimatedSize(datasetCache(WeatherDataset.CURRENT)),
+                aliasMisses.sum(), directoryHits.sum(), sharedCellHits.sum());
+    }
+
+    private static long estimatedSize(Cache cache) {
+        if (cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeineCache) {
+            return caffeineCache.estimatedSize();
+        }
+        return -1;
+    }
+
+    /**
+     * Check whether a cached entry is old enough to be refreshed
+     * 
+     * @param weatherData The cached weather data
+     * @param softTtl The soft TTL of the entry's dataset
+     * @return true if the entry was fetched longer ago than the soft TTL
+     */
+    private boolean isPastSoftTtl(WeatherData weatherData, Duration softTtl) {
+        return weatherData.getFetchedAt() == null
+                || weatherData.getFetchedAt().isBefore(LocalDateTime.now().minus(softTtl));
+    }
+
+    /**
+     * Get the soft TTL of a dataset
+     * 
+     * @param dataset The dataset
+     * @return Age after which the dataset is refreshed in the background
+     */
+    private Duration softTtl(WeatherDataset dataset) {
+        return cachePolicy.get(dataset).softTtl();
+    }
+
+    /**
+     * Get the current size bound and TTLs of a dataset cache
+     * 
+     * @param dataset The dataset
+     * @return Its settings
+     */
+    public WeatherCachePolicy.Settings getCachePolicy(WeatherDataset dataset) {
+        return cachePolicy.get(dataset);
+    }
+
+    /**
+     * Change the size bound and TTLs of a dataset cache at runtime
+     * 
+     * A smaller maximum weight evicts entries right away. New TTLs apply to
+     * the entries already cached as well: their hard expiry is recomputed
+     * from their fetchedAt, so shortening the hard TTL evicts entries that
+     * are older than it.
+     * 
+     * @param dataset The dataset
+     * @param settings The new settings
+     * @return Statistics of the cache with the new settings
+     */
+    public CachePolicyStats updateCachePolicy(WeatherDataset dataset, WeatherCachePolicy.Settings settings) {
+        cachePolicy.set(dataset, settings);
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> cache = nativeCache(datasetCache(dataset));
+        cache.policy().eviction().ifPresent(eviction -> eviction.setMaximum(settings.maxWeightBytes()));
+        cache.policy().expireVariably().ifPresent(expiration -> {
+            LocalDateTime now = LocalDateTime.now();
+            cache.asMap().forEach((key, value) -> {
+                LocalDateTime fetchedAt = value instanceof CompactForecast forecast
+                        ? forecast.getFetchedAt() : ((WeatherData) value).getFetchedAt();
+                if (fetchedAt != null) {
+                    Duration remaining = settings.hardTtl().minus(Duration.between(fetchedAt, now));
+                    expiration.setExpiresAfter(key, remaining.isNegative() ? Duration.ZERO : remaining);
+                }
+            });
+        });
+        cache.cleanUp();
+        log.info("Cache policy of {} changed to {}", dataset.getCacheName(), settings);
+        return getCachePolicyStats().get(dataset);
+    }
+
+    /**
+     * Get the policy and live statistics of every dataset cache
+     * 
+     * @return Settings, weight, hit ratio and evictions by cause per dataset
+     */
+    public Map<WeatherDataset, CachePolicyStats> getCachePolicyStats() {
+        Map<WeatherDataset, CachePolicyStats> stats = new LinkedHashMap<>();
+        for (WeatherDataset dataset : WeatherDataset.values()) {
+            WeatherCachePolicy.Settings settings = cachePolicy.get(dataset);
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> cache = nativeCache(datasetCache(dataset));
+            com.github.benmanes.caffeine.cache.stats.CacheStats cacheStats = cache.stats();
+            long weightBytes = cache.policy().eviction()
+                    .map(eviction -> eviction.weightedSize().orElse(-1))
+                    .orElse(-1L);
+            stats.put(dataset, new CachePolicyStats(dataset.getCacheName(), settings.maxWeightBytes(), weightBytes,
+                    cache.estimatedSize(), settings.softTtl().toSeconds(), settings.hardTtl().toSeconds(),
+                    cacheStats.hitRate(), cacheStats.hitCount(), cacheStats.missCount(),
+                    cachePolicy.evictions(dataset)));
+        }
+        return stats;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache(Cache cache) {
+        return (com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache.getNativeCache();
+    }
+
+    /**
+     * Refresh the stale datasets of a cached cell in the background
+     * 
+     * At most one refresh per cell is scheduled at a time. A dataset is only
+     * replaced when its fetch succeeds, so a transient upstream failure keeps
+     * serving the previous data until the hard TTL.
+     * 
+     * Refreshes spend the upstream budget with BACKGROUND priority, so they
+     * never wait for it: when the budget is tight they fail fast and the
+     * stale entry keeps being served.
+     * 
+     * @param location The resolved location used to query the cell
+     */
+    private void scheduleRefresh(ResolvedLocation location) {
+        String cell = location.cell();
+        if (!refreshing.add(cell)) {
+            return;
+        }
+
+        try {
+            loadExecutor.execute(() -> UpstreamPriority.BACKGROUND.run(() -> {
+                try {
+                    WeatherData refreshed = loadCell(location);
+                    if (refreshed.isValid() && !refreshed.isStale()) {
+                        log.debug("Refreshed cached weather data for cell: {}", cell);
+                    }
+                } finally {
+                    refreshing.remove(cell);
+                }
+            }));
+        } catch (TaskRejectedException e) {
+            // Executor is saturated; a later request will schedule the refresh again
+            refreshing.remove(cell);
+            log.debug("Skipped background refresh for cell '{}': executor is busy", cell);
+        }
+    }
 
     /**
-     * OpenWeatherMap API key
-     * Injected from application.properties
+     * Count the upstream calls a refresh-ahead of a city would need
+     *
+     * Used by PopularCityRefresher to stay within its upstream call budget.
+     * Only cities that were resolved before (present in the alias index) can
+     * be refreshed ahead; unknown names never trigger geocoding here.
+     *
+     * @param cityName The city name
+     * @return Number of stale or missing datasets, 0 if fresh or not resolved yet
      */
-    @Value("${weather.api.key}")
-    private String apiKey;
+    public int countRefreshCalls(String cityName) {
+        ResolvedLocation location = aliasCache().get(GeocodingService.normalize(cityName), ResolvedLocation.class);
+        return location == null ? 0 : datasetsToLoad(location.cell()).size();
+    }
 
     /**
-     * Temperature units (metric, imperial, kelvin)
-     * Injected from application.properties
+     * Refresh the stale datasets of a city's cell before they expire
+     *
+     * Runs on the caller's thread and shares running loads of the same cell.
+     *
+     * @param cityName The city name
+     * @return true if the cell was refreshed successfully
      */
-    @Value("${weather.api.units}")
-    private String units;
+    public boolean refreshAhead(String cityName) {
+        ResolvedLocation location = aliasCache().get(GeocodingService.normalize(cityName), ResolvedLocation.class);
+        if (location == null) {
+            return false;
+        }
+        WeatherData refreshed = loadCell(location);
+        return refreshed.isValid() && !refreshed.isStale();
+    }
 
     /**
-     * Get complete weather data for a city
+     * Get the cache of a weather dataset from the cache manager
      * 
-     * This method fetches current weather, forecast, and AQI data for a given city.
-     * It implements caching to improve performance for repeated requests.
+     * @param dataset The dataset
+     * @return The dataset's cache, keyed by geohash cell
+     */
+    private Cache datasetCache(WeatherDataset dataset) {
+        return cacheManager.getCache(dataset.getCacheName());
+    }
+
+    /**
+     * Get the cache of deferred dataset retries from the cache manager
      * 
-     * The @Cacheable annotation enables caching for this method.
-     * Results are cached based on the city name for 30 minutes.
+     * @return The "weather-retry-cache" cache, keyed by cell and dataset
+     */
+    private Cache retryCache() {
+        return cacheManager.getCache("weather-retry-cache");
+    }
+
+    /**
+     * Get the last known weather per cell from the cache manager
      * 
-     * @param cityName The name of the city to get weather for
-     * @return WeatherData object containing all weather information
+     * @return The "weather-last-known-cache" cache, keyed by geohash cell
      */
-    @Cacheable(value = "weather-cache", key = "#cityName.toLowerCase()")
-    public WeatherData getWeatherData(String cityName) {
-        long startTime = System.currentTimeMillis();
-        log.info("Fetching weather data for city: {}", cityName);
+    private Cache lastKnownCache() {
+        return cacheManager.getCache("weather-last-known-cache");
+    }
 
-        try {
-            // Validate input
-            if (cityName == null || cityName.trim().isEmpty()) {
-                log.warn("Invalid city name provided: {}", cityName);
-                return createErrorWeatherData("City name cannot be empty");
-            }
+    /**
+     * Get the alias index from the cache manager
+     * 
+     * @return The "weather-alias-cache" cache, mapping normalized city names to locations
+     */
+    private Cache aliasCache() {
+        return cacheManager.getCache("weather-alias-cache");
+    }
+
+    /**
+     * Get the negative cache for unknown cities from the cache manager
+     * 
+     * @return The "weather-not-found-cache" cache
+     */
+    private Cache notFoundCache() {
+        return cacheManager.getCache("weather-not-found-cache");
+    }
+
+    /**
+     * Get the request coalescing counters for upstream weather loads
+     * 
+     * @return How many cell loads ran and how many calls joined a running load
+     */
+    public RequestCoalescer.Stats getCoalescingStats() {
+        return cellCoalescer.getStats();
+    }
+
+    /**
+     * Get weather data for many cities at once
+     * 
+     * Used by dashboards that show many cities together. The batch is
+     * processed so that each distinct place costs at most one upstream load:
+     * 1. Names with the same normalized spelling ("Pune", "pune") are merged
+     * 2. Cache hits are answered immediately
+     * 3. The remaining names are resolved to cells (geocoding is cached for days)
+     * 4. Names that resolve to the same cell ("Pune", "Pune,IN") are merged
+     *    again; each cell is served from the cache or fetched once
+     * 
+     * Resolving and fetching run on virtual threads, with at most
+     * weather.batch.max-concurrency upstream operations at a time.
+     * 
+     * Failures are reported per city as error WeatherData; one failing city
+     * never fails the batch.
+     * 
+     * @param cityNames The requested city names (duplicates allowed)
+     * @return Weather data per distinct requested name, in request order
+     */
+    public Map<String, WeatherData> getWeatherDataBatch(List<String> cityNames) {
+        long startTime = System.currentTimeMillis();
 
-            // Fetch current weather data
-            WeatherData weatherData = fetchCurrentWeather(cityName);
+        // One query per alias, keeping the first spelling
+        Map<String, String> queriesByKey = new LinkedHashMap<>();
+        for (String cityName : cityNames) {
+            queriesByKey.putIfAbsent(GeocodingService.normalize(cityName), cityName);
+        }
 
-            // Fetch forecast data
-            fetchForecastData(weatherData);
+        Map<String, WeatherData> resultsByKey = new ConcurrentHashMap<>();
+        List<String> missingKeys = new ArrayList<>();
+        queriesByKey.forEach((aliasKey, cityName) -> {
+            WeatherData cachedData = getCachedWeatherData(cityName);
+            if (cachedData != null) {
+                resultsByKey.put(aliasKey, cachedData);
+            } else {
+                missingKeys.add(aliasKey);
+            }
+        });
+
+        if (!missingKeys.isEmpty()) {
+            Semaphore permits = new Semaphore(batchConcurrency);
+            try (ExecutorService scope = Executors.newVirtualThreadPerTaskExecutor()) {
+                // Resolve all missing cities concurrently
+                Map<String, Future<ResolvedLocation>> resolutions = new LinkedHashMap<>();
+                for (String aliasKey : missingKeys) {
+                    String cityName = queriesByKey.get(aliasKey);
+                    resolutions.put(aliasKey, scope.submit(() -> withPermit(permits,
+                            () -> UpstreamPriority.BATCH.call(() -> resolveLocation(aliasKey, cityName)))));
+                }
 
-            // Fetch AQI data
-            fetchAQIData(weatherData);
+                // Group the resolved cities by cell
+                Map<String, Map<String, ResolvedLocation>> locationsByCell = new LinkedHashMap<>();
+                for (Map.Entry<String, Future<ResolvedLocation>> entry : resolutions.entrySet()) {
+                    String aliasKey = entry.getKey();
+                    try {
+                        ResolvedLocation location = entry.getValue().get();
+                        locationsByCell.computeIfAbsent(location.cell(), c -> new LinkedHashMap<>()).put(aliasKey, location);
+                    } catch (ExecutionException e) {
+                        Exception cause = e.getCause() instanceof Exception ex ? ex : e;
+                        WeatherData errorData = createErrorWeatherData(queriesByKey.get(aliasKey), cause);
+                        cacheFailure(aliasKey, errorData);
+                        resultsByKey.put(aliasKey, errorData);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
 
-            // Set metadata
-            weatherData.setFetchedAt(LocalDateTime.now());
-            weatherData.setCached(false);
-            weatherData.setResponseTimeMs(System.currentTimeMillis() - startTime);
+                // Serve or fetch every distinct cell once
+                Map<String, Future<?>> loads = new LinkedHashMap<>();
+                for (Map.Entry<String, Map<String, ResolvedLocation>> cell : locationsByCell.entrySet()) {
+                    Map<String, ResolvedLocation> locations = cell.getValue();
+                    loads.put(cell.getKey(), scope.submit(() -> withPermit(permits, () -> {
+                        UpstreamPriority.BATCH.run(() -> locations.forEach((aliasKey, location) ->
+                                resultsByKey.put(aliasKey, loadForLocation(aliasKey, location, startTime))));
+                        return null;
+                    })));
+                }
 
-            log.info("Successfully fetched weather data for city: {}", cityName);
-            return weatherData;
+                // Report a failed load for every city of its cell that has no result yet
+                for (Map.Entry<String, Future<?>> load : loads.entrySet()) {
+                    try {
+                        load.getValue().get();
+                    } catch (ExecutionException e) {
+                        Exception cause = e.getCause() instanceof Exception ex ? ex : e;
+                        locationsByCell.get(load.getKey()).keySet().forEach(aliasKey -> resultsByKey.computeIfAbsent(
+                                aliasKey, k -> createErrorWeatherData(queriesByKey.get(aliasKey), cause)));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+        }
 
-        } catch (HttpClientErrorException.NotFound e) {
-            log.error("City not found: {}", cityName);
-            return createErrorWeatherData("City not found: " + cityName);
+        // Report results in request order; cities are only left without a result by an interrupt
+        Map<String, WeatherData> results = new LinkedHashMap<>();
+        queriesByKey.forEach((aliasKey, cityName) -> {
+            WeatherData weatherData = resultsByKey.get(aliasKey);
+            results.put(cityName, weatherData != null ? weatherData
+                    : createErrorWeatherData(WeatherData.ErrorType.UPSTREAM_ERROR, "Request was interrupted"));
+        });
+        return results;
+    }
 
-        } catch (Exception e) {
-            log.error("Error fetching weather data for city: {}", cityName, e);
-            return createErrorWeatherData("Error fetching weather data: " + e.getMessage());
+    /**
+     * Run a task while holding a permit
+     * 
+     * @param permits The semaphore bounding concurrent upstream operations
+     * @param task The task to run
+     * @return The task's result
+     * @throws Exception The task's failure
+     */
+    private static <T> T withPermit(Semaphore permits, Callable<T> task) throws Exception {
+        permits.acquire();
+        try {
+            return task.call();
+        } finally {
+            permits.release();
         }
     }
 
     /**
      * Resolve city name to coordinates using OpenWeatherMap Geocoding API
      * 
+     * Only used for names the city directory (see CityDirectory) does not know.
+     * 
      * This method first calls the geocoding API to get precise coordinates
      * for the city, which helps resolve cities with multiple locations or
      * different spellings. It includes logic to find the most accurate match.
      * 
+     * Geocoding results (including empty ones) are cached by GeocodingService
+     * for days, so a weather cache expiry does not repeat these calls.
+     * 
+     * A city is only reported as not found when the geocoding API actually
+     * answered every variation without a match. If any variation failed with
+     * an error (timeout, 5xx, ...), the failure is rethrown as transient.
+     * 
      * @param cityName The city name to resolve
      * @return Map containing lat and lon coordinates
-     * @throws RuntimeException if city cannot be resolved
+     * @throws CityNotFoundException if the geocoding API knows no such city
+     * @throws RuntimeException if the city could not be resolved because of upstream errors
      */
     private Map<String, Object> resolveCityCoordinates(String cityName) {
         // Try different variations to get the most accurate result
@@ -142,17 +1097,14 @@ public class WeatherService {
             cityName + ",IN",  // With country code
             cityName + ", India"  // With full country name
         };
+        Exception lastFailure = null;
         
         for (String searchTerm : searchVariations) {
-            String geocodingUrl = String.format("http://api.openweathermap.org/geo/1.0/direct?q=%s&limit=5&appid=%s",
-                    searchTerm, apiKey);
-
-            log.debug("Making geocoding API request to: {}", geocodingUrl);
-
             try {
-                List<Map<String, Object>> response = restTemplate.getForObject(geocodingUrl, List.class);
+                // Served from the long-lived geocoding cache whenever possible
+                List<Map<String, Object>> response = geocodingService.lookup(searchTerm);
                 
-                if (response != null && !response.isEmpty()) {
+                if (!response.isEmpty()) {
                     // Find the best match based on state accuracy
                     Map<String, Object> bestMatch = findBestLocationMatch(response, cityName);
                     
@@ -163,21 +1115,23 @@ public class WeatherService {
                         return bestMatch;
                     }
                 }
+            } catch (UpstreamQuotaExceededException | UpstreamUnavailableException e) {
+                // Other variations would only be rejected as well
+                throw e;
             } catch (Exception e) {
                 log.warn("Failed to resolve coordinates for search term: {}", searchTerm, e);
+                lastFailure = e;
                 // Continue to next variation
             }
         }
         
-        // If all variations failed, try hardcoded coordinates for known cities
-        Map<String, Object> hardcodedLocation = getHardcodedLocation(cityName);
-        if (hardcodedLocation != null) {
-            log.info("Using hardcoded coordinates for city: {}", cityName);
-            return hardcodedLocation;
+        // If a variation failed with an error, the city may still exist
+        if (lastFailure != null) {
+            throw new RuntimeException("Geocoding failed for city: " + cityName, lastFailure);
         }
         
-        // If all variations failed, throw exception
-        throw new RuntimeException("City not found: " + cityName);
+        // Every variation was answered and none matched
+        throw new CityNotFoundException(cityName);
     }
     
     /**
@@ -186,8 +1140,9 @@ public class WeatherService {
      * @param locations List of location results from geocoding API
      * @param originalCityName The original city name being searched
      * @return The best matching location or null if no good match found
+     *         (package-private for the benchmarks in src/jmh)
      */
-    private Map<String, Object> findBestLocationMatch(List<Map<String, Object>> locations, String originalCityName) {
+    static Map<String, Object> findBestLocationMatch(List<Map<String, Object>> locations, String originalCityName) {
         String lowerOriginalCity = originalCityName.toLowerCase();
         
         // Special handling for known cities with multiple locations
@@ -241,469 +1196,313 @@ public class WeatherService {
     }
     
     /**
-     * Get hardcoded coordinates for cities that the geocoding API might not resolve correctly
+     * Fetch weather datasets concurrently and store them in their caches
      * 
-     * @param cityName The city name to look up
-     * @return Map with hardcoded coordinates or null if not found
+     * The OpenWeatherMap calls only depend on the resolved coordinates, so
+     * the requested datasets are fetched together on virtual threads. The
+     * executor is scoped to this method (try-with-resources), which means no
+     * upstream call can outlive the request that started it.
+     * 
+     * All calls share a single deadline (weather.api.request-deadline):
+     * - Current weather is required; a failure or timeout fails the request
+     * - Forecast and AQI are optional; a failure, timeout or response that
+     *   cannot be mapped keeps the cached copy (if any) and defers the next
+     *   attempt
+     * 
+     * This turns the latency of a cache miss from the sum of three upstream
+     * round trips into roughly the slowest one.
+     * 
+     * @param location The resolved location of the city
+     * @param datasets The datasets to fetch
+     * @return The fetched current conditions, or null if CURRENT was not requested
      */
-    private Map<String, Object> getHardcodedLocation(String cityName) {
-        String lowerCityName = cityName.toLowerCase();
-        
-        // Hardcoded coordinates for cities that might be misresolved
-        if (lowerCityName.contains("nanded")) {
-            Map<String, Object> nandedLocation = new java.util.HashMap<>();
-            nandedLocation.put("name", "Nanded");
-            nandedLocation.put("lat", 19.1539);
-            nandedLocation.put("lon", 77.3021);
-            nandedLocation.put("country", "IN");
-            nandedLocation.put("state", "Maharashtra");
-            return nandedLocation;
+    private WeatherData fetchDatasets(ResolvedLocation location, Set<WeatherDataset> datasets) throws Exception {
+        double lat = location.latitude();
+        double lon = location.longitude();
+        String cell = location.cell();
+        long deadlineNanos = System.nanoTime() + requestDeadline.toNanos();
+        // The fetch threads spend the upstream budget with the caller's priority
+        UpstreamPriority priority = UpstreamPriority.current();
+
+        try (ExecutorService scope = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<WeatherData> current = datasets.contains(WeatherDataset.CURRENT)
+                    ? scope.submit(() -> priority.call(() -> fetchCurrentWeather(location, lat, lon))) : null;
+            // Optional datasets are mapped on their fetch thread, so a response that
+            // fails to map is handled like a failed call
+            Future<WeatherData> forecast = datasets.contains(WeatherDataset.FORECAST)
+                    ? scope.submit(() -> priority.call(() -> forecastPart(fetchForecastData(lat, lon)))) : null;
+            Future<WeatherData> aqi = datasets.contains(WeatherDataset.AQI)
+                    ? scope.submit(() -> priority.call(() -> aqiPart(fetchAQIData(lat, lon)))) : null;
+
+            try {
+                WeatherData currentData = null;
+                if (current != null) {
+                    currentData = awaitRequired(current, deadlineNanos);
+                    storeDataset(WeatherDataset.CURRENT, cell, currentData);
+                }
+
+                if (forecast != null) {
+                    WeatherData part = awaitOptional(forecast, deadlineNanos, "forecast");
+                    if (part != null) {
+                        storeDataset(WeatherDataset.FORECAST, cell, part);
+                    } else {
+                        deferRetry(WeatherDataset.FORECAST, cell);
+                    }
+                }
+
+                if (aqi != null) {
+                    WeatherData part = awaitOptional(aqi, deadlineNanos, "AQI");
+                    if (part != null) {
+                        storeDataset(WeatherDataset.AQI, cell, part);
+                    } else {
+                        deferRetry(WeatherDataset.AQI, cell);
+                    }
+                }
+
+                return currentData;
+            } finally {
+                // Interrupt anything still running so closing the scope never waits
+                // past the deadline (no-op for tasks that already completed)
+                cancel(current);
+                cancel(forecast);
+                cancel(aqi);
+            }
         }
-        
-        return null;
     }
 
     /**
-     * Fetch current weather data from OpenWeatherMap API using coordinates
+     * Map a forecast response to the forecast fields of WeatherData
      * 
-     * This method uses the geocoding API first to resolve city names to
-     * coordinates, then fetches weather data using those coordinates.
-     * This approach is more reliable for cities with multiple locations
-     * or different spellings.
-     * 
-     * @param cityName The city name
-     * @return WeatherData with current weather information
+     * @param response The forecast API response (may be null)
+     * @return WeatherData holding only the forecast, or null without a response
      */
-    private WeatherData fetchCurrentWeather(String cityName) {
-        // First resolve city to coordinates
-        Map<String, Object> coordinates = resolveCityCoordinates(cityName);
-        
-        Double lat = (Double) coordinates.get("lat");
-        Double lon = (Double) coordinates.get("lon");
-        String resolvedCityName = (String) coordinates.get("name");
-        String country = (String) coordinates.get("country");
-        String state = (String) coordinates.get("state");
-
-        // Use coordinates for weather API call
-        String url = String.format("%s/weather?lat=%s&lon=%s&appid=%s&units=%s",
-                apiBaseUrl, lat, lon, apiKey, units);
-
-        log.debug("Making current weather API request to: {}", url);
-
-        Map<String, Object> response = restTemplate.getForObject(url, Map.class);
+    private WeatherData forecastPart(ForecastResponse response) {
         if (response == null) {
-            throw new RuntimeException("No response received from API");
+            return null;
         }
+        WeatherData part = new WeatherData();
+        weatherDataMapper.extractForecastData(response, part);
+        return part;
+    }
 
-        WeatherData weatherData = extractCurrentWeatherData(response);
-        
-        // Update with resolved city information
-        weatherData.setCityName(resolvedCityName);
-        weatherData.setCountryCode(country);
-        weatherData.setLatitude(lat);
-        weatherData.setLongitude(lon);
-        
-        // Add state information if available
-        if (state != null && !state.isEmpty()) {
-            weatherData.setCityName(resolvedCityName + ", " + state);
+    /**
+     * Map an air pollution response to the AQI fields of WeatherData
+     * 
+     * @param response The air pollution API response (may be null)
+     * @return WeatherData holding only the AQI, or null without a response
+     */
+    private WeatherData aqiPart(AirPollutionResponse response) {
+        if (response == null) {
+            return null;
         }
+        WeatherData part = new WeatherData();
+        weatherDataMapper.extractAQIData(response, part);
+        return part;
+    }
 
-        return weatherData;
+    private static void cancel(Future<?> future) {
+        if (future != null) {
+            future.cancel(true);
+        }
     }
 
     /**
-     * Fetch forecast data from OpenWeatherMap API using coordinates
+     * Wait for a required upstream call within the request deadline
      * 
-     * @param weatherData The weather data object to populate
+     * The original exception is rethrown unchanged so that callers can still
+     * react to specific failures such as HttpClientErrorException.NotFound.
+     * 
+     * @param future The running upstream call
+     * @param deadlineNanos The request deadline as a System.nanoTime() value
+     * @return The result of the call
+     * @throws Exception The failure of the call, or a TimeoutException
      */
-    private void fetchForecastData(WeatherData weatherData) {
+    private <T> T awaitRequired(Future<T> future, long deadlineNanos) throws Exception {
         try {
-            // Use coordinates for forecast API call for better accuracy
-            String url = String.format("%s/forecast?lat=%s&lon=%s&appid=%s&units=%s",
-                    apiBaseUrl, weatherData.getLatitude(), weatherData.getLongitude(), apiKey, units);
-
-            log.debug("Making forecast API request to: {}", url);
-
-            Map<String, Object> response = restTemplate.getForObject(url, Map.class);
-            if (response != null) {
-                extractForecastData(response, weatherData);
+            return future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
             }
-        } catch (Exception e) {
-            log.warn("Failed to fetch forecast data: {}", e.getMessage());
-            // Don't fail the entire request if forecast fails
+            throw e;
+        } catch (TimeoutException e) {
+            throw new TimeoutException("Weather API did not respond within " + requestDeadline.toMillis() + " ms");
         }
     }
 
     /**
-     * Fetch Air Quality Index data from OpenWeatherMap API
+     * Wait for an optional upstream call within the request deadline
      * 
-     * @param weatherData The weather data object to populate
+     * Failures and timeouts are logged and reported as null so that a missing
+     * forecast or AQI section never fails the entire request.
+     * 
+     * @param future The running upstream call
+     * @param deadlineNanos The request deadline as a System.nanoTime() value
+     * @param dataset Name of the dataset, used for logging
+     * @return The result of the call, or null if it failed or timed out
      */
-    private void fetchAQIData(WeatherData weatherData) {
+    private <T> T awaitOptional(Future<T> future, long deadlineNanos, String dataset) {
         try {
-            String url = String.format("%s/air_pollution?lat=%s&lon=%s&appid=%s",
-                    apiBaseUrl, weatherData.getLatitude(),
-                    weatherData.getLongitude(), apiKey);
-
-            log.debug("Making AQI API request to: {}", url);
-
-            Map<String, Object> response = restTemplate.getForObject(url, Map.class);
-            if (response != null) {
-                extractAQIData(response, weatherData);
-            }
-        } catch (Exception e) {
-            log.warn("Failed to fetch AQI data: {}", e.getMessage());
-            // Don't fail the entire request if AQI fails
+            return future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            log.warn("Failed to fetch {} data: {}", dataset, e.getCause().toString());
+        } catch (TimeoutException e) {
+            log.warn("Timed out fetching {} data after {} ms", dataset, requestDeadline.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while fetching {} data", dataset);
         }
+        return null;
     }
 
     /**
-     * Extract current weather data from API response
+     * Fetch current weather data from OpenWeatherMap API using coordinates
      * 
-     * @param response The API response as a Map
-     * @return WeatherData object with current weather information
+     * The coordinates come from the gazetteer or the geocoding API (see resolveLocation),
+     * which is more reliable for cities with multiple locations or different
+     * spellings than querying the weather API by name.
+     * 
+     * @param location The resolved location of the city
+     * @param lat Latitude of the location
+     * @param lon Longitude of the location
+     * @return WeatherData with current weather information
      */
-    @SuppressWarnings("unchecked")
-    private WeatherData extractCurrentWeatherData(Map<String, Object> response) {
-        WeatherData weatherData = new WeatherData();
-
-        // Extract basic location information
-        weatherData.setCityName((String) response.get("name"));
-
-        Map<String, Object> sys = (Map<String, Object>) response.get("sys");
-        if (sys != null) {
-            weatherData.setCountryCode((String) sys.get("country"));
-
-            // Handle sunrise/sunset timestamps
-            Object sunriseObj = sys.get("sunrise");
-            Object sunsetObj = sys.get("sunset");
-
-            if (sunriseObj instanceof Integer) {
-                weatherData.setSunrise(((Integer) sunriseObj).longValue());
-            } else if (sunriseObj instanceof Long) {
-                weatherData.setSunrise((Long) sunriseObj);
-            }
-
-            if (sunsetObj instanceof Integer) {
-                weatherData.setSunset(((Integer) sunsetObj).longValue());
-            } else if (sunsetObj instanceof Long) {
-                weatherData.setSunset((Long) sunsetObj);
-            }
-        }
+    private WeatherData fetchCurrentWeather(ResolvedLocation location, double lat, double lon) {
 
-        // Extract coordinates
-        Map<String, Object> coord = (Map<String, Object>) response.get("coord");
-        if (coord != null) {
-            Object latObj = coord.get("lat");
-            Object lonObj = coord.get("lon");
-
-            if (latObj instanceof Integer) {
-                weatherData.setLatitude(((Integer) latObj).doubleValue());
-            } else if (latObj instanceof Double) {
-                weatherData.setLatitude((Double) latObj);
-            }
-
-            if (lonObj instanceof Integer) {
-                weatherData.setLongitude(((Integer) lonObj).doubleValue());
-            } else if (lonObj instanceof Double) {
-                weatherData.setLongitude((Double) lonObj);
-            }
-        }
-
-        // Extract main weather data
-        Map<String, Object> main = (Map<String, Object>) response.get("main");
-        if (main != null) {
-            Object tempObj = main.get("temp");
-            Object feelsLikeObj = main.get("feels_like");
-            Object humidityObj = main.get("humidity");
-            Object pressureObj = main.get("pressure");
-
-            if (tempObj instanceof Integer) {
-                weatherData.setTemperature(((Integer) tempObj).doubleValue());
-            } else if (tempObj instanceof Double) {
-                weatherData.setTemperature((Double) tempObj);
-            }
-
-            if (feelsLikeObj instanceof Integer) {
-                weatherData.setFeelsLike(((Integer) feelsLikeObj).doubleValue());
-            } else if (feelsLikeObj instanceof Double) {
-                weatherData.setFeelsLike((Double) feelsLikeObj);
-            }
-
-            if (humidityObj instanceof Integer) {
-                weatherData.setHumidity((Integer) humidityObj);
-            } else if (humidityObj instanceof Long) {
-                weatherData.setHumidity(((Long) humidityObj).intValue());
-            }
-
-            if (pressureObj instanceof Integer) {
-                weatherData.setPressure((Integer) pressureObj);
-            } else if (pressureObj instanceof Long) {
-                weatherData.setPressure(((Long) pressureObj).intValue());
-            }
-        }
-
-        // Extract wind information
-        Map<String, Object> wind = (Map<String, Object>) response.get("wind");
-        if (wind != null) {
-            Object speedObj = wind.get("speed");
-            Object degObj = wind.get("deg");
-
-            if (speedObj instanceof Integer) {
-                weatherData.setWindSpeed(((Integer) speedObj).doubleValue());
-            } else if (speedObj instanceof Double) {
-                weatherData.setWindSpeed((Double) speedObj);
-            }
-
-            if (degObj instanceof Integer) {
-                weatherData.setWindDirection((Integer) degObj);
-            } else if (degObj instanceof Long) {
-                weatherData.setWindDirection(((Long) degObj).intValue());
-            }
-        }
-
-        // Extract weather conditions
-        if (response.get("weather") instanceof List) {
-            List<Map<String, Object>> weatherList = (List<Map<String, Object>>) response.get("weather");
-            if (!weatherList.isEmpty()) {
-                Map<String, Object> weather = weatherList.get(0);
-                weatherData.setWeatherCondition((String) weather.get("description"));
-                weatherData.setWeatherIcon((String) weather.get("icon"));
-            }
-        }
+        // Use coordinates for weather API call
+        String url = String.format("%s/weather?lat=%s&lon=%s&appid=%s&units=%s",
+                apiBaseUrl, lat, lon, apiKey, units);
 
-        // Extract additional data
-        Object visibilityObj = response.get("visibility");
-        if (visibilityObj instanceof Integer) {
-            weatherData.setVisibility((Integer) visibilityObj);
-        } else if (visibilityObj instanceof Long) {
-            weatherData.setVisibility(((Long) visibilityObj).intValue());
-        }
+        log.debug("Making current weather API request to: {}", url);
 
-        Map<String, Object> clouds = (Map<String, Object>) response.get("clouds");
-        if (clouds != null) {
-            Object allObj = clouds.get("all");
-            if (allObj instanceof Integer) {
-                weatherData.setCloudiness((Integer) allObj);
-            } else if (allObj instanceof Long) {
-                weatherData.setCloudiness(((Long) allObj).intValue());
-            }
+        CurrentWeatherResponse response = upstreamCaller.call("weather",
+                () -> restTemplate.getForObject(url, CurrentWeatherResponse.class));
+        if (response == null) {
+            throw new RuntimeException("No response received from API");
         }
 
-        // Set temperature unit
-        weatherData.setTemperatureUnit(
-                units.equals("metric") ? "Celsius" : units.equals("imperial") ? "Fahrenheit" : "Kelvin");
+        WeatherData weatherData = weatherDataMapper.extractCurrentWeatherData(response);
+        
+        // Update with resolved city information
+        weatherData.setCityName(location.displayName());
+        weatherData.setCountryCode(location.country());
+        weatherData.setLatitude(lat);
+        weatherData.setLongitude(lon);
 
         return weatherData;
     }
 
     /**
-     * Extract forecast data from API response
+     * Fetch forecast data from OpenWeatherMap API using coordinates
      * 
-     * @param response    The API response as a Map
-     * @param weatherData The weather data object to populate
+     * @param lat Latitude of the location
+     * @param lon Longitude of the location
+     * @return The forecast API response (may be null)
      */
-    @SuppressWarnings("unchecked")
-    private void extractForecastData(Map<String, Object> response, WeatherData weatherData) {
-        List<Map<String, Object>> list = (List<Map<String, Object>>) response.get("list");
-        if (list == null)
-            return;
-
-        List<WeatherData.HourlyForecast> hourlyForecast = new ArrayList<>();
-        List<WeatherData.DailyForecast> dailyForecast = new ArrayList<>();
-
-        for (Map<String, Object> item : list) {
-            // Extract timestamp
-            Object dtObj = item.get("dt");
-            long timestamp = 0;
-            if (dtObj instanceof Integer) {
-                timestamp = ((Integer) dtObj).longValue();
-            } else if (dtObj instanceof Long) {
-                timestamp = (Long) dtObj;
-            }
-
-            LocalDateTime dateTime = LocalDateTime.ofInstant(
-                    Instant.ofEpochSecond(timestamp), ZoneId.systemDefault());
-
-            // Extract weather info
-            Map<String, Object> main = (Map<String, Object>) item.get("main");
-            List<Map<String, Object>> weather = (List<Map<String, Object>>) item.get("weather");
-            Map<String, Object> wind = (Map<String, Object>) item.get("wind");
-
-            if (main != null && !weather.isEmpty()) {
-                WeatherData.HourlyForecast hourly = new WeatherData.HourlyForecast();
-                hourly.setTime(dateTime);
-
-                Object tempObj = main.get("temp");
-                if (tempObj instanceof Integer) {
-                    hourly.setTemperature(((Integer) tempObj).doubleValue());
-                } else if (tempObj instanceof Double) {
-                    hourly.setTemperature((Double) tempObj);
-                }
-
-                hourly.setWeatherCondition((String) weather.get(0).get("description"));
-                hourly.setWeatherIcon((String) weather.get(0).get("icon"));
-
-                Object humidityObj = main.get("humidity");
-                if (humidityObj instanceof Integer) {
-                    hourly.setHumidity((Integer) humidityObj);
-                }
-
-                if (wind != null) {
-                    Object speedObj = wind.get("speed");
-                    if (speedObj instanceof Integer) {
-                        hourly.setWindSpeed(((Integer) speedObj).doubleValue());
-                    } else if (speedObj instanceof Double) {
-                        hourly.setWindSpeed((Double) speedObj);
-                    }
-                }
-
-                // Extract precipitation data from rain field
-                Map<String, Object> rain = (Map<String, Object>) item.get("rain");
-                if (rain != null) {
-                    Object rain3hObj = rain.get("3h");
-                    if (rain3hObj instanceof Integer) {
-                        hourly.setPrecipitation((Integer) rain3hObj);
-                    } else if (rain3hObj instanceof Double) {
-                        hourly.setPrecipitation(((Double) rain3hObj).intValue());
-                    } else {
-                        hourly.setPrecipitation(0);
-                    }
-                } else {
-                    hourly.setPrecipitation(0);
-                }
+    private ForecastResponse fetchForecastData(double lat, double lon) {
+        // Use coordinates for forecast API call for better accuracy
+        String url = String.format("%s/forecast?lat=%s&lon=%s&appid=%s&units=%s",
+                apiBaseUrl, lat, lon, apiKey, units);
 
-                hourlyForecast.add(hourly);
-            }
-        }
+        log.debug("Making forecast API request to: {}", url);
 
-        weatherData.setHourlyForecast(hourlyForecast);
-        weatherData.setDailyForecast(generateDailyForecast(hourlyForecast));
+        return upstreamCaller.call("forecast", () -> restTemplate.getForObject(url, ForecastResponse.class));
     }
 
     /**
-     * Generate daily forecast from hourly data
+     * Fetch Air Quality Index data from OpenWeatherMap API
      * 
-     * @param hourlyForecast List of hourly forecasts
-     * @return List of daily forecasts
+     * @param lat Latitude of the location
+     * @param lon Longitude of the location
+     * @return The air pollution API response (may be null)
      */
-    private List<WeatherData.DailyForecast> generateDailyForecast(List<WeatherData.HourlyForecast> hourlyForecast) {
-        List<WeatherData.DailyForecast> dailyForecast = new ArrayList<>();
-
-        // Group by day and calculate min/max temperatures
-        Map<String, List<WeatherData.HourlyForecast>> dailyGroups = new java.util.HashMap<>();
-
-        for (WeatherData.HourlyForecast hourly : hourlyForecast) {
-            String dayKey = hourly.getTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-            dailyGroups.computeIfAbsent(dayKey, k -> new ArrayList<>()).add(hourly);
-        }
-
-        // Sort the daily groups by date to ensure proper chronological order
-        List<String> sortedDayKeys = dailyGroups.keySet().stream()
-                .sorted()
-                .collect(java.util.stream.Collectors.toList());
+    private AirPollutionResponse fetchAQIData(double lat, double lon) {
+        String url = String.format("%s/air_pollution?lat=%s&lon=%s&appid=%s",
+                apiBaseUrl, lat, lon, apiKey);
 
-        for (String dayKey : sortedDayKeys) {
-            List<WeatherData.HourlyForecast> dayData = dailyGroups.get(dayKey);
+        log.debug("Making AQI API request to: {}", url);
 
-            double minTemp = dayData.stream().mapToDouble(h -> h.getTemperature()).min().orElse(0);
-            double maxTemp = dayData.stream().mapToDouble(h -> h.getTemperature()).max().orElse(0);
-
-            // Use the most common weather condition for the day
-            String mostCommonCondition = dayData.get(0).getWeatherCondition();
-            String mostCommonIcon = dayData.get(0).getWeatherIcon();
-
-            WeatherData.DailyForecast daily = new WeatherData.DailyForecast();
-            daily.setDate(dayData.get(0).getTime());
-            daily.setMinTemperature(minTemp);
-            daily.setMaxTemperature(maxTemp);
-            daily.setWeatherCondition(mostCommonCondition);
-            daily.setWeatherIcon(mostCommonIcon);
-
-            // Calculate average humidity and wind speed for the day
-            double avgHumidity = dayData.stream()
-                    .mapToDouble(h -> h.getHumidity() != null ? h.getHumidity() : 0)
-                    .average()
-                    .orElse(0);
-
-            double avgWindSpeed = dayData.stream()
-                    .mapToDouble(h -> h.getWindSpeed() != null ? h.getWindSpeed() : 0)
-                    .average()
-                    .orElse(0);
-
-            daily.setHumidity((int) Math.round(avgHumidity));
-            daily.setWindSpeed(avgWindSpeed);
-
-            // Calculate average precipitation for the day
-            double avgPrecipitation = dayData.stream()
-                    .mapToDouble(h -> h.getPrecipitation() != null ? h.getPrecipitation() : 0)
-                    .average()
-                    .orElse(0);
-            daily.setPrecipitation((int) Math.round(avgPrecipitation));
-
-            dailyForecast.add(daily);
-        }
-
-        return dailyForecast;
+        return upstreamCaller.call("air_pollution", () -> restTemplate.getForObject(url, AirPollutionResponse.class));
     }
 
     /**
-     * Extract AQI data from API response
+     * Create error weather data object for a failed load
      * 
-     * @param response    The API response as a Map
-     * @param weatherData The weather data object to populate
+     * @param cityName The city that failed to load
+     * @param e The failure
+     * @return WeatherData object with the classified error
      */
-    @SuppressWarnings("unchecked")
-    private void extractAQIData(Map<String, Object> response, WeatherData weatherData) {
-        List<Map<String, Object>> list = (List<Map<String, Object>>) response.get("list");
-        if (list == null || list.isEmpty())
-            return;
-
-        Map<String, Object> data = list.get(0);
-        Map<String, Object> components = (Map<String, Object>) data.get("components");
-        Map<String, Object> main = (Map<String, Object>) data.get("main");
-
-        if (main != null) {
-            Object aqiObj = main.get("aqi");
-            if (aqiObj instanceof Integer) {
-                int aqi = (Integer) aqiObj;
-                weatherData.setAqi(aqi);
-
-                // Determine AQI category and color
-                if (aqi <= 50) {
-                    weatherData.setAqiCategory("Good");
-                    weatherData.setAqiColor("#00E400");
-                } else if (aqi <= 100) {
-                    weatherData.setAqiCategory("Moderate");
-                    weatherData.setAqiColor("#FFFF00");
-                } else if (aqi <= 150) {
-                    weatherData.setAqiCategory("Unhealthy for Sensitive Groups");
-                    weatherData.setAqiColor("#FF7E00");
-                } else if (aqi <= 200) {
-                    weatherData.setAqiCategory("Unhealthy");
-                    weatherData.setAqiColor("#FF0000");
-                } else if (aqi <= 300) {
-                    weatherData.setAqiCategory("Very Unhealthy");
-                    weatherData.setAqiColor("#8F3F97");
-                } else {
-                    weatherData.setAqiCategory("Hazardous");
-                    weatherData.setAqiColor("#7E0023");
-                }
-            }
+    private WeatherData createErrorWeatherData(String cityName, Exception e) {
+        if (e instanceof CityNotFoundException || e instanceof HttpClientErrorException.NotFound) {
+            log.error("City not found: {}", cityName);
+            return createErrorWeatherData(WeatherData.ErrorType.NOT_FOUND, "City not found: " + cityName);
+        }
+        if (e instanceof UpstreamQuotaExceededException) {
+            log.warn("Upstream call budget exhausted for city: {}", cityName);
+            return createErrorWeatherData(WeatherData.ErrorType.RATE_LIMITED,
+                    "The weather service is busy right now. Please try again in a minute.");
         }
+
+        log.error("Error fetching weather data for city: {}", cityName, e);
+        return createErrorWeatherData(WeatherData.ErrorType.UPSTREAM_ERROR,
+                "Error fetching weather data: " + e.getMessage());
     }
 
     /**
      * Create error weather data object
      * 
+     * @param errorType The kind of error, used to decide how it is cached
      * @param errorMessage The error message
      * @return WeatherData object with error information
      */
-    private WeatherData createErrorWeatherData(String errorMessage) {
+    private WeatherData createErrorWeatherData(WeatherData.ErrorType errorType, String errorMessage) {
         WeatherData weatherData = new WeatherData();
+        weatherData.setErrorType(errorType);
         weatherData.setErrorMessage(errorMessage);
         weatherData.setFetchedAt(LocalDateTime.now());
         weatherData.setCached(false);
         return weatherData;
     }
+
+    /**
+     * ErrorCachingStats - Snapshot of the error caching counters
+     * 
+     * @param notFoundCached "City not found" results stored in the negative cache
+     * @param notFoundHits Requests answered from the negative cache
+     * @param uncachedErrors Transient errors that were not cached
+     */
+    public record ErrorCachingStats(long notFoundCached, long notFoundHits, long uncachedErrors) {
+    }
+
+    /**
+     * CachePolicyStats - Policy and live statistics of one dataset cache
+     * 
+     * @param cache Cache name
+     * @param maxWeightBytes Estimated bytes the cache may retain
+     * @param weightBytes Estimated bytes the cache retains now
+     * @param entries Estimated number of entries
+     * @param softTtlSeconds Age after which entries are refreshed in the background
+     * @param hardTtlSeconds Age after which entries are evicted
+     * @param hitRatio Share of lookups that were hits since startup
+     * @param hits Lookups that found an entry
+     * @param misses Lookups that found none
+     * @param evictions Evicted entries by cause (SIZE, EXPIRED, COLLECTED)
+     */
+    public record CachePolicyStats(String cache, long maxWeightBytes, long weightBytes, long entries,
+                                   long softTtlSeconds, long hardTtlSeconds, double hitRatio, long hits,
+                                   long misses, Map<RemovalCause, Long> evictions) {
+    }
+
+    /**
+     * CellCacheStats - Snapshot of the alias index and cell cache
+     * 
+     * @param aliases Estimated number of city names in the alias index
+     * @param cells Estimated number of cells in the weather cache
+     * @param aliasMisses City names that had to be resolved to a cell
+     * @param directoryHits Resolved city names found in the city directory (no geocoding API call)
+     * @param sharedCellHits Resolved city names whose cell was already cached
+     */
+    public record CellCacheStats(long aliases, long cells, long aliasMisses, long directoryHits,
+                                 long sharedCellHits) {
+    }
 }
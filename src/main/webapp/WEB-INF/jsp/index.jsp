@@ -85,8 +85,11 @@
                                        name="city" 
                                        placeholder="Enter city name (e.g., London, New York, Tokyo)"
                                        value="${param.city}"
+                                       list="city-suggestions"
                                        required
                                        autocomplete="off">
+                                <!-- Filled with /api/cities/suggest results while typing -->
+                                <datalist id="city-suggestions"></datalist>
                                 
                                 <!-- Search Button -->
                                 <button class="btn btn-primary" type="submit">
@@ -104,7 +107,7 @@
                                 <small class="text-muted">
                                     💡 <strong>Tips:</strong> Try adding country code (e.g., "Nanded,IN" or "Nanded, India") 
                                     or check spelling. For Indian cities, try: "Mumbai, India", "Delhi, India", "Pune, India".
-                                    <br>💡 <strong>Auto-suggestions:</strong> Type "nanded" and we'll suggest "Nanded,IN" automatically!
+                                    <br>💡 <strong>Suggestions:</strong> Start typing a city name and pick it from the list, e.g. "Nanded, Maharashtra, IN".
                                 </small>
                                 <button type="button" class="btn-close" data-bs-dismiss="alert"></button>
                             </div>
@@ -269,7 +272,7 @@
             }
         });
         
-        // Form validation and auto-suggestions
+        // Form validation
         document.querySelector('.search-form').addEventListener('submit', function(e) {
             const cityInput = document.querySelector('input[name="city"]');
             const cityValue = cityInput.value.trim();
@@ -278,49 +281,47 @@
                 e.preventDefault();
                 alert('Please enter a city name');
                 cityInput.focus();
-                return;
-            }
-            
-            // Auto-suggestions for common Indian cities
-            const suggestions = {
-                'nanded': 'Nanded,IN',
-                'mumbai': 'Mumbai, India',
-                'delhi': 'Delhi, India',
-                'pune': 'Pune, India',
-                'bangalore': 'Bangalore, India',
-                'chennai': 'Chennai, India',
-                'kolkata': 'Kolkata, India',
-                'hyderabad': 'Hyderabad, India'
-            };
-            
-            const lowerCity = cityValue.toLowerCase();
-            if (suggestions[lowerCity] && !cityValue.includes(',')) {
-                const useSuggestion = confirm(`Did you mean "${suggestions[lowerCity]}"? Click OK to use the suggested format.`);
-                if (useSuggestion) {
-                    cityInput.value = suggestions[lowerCity];
-                }
             }
         });
         
-        // Real-time suggestions as user types
-        document.querySelector('input[name="city"]').addEventListener('input', function(e) {
-            const cityValue = e.target.value.toLowerCase();
-            const suggestions = {
-                'nanded': 'Nanded,IN',
-                'mumbai': 'Mumbai, India',
-                'delhi': 'Delhi, India',
-                'pune': 'Pune, India',
-                'bangalore': 'Bangalore, India',
-                'chennai': 'Chennai, India',
-                'kolkata': 'Kolkata, India',
-                'hyderabad': 'Hyderabad, India'
-            };
+        // City suggestions as the user types, from /api/cities/suggest.
+        // Picking one fills in its canonical name (e.g. "Pune, Maharashtra, IN"),
+        // which the server resolves without a geocoding lookup.
+        const cityInput = document.querySelector('input[name="city"]');
+        const suggestionList = document.getElementById('city-suggestions');
+        let suggestTimer = null;
+        let suggestRequest = null;
+        
+        cityInput.addEventListener('input', function(e) {
+            const query = e.target.value.trim();
+            clearTimeout(suggestTimer);
             
-            // Show suggestion if user types a known city without country code
-            if (suggestions[cityValue] && !e.target.value.includes(',')) {
-                // You could add a visual suggestion here
-                console.log('Suggestion:', suggestions[cityValue]);
+            // A picked suggestion (or a name with country code) needs no completion
+            if (!query || query.includes(',')) {
+                suggestionList.innerHTML = '';
+                return;
             }
+            
+            // Wait for a short pause in typing, and drop answers to older queries
+            suggestTimer = setTimeout(function() {
+                if (suggestRequest) {
+                    suggestRequest.abort();
+                }
+                suggestRequest = new AbortController();
+                fetch('/api/cities/suggest?q=' + encodeURIComponent(query), { signal: suggestRequest.signal })
+                    .then(response => response.ok ? response.json() : [])
+                    .then(function(suggestions) {
+                        suggestionList.innerHTML = '';
+                        suggestions.forEach(function(city) {
+                            const option = document.createElement('option');
+                            option.value = city.id;
+                            suggestionList.appendChild(option);
+                        });
+                    })
+                    .catch(function() {
+                        // Aborted or offline: the form still works without suggestions
+                    });
+            }, 150);
         });
     </script>
 </body>
@@ -75,6 +75,12 @@
                             ${weather.countryCode} •
                             <fmt:formatDate value="${weather.fetchedAtAsDate}" pattern="MMM dd, yyyy 'at' HH:mm"/>
                         </p>
+                        <c:if test="${weather.stale}">
+                            <p class="text-warning small mb-0">
+                                <i class="fas fa-exclamation-triangle me-1"></i>
+                                Live weather is temporarily unavailable; showing the last known data.
+                            </p>
+                        </c:if>
                     </div>
                     <div class="text-end">
                         <button class="btn btn-outline-primary btn-sm" onclick="window.location.href='/'">
@@ -0,0 +1,110 @@
+package com.weatherapp.cache;
+
+import com.weatherapp.dto.ResolvedLocation;
+import com.weatherapp.dto.WeatherData;
+import com.weatherapp.service.WeatherDataset;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CacheSnapshotterTest - Tests for writing and restoring the cache snapshot
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+@SpringBootTest(properties = {"weather.http.warmup.enabled=false", "weather.cache.snapshot.enabled=false"})
+class CacheSnapshotterTest {
+
+    @TempDir
+    static Path snapshotDir;
+
+    @DynamicPropertySource
+    static void snapshotPath(DynamicPropertyRegistry registry) {
+        registry.add("weather.cache.snapshot.path", () -> snapshotDir.resolve("cache.smile").toString());
+    }
+
+    @Autowired
+    private CacheSnapshotter snapshotter;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    /**
+     * Weather, alias and geocoding entries survive a write/restore round trip
+     * with their remaining lifetime
+     */
+    @Test
+    void restoresEntriesWithRemainingTtl() {
+        WeatherData current = new WeatherData();
+        current.setCityName("Pune, Maharashtra");
+        current.setTemperature(29.87);
+        current.setFetchedAt(LocalDateTime.of(2024, 6, 1, 10, 15, 30));
+        current.setVersion(42L);
+        ResolvedLocation location = new ResolvedLocation("Pune", "Maharashtra", "IN", 18.5214, 73.8545, "te7ud");
+        List<Map<String, Object>> geocoding = List.of(Map.of("name", "Pune", "lat", 18.5214, "lon", 73.8545));
+
+        currentCache().put("te7ud", current);
+        cacheManager.getCache("weather-alias-cache").put("pune", location);
+        cacheManager.getCache("geocoding-cache").put("pune", geocoding);
+
+        assertEquals(3, snapshotter.write());
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        assertEquals(3, snapshotter.restore());
+
+        assertEquals(current, currentCache().get("te7ud", WeatherData.class));
+        assertEquals(location, cacheManager.getCache("weather-alias-cache").get("pune", ResolvedLocation.class));
+        assertEquals(geocoding, cacheManager.getCache("geocoding-cache").get("pune").get());
+
+        Duration remaining = nativeCurrentCache().policy().expireVariably().get().getExpiresAfter("te7ud").get();
+        assertTrue(remaining.compareTo(Duration.ofHours(1)) <= 0);
+        assertTrue(remaining.compareTo(Duration.ofMinutes(59)) > 0);
+    }
+
+    /**
+     * Entries loaded by live requests before the restore are kept
+     */
+    @Test
+    void restoreNeverReplacesLiveEntries() {
+        WeatherData old = new WeatherData();
+        old.setTemperature(20.0);
+        currentCache().put("te7ud", old);
+        snapshotter.write();
+
+        WeatherData live = new WeatherData();
+        live.setTemperature(25.0);
+        currentCache().put("te7ud", live);
+
+        assertEquals(0, snapshotter.restore());
+        assertEquals(25.0, currentCache().get("te7ud", WeatherData.class).getTemperature());
+    }
+
+    private Cache currentCache() {
+        return cacheManager.getCache(WeatherDataset.CURRENT.getCacheName());
+    }
+
+    @SuppressWarnings("unchecked")
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCurrentCache() {
+        return (com.github.benmanes.caffeine.cache.Cache<Object, Object>) currentCache().getNativeCache();
+    }
+}
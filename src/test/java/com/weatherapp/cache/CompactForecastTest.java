@@ -0,0 +1,115 @@
+package com.weatherapp.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weatherapp.dto.WeatherData;
+import com.weatherapp.dto.openweathermap.ForecastResponse;
+import com.weatherapp.service.WeatherDataMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CompactForecastTest - Tests for the columnar forecast cache entry
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+class CompactForecastTest {
+
+    /**
+     * The recorded forecast expands back to exactly the mapped lists
+     */
+    @Test
+    void expandsToTheMappedForecast() throws IOException {
+        WeatherDataMapper mapper = new WeatherDataMapper();
+        ReflectionTestUtils.setField(mapper, "units", "metric");
+        WeatherData forecast = new WeatherData();
+        try (InputStream in = getClass().getResourceAsStream("/fixtures/openweathermap/forecast.json")) {
+            mapper.extractForecastData(new ObjectMapper().readValue(in, ForecastResponse.class), forecast);
+        }
+        forecast.setFetchedAt(LocalDateTime.of(2024, 6, 1, 10, 15, 30));
+        forecast.setVersion(7L);
+
+        CompactForecast compact = CompactForecast.of(forecast);
+
+        assertEquals(forecast.getHourlyForecast(), compact.hourlyForecast());
+        assertEquals(forecast.getDailyForecast().size(), compact.dailyForecast().size());
+        for (int i = 0; i < forecast.getDailyForecast().size(); i++) {
+            WeatherData.DailyForecast expected = forecast.getDailyForecast().get(i);
+            WeatherData.DailyForecast day = compact.dailyForecast().get(i);
+            assertEquals(expected.getDate(), day.getDate());
+            assertEquals(expected.getMinTemperature(), day.getMinTemperature());
+            assertEquals(expected.getMaxTemperature(), day.getMaxTemperature());
+            assertEquals(expected.getWeatherCondition(), day.getWeatherCondition());
+            assertEquals(expected.getHumidity(), day.getHumidity());
+            // Average wind speeds are kept in hundredths
+            assertEquals(expected.getWindSpeed(), day.getWindSpeed(), 0.005);
+        }
+        assertEquals(forecast.getFetchedAt(), compact.getFetchedAt());
+        assertEquals(7L, compact.getVersion());
+        // Condition strings are shared through the vocabulary
+        assertSame(compact.hourlyForecast().get(0).getWeatherCondition(),
+                CompactForecast.of(forecast).hourlyForecast().get(0).getWeatherCondition());
+    }
+
+    /**
+     * The compact entry is estimated at a fraction of the expanded lists
+     */
+    @Test
+    void weighsAFractionOfTheExpandedForecast() throws IOException {
+        WeatherDataMapper mapper = new WeatherDataMapper();
+        ReflectionTestUtils.setField(mapper, "units", "metric");
+        WeatherData forecast = new WeatherData();
+        try (InputStream in = getClass().getResourceAsStream("/fixtures/openweathermap/forecast.json")) {
+            mapper.extractForecastData(new ObjectMapper().readValue(in, ForecastResponse.class), forecast);
+        }
+
+        long expanded = CacheWeigher.estimate(forecast);
+        long compact = CacheWeigher.estimate(CompactForecast.of(forecast));
+
+        assertTrue(compact * 5 < expanded, compact + " bytes compact vs " + expanded + " bytes expanded");
+    }
+
+    /**
+     * Missing values stay null and unknown strings are added to the vocabulary
+     */
+    @Test
+    void keepsNullsAndUnknownConditions() {
+        WeatherData forecast = new WeatherData();
+        forecast.setHourlyForecast(List.of(new WeatherData.HourlyForecast(
+                LocalDateTime.of(2024, 6, 1, 12, 0), -3.5, "stub weather", null, null, null, 2)));
+
+        WeatherData.HourlyForecast hour = CompactForecast.of(forecast).hourlyForecast().get(0);
+
+        assertEquals(LocalDateTime.of(2024, 6, 1, 12, 0), hour.getTime());
+        assertEquals(-3.5, hour.getTemperature());
+        assertEquals("stub weather", hour.getWeatherCondition());
+        assertNull(hour.getWeatherIcon());
+        assertNull(hour.getHumidity());
+        assertNull(hour.getWindSpeed());
+        assertEquals(2, hour.getPrecipitation());
+        assertNull(CompactForecast.of(forecast).dailyForecast());
+    }
+
+    /**
+     * The views are read-only, so a cached forecast cannot be modified
+     */
+    @Test
+    void viewsAreReadOnly() {
+        WeatherData forecast = new WeatherData();
+        forecast.setHourlyForecast(List.of());
+
+        assertThrows(UnsupportedOperationException.class, () -> CompactForecast.of(forecast).hourlyForecast()
+                .add(new WeatherData.HourlyForecast()));
+    }
+}
@@ -0,0 +1,45 @@
+package com.weatherapp.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * GeoHashTest - Tests for geohash cell encoding
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+class GeoHashTest {
+
+    /**
+     * Encoding matches the reference geohash values
+     */
+    @Test
+    void encodesKnownCoordinates() {
+        assertEquals("u4pruydqqvj", GeoHash.encode(57.64911, 10.40744, 11));
+        assertEquals("ezs42", GeoHash.encode(42.605, -5.603, 5));
+    }
+
+    /**
+     * Nearby coordinates share a cell, distant ones do not
+     */
+    @Test
+    void nearbyCoordinatesShareCell() {
+        // Two geocoder results for Pune, a few hundred metres apart
+        assertEquals(GeoHash.encode(18.5204, 73.8567, 5), GeoHash.encode(18.5196, 73.8553, 5));
+        // Mumbai is a different cell
+        assertNotEquals(GeoHash.encode(18.5204, 73.8567, 5), GeoHash.encode(19.0760, 72.8777, 5));
+    }
+
+    /**
+     * Precision outside 1..12 is rejected
+     */
+    @Test
+    void rejectsInvalidPrecision() {
+        assertThrows(IllegalArgumentException.class, () -> GeoHash.encode(0, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> GeoHash.encode(0, 0, 13));
+    }
+}
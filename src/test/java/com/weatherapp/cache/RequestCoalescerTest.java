@@ -0,0 +1,84 @@
+package com.weatherapp.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * RequestCoalescerTest - Tests for single-flight load coalescing
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+class RequestCoalescerTest {
+
+    /**
+     * Concurrent calls for the same key must share a single load
+     */
+    @Test
+    void concurrentCallsShareOneLoad() throws Exception {
+        RequestCoalescer<String, String> coalescer = new RequestCoalescer<>();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 16;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> coalescer.execute("pune", () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return "weather";
+                })));
+            }
+
+            // Wait until every follower has joined the leader's load
+            while (coalescer.getStats().coalesced() < callers - 1) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("weather", result.get(5, TimeUnit.SECONDS));
+            }
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(1, coalescer.getStats().loads());
+        assertEquals(callers - 1, coalescer.getStats().coalesced());
+        assertEquals(0, coalescer.getStats().inFlight());
+    }
+
+    /**
+     * A finished load must not be reused, and failures must reach the caller
+     */
+    @Test
+    void completedLoadsAreNotReused() {
+        RequestCoalescer<String, String> coalescer = new RequestCoalescer<>();
+
+        assertThrows(IllegalStateException.class,
+                () -> coalescer.execute("pune", () -> { throw new IllegalStateException("upstream down"); }));
+        assertEquals("weather", coalescer.execute("pune", () -> "weather"));
+
+        assertEquals(2, coalescer.getStats().loads());
+        assertEquals(0, coalescer.getStats().coalesced());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.weatherapp.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * UpstreamCallerTest - Tests for adaptive timeouts and hedged requests
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+class UpstreamCallerTest {
+
+    /**
+     * A call slower than the endpoint's p95 is beaten by its hedge
+     */
+    @Test
+    void slowCallIsBeatenByHedge() {
+        UpstreamCaller caller = new UpstreamCaller(100, 20, 3, Duration.ofSeconds(5), Duration.ofSeconds(10),
+                true, 0.95, 1.0, new SimpleMeterRegistry());
+        prime(caller);
+
+        AtomicInteger attempts = new AtomicInteger();
+        long start = System.nanoTime();
+        String result = caller.call("weather", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                sleep(5_000);
+                return "slow";
+            }
+            return "hedged";
+        });
+
+        assertEquals("hedged", result);
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 2_000);
+        UpstreamCaller.EndpointLatency stats = caller.getStats().get("weather");
+        assertEquals(1, stats.hedges());
+        assertEquals(1, stats.hedgeWins());
+    }
+
+    /**
+     * Once latencies are known, the timeout shrinks from the static maximum
+     */
+    @Test
+    void timeoutAdaptsToObservedLatency() {
+        UpstreamCaller caller = new UpstreamCaller(100, 20, 3, Duration.ofMillis(200), Duration.ofSeconds(10),
+                false, 0.95, 0, new SimpleMeterRegistry());
+        prime(caller);
+
+        assertEquals(200, caller.getStats().get("weather").timeoutMs());
+        assertThrows(ResourceAccessException.class, () -> caller.call("weather", () -> {
+            sleep(5_000);
+            return "too late";
+        }));
+        assertEquals(1, caller.getStats().get("weather").timeouts());
+    }
+
+    /**
+     * When the endpoint becomes slower than its timeout, the timeouts raise the timeout until calls succeed again
+     */
+    @Test
+    void timeoutRisesWhenEndpointSlowsDown() {
+        UpstreamCaller caller = new UpstreamCaller(100, 20, 3, Duration.ofMillis(200), Duration.ofSeconds(10),
+                false, 0.95, 0, new SimpleMeterRegistry());
+        prime(caller);
+        assertEquals(200, caller.getStats().get("weather").timeoutMs());
+
+        // Normal latency is now 300 ms, above the 200 ms timeout
+        assertThrows(ResourceAccessException.class, () -> caller.call("weather", () -> {
+            sleep(300);
+            return "too late";
+        }));
+
+        assertTrue(caller.getStats().get("weather").timeoutMs() >= 600);
+        assertEquals("slow", caller.call("weather", () -> {
+            sleep(300);
+            return "slow";
+        }));
+        assertEquals(1, caller.getStats().get("weather").timeouts());
+    }
+
+    private static void prime(UpstreamCaller caller) {
+        for (int i = 0; i < 20; i++) {
+            caller.call("weather", () -> "fast");
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
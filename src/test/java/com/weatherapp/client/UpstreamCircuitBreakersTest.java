@@ -0,0 +1,181 @@
+package com.weatherapp.client;
+
+import com.weatherapp.exception.UpstreamUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * UpstreamCircuitBreakersTest - Tests for the per-endpoint circuit breakers
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+class UpstreamCircuitBreakersTest {
+
+    private final AtomicInteger sent = new AtomicInteger();
+
+    /**
+     * Consecutive server errors open only the failing endpoint's circuit
+     */
+    @Test
+    void openCircuitFailsFastPerEndpoint() throws Exception {
+        UpstreamCircuitBreakers breakers = new UpstreamCircuitBreakers(2, Duration.ofMinutes(1), 10, Duration.ZERO, 0.5);
+        ClientHttpRequestExecution failing = respondWith(HttpStatus.INTERNAL_SERVER_ERROR);
+
+        breakers.intercept(request("/data/2.5/forecast"), new byte[0], failing).close();
+        breakers.intercept(request("/data/2.5/forecast"), new byte[0], failing).close();
+        assertThrows(UpstreamUnavailableException.class,
+                () -> breakers.intercept(request("/data/2.5/forecast"), new byte[0], failing));
+        assertEquals(2, sent.get());
+
+        breakers.intercept(request("/data/2.5/weather"), new byte[0], respondWith(HttpStatus.OK)).close();
+        assertEquals(3, sent.get());
+
+        UpstreamCircuitBreakers.CircuitStats forecast = breakers.getStats().get("forecast");
+        assertEquals(UpstreamCircuitBreakers.State.OPEN, forecast.state());
+        assertEquals(1, forecast.rejectedOpen());
+        assertEquals(0, forecast.inFlight());
+        assertEquals(UpstreamCircuitBreakers.State.CLOSED, breakers.getStats().get("weather").state());
+    }
+
+    /**
+     * After the open duration, one successful trial closes the circuit
+     */
+    @Test
+    void successfulTrialClosesCircuit() throws Exception {
+        UpstreamCircuitBreakers breakers = new UpstreamCircuitBreakers(1, Duration.ZERO, 10, Duration.ZERO, 0.5);
+
+        breakers.intercept(request("/geo/1.0/direct"), new byte[0], respondWith(HttpStatus.BAD_GATEWAY)).close();
+        assertEquals(UpstreamCircuitBreakers.State.OPEN, breakers.getStats().get("direct").state());
+
+        breakers.intercept(request("/geo/1.0/direct"), new byte[0], respondWith(HttpStatus.OK)).close();
+        assertEquals(UpstreamCircuitBreakers.State.CLOSED, breakers.getStats().get("direct").state());
+    }
+
+    /**
+     * Background requests never take the slots reserved for users, who wait briefly for a free slot
+     */
+    @Test
+    void bulkheadKeepsSlotsForUsers() throws Exception {
+        UpstreamCircuitBreakers breakers = new UpstreamCircuitBreakers(5, Duration.ofMinutes(1), 2,
+                Duration.ofMillis(20), 0.5);
+        ClientHttpRequestExecution ok = respondWith(HttpStatus.OK);
+
+        ClientHttpResponse refresh = UpstreamPriority.BACKGROUND.call(
+                () -> breakers.intercept(request("/data/2.5/weather"), new byte[0], throughBulkhead(breakers, ok)));
+        assertThrows(UpstreamUnavailableException.class, () -> UpstreamPriority.BACKGROUND.call(
+                () -> breakers.intercept(request("/data/2.5/weather"), new byte[0], throughBulkhead(breakers, ok))));
+
+        ClientHttpResponse user = breakers.intercept(request("/data/2.5/weather"), new byte[0],
+                throughBulkhead(breakers, ok));
+        assertEquals(2, breakers.getStats().get("weather").inFlight());
+        assertThrows(UpstreamUnavailableException.class, () -> breakers.intercept(
+                request("/data/2.5/weather"), new byte[0], throughBulkhead(breakers, ok)));
+
+        refresh.close();
+        user.close();
+        UpstreamCircuitBreakers.CircuitStats weather = breakers.getStats().get("weather");
+        assertEquals(0, weather.inFlight());
+        assertEquals(2, weather.rejectedFull());
+        assertEquals(UpstreamCircuitBreakers.State.CLOSED, weather.state());
+    }
+
+    /**
+     * A request waiting for call budget holds no slot, and a full bulkhead does not open the circuit
+     */
+    @Test
+    void waitingForBudgetHoldsNoSlot() throws Exception {
+        UpstreamCircuitBreakers breakers = new UpstreamCircuitBreakers(1, Duration.ofMinutes(1), 1, Duration.ZERO, 0.5);
+        ClientHttpRequestExecution ok = respondWith(HttpStatus.OK);
+
+        // The governor runs between the circuit check and the bulkhead
+        ClientHttpRequestExecution waitingForBudget = (request, body) -> {
+            assertEquals(0, breakers.getStats().get("weather").inFlight());
+            return throughBulkhead(breakers, ok).execute(request, body);
+        };
+        ClientHttpResponse first = breakers.intercept(request("/data/2.5/weather"), new byte[0], waitingForBudget);
+        assertEquals(1, breakers.getStats().get("weather").inFlight());
+
+        assertThrows(UpstreamUnavailableException.class, () -> breakers.intercept(
+                request("/data/2.5/weather"), new byte[0], throughBulkhead(breakers, ok)));
+        first.close();
+        UpstreamCircuitBreakers.CircuitStats weather = breakers.getStats().get("weather");
+        assertEquals(0, weather.inFlight());
+        assertEquals(1, weather.rejectedFull());
+        assertEquals(UpstreamCircuitBreakers.State.CLOSED, weather.state());
+    }
+
+    /**
+     * A losing hedge cancelled by UpstreamCaller is no failure, an attempt cut off by the timeout is
+     */
+    @Test
+    void onlyTimedOutAttemptsCountAsFailures() {
+        UpstreamCircuitBreakers breakers = new UpstreamCircuitBreakers(1, Duration.ofMinutes(1), 10, Duration.ZERO, 0.5);
+        UpstreamCaller caller = new UpstreamCaller(100, 20, 3, Duration.ofMillis(300), Duration.ofSeconds(10),
+                true, 0.5, 1.0, new SimpleMeterRegistry());
+        for (int i = 0; i < 20; i++) {
+            caller.call("weather", () -> send(breakers, respondWith(HttpStatus.OK)));
+        }
+
+        // The first attempt hangs until it is cancelled, the hedge answers
+        AtomicInteger attempts = new AtomicInteger();
+        ClientHttpRequestExecution firstHangs = (request, body) -> attempts.incrementAndGet() == 1
+                ? hang() : new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        caller.call("weather", () -> send(breakers, firstHangs));
+        assertEquals(UpstreamCircuitBreakers.State.CLOSED, breakers.getStats().get("weather").state());
+
+        ClientHttpRequestExecution alwaysHangs = (request, body) -> hang();
+        assertThrows(ResourceAccessException.class, () -> caller.call("weather", () -> send(breakers, alwaysHangs)));
+        assertEquals(UpstreamCircuitBreakers.State.OPEN, breakers.getStats().get("weather").state());
+    }
+
+    private static String send(UpstreamCircuitBreakers breakers, ClientHttpRequestExecution execution) {
+        try (ClientHttpResponse response = breakers.intercept(request("/data/2.5/weather"), new byte[0], execution)) {
+            return response.getStatusCode().toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ClientHttpRequestExecution throughBulkhead(UpstreamCircuitBreakers breakers,
+                                                              ClientHttpRequestExecution execution) {
+        return (request, body) -> breakers.bulkhead().intercept(request, body, execution);
+    }
+
+    private static ClientHttpResponse hang() throws IOException {
+        try {
+            Thread.sleep(10_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        throw new InterruptedIOException("Request cancelled");
+    }
+
+    private ClientHttpRequestExecution respondWith(HttpStatus status) {
+        return (request, body) -> {
+            sent.incrementAndGet();
+            return new MockClientHttpResponse(new byte[0], status);
+        };
+    }
+
+    private static MockClientHttpRequest request(String path) {
+        return new MockClientHttpRequest(HttpMethod.GET, URI.create("https://api.openweathermap.org" + path));
+    }
+}
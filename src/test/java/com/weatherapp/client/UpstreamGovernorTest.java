@@ -0,0 +1,68 @@
+package com.weatherapp.client;
+
+import com.weatherapp.exception.UpstreamQuotaExceededException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * UpstreamGovernorTest - Tests for the prioritized upstream call budget
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+class UpstreamGovernorTest {
+
+    /**
+     * Background calls fail fast and leave the reserve to interactive calls
+     */
+    @Test
+    void backgroundCallsLeaveReserveToUsers() {
+        UpstreamGovernor governor = new UpstreamGovernor(4, 1000, Duration.ZERO, 0.5);
+
+        governor.acquire(UpstreamPriority.BACKGROUND);
+        governor.acquire(UpstreamPriority.BACKGROUND);
+        assertThrows(UpstreamQuotaExceededException.class, () -> governor.acquire(UpstreamPriority.BACKGROUND));
+
+        governor.acquire(UpstreamPriority.INTERACTIVE);
+        governor.acquire(UpstreamPriority.INTERACTIVE);
+        assertThrows(UpstreamQuotaExceededException.class, () -> governor.acquire(UpstreamPriority.INTERACTIVE));
+
+        UpstreamGovernor.Budget budget = governor.getBudget();
+        assertEquals(0, budget.perMinuteRemaining());
+        assertEquals(2, budget.granted().get(UpstreamPriority.BACKGROUND));
+        assertEquals(1, budget.rejected().get(UpstreamPriority.INTERACTIVE));
+    }
+
+    /**
+     * A waiting interactive call gets the next token before a waiting batch call
+     */
+    @Test
+    void interactiveCallsAreServedBeforeBatch() throws Exception {
+        // One token per second
+        UpstreamGovernor governor = new UpstreamGovernor(60, 1000, Duration.ofSeconds(5), 0);
+        for (int i = 0; i < 60; i++) {
+            governor.acquire(UpstreamPriority.BATCH);
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<Long> batch = CompletableFuture.supplyAsync(() -> {
+            governor.acquire(UpstreamPriority.BATCH);
+            return System.nanoTime();
+        });
+        while (governor.getBudget().waiting().get(UpstreamPriority.BATCH) == 0) {
+            Thread.sleep(5);
+        }
+        governor.acquire(UpstreamPriority.INTERACTIVE);
+        long interactiveDone = System.nanoTime();
+
+        assertTrue(batch.get(5, TimeUnit.SECONDS) > interactiveDone);
+        assertTrue(interactiveDone - start < TimeUnit.SECONDS.toNanos(2));
+    }
+}
@@ -0,0 +1,73 @@
+package com.weatherapp.controller;
+
+import com.weatherapp.cache.WeatherCachePolicy;
+import com.weatherapp.client.UpstreamCaller;
+import com.weatherapp.client.UpstreamCircuitBreakers;
+import com.weatherapp.client.UpstreamGovernor;
+import com.weatherapp.service.PopularCityRefresher;
+import com.weatherapp.service.WeatherDataset;
+import com.weatherapp.service.WeatherService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * AdminControllerTest - Tests for the operational endpoints
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+@WebMvcTest(controllers = AdminController.class, properties = "weather.admin.token=s3cret")
+class AdminControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private WeatherService weatherService;
+
+    @MockBean
+    private PopularCityRefresher popularCityRefresher;
+
+    @MockBean
+    private UpstreamGovernor upstreamGovernor;
+
+    @MockBean
+    private UpstreamCircuitBreakers upstreamCircuitBreakers;
+
+    @MockBean
+    private UpstreamCaller upstreamCaller;
+
+    /**
+     * The cache policy only changes with the configured admin token
+     */
+    @Test
+    void cachePolicyChangeRequiresAdminToken() throws Exception {
+        mockMvc.perform(post("/api/admin/cache-policy/forecast").param("softTtl", "2h"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/admin/cache-policy/forecast").param("softTtl", "2h")
+                        .header(AdminController.ADMIN_TOKEN_HEADER, "guess"))
+                .andExpect(status().isForbidden());
+        verify(weatherService, never()).updateCachePolicy(any(), any());
+
+        when(weatherService.getCachePolicy(WeatherDataset.FORECAST)).thenReturn(
+                new WeatherCachePolicy.Settings(8L << 20, Duration.ofHours(3), Duration.ofHours(12)));
+
+        mockMvc.perform(post("/api/admin/cache-policy/forecast").param("softTtl", "2h")
+                        .header(AdminController.ADMIN_TOKEN_HEADER, "s3cret"))
+                .andExpect(status().isOk());
+        verify(weatherService).updateCachePolicy(WeatherDataset.FORECAST,
+                new WeatherCachePolicy.Settings(8L << 20, Duration.ofHours(2), Duration.ofHours(12)));
+    }
+}
@@ -0,0 +1,59 @@
+package com.weatherapp.controller;
+
+import com.weatherapp.dto.CitySuggestion;
+import com.weatherapp.service.CityDirectory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * CityApiControllerTest - Tests for the city name typeahead API
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+@WebMvcTest(CityApiController.class)
+class CityApiControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CityDirectory cityDirectory;
+
+    /**
+     * Suggestions are returned with their canonical IDs and may be cached briefly
+     */
+    @Test
+    void suggestsCitiesWithCanonicalIds() throws Exception {
+        when(cityDirectory.suggest("pu", 8)).thenReturn(List.of(
+                new CitySuggestion("Pune, Maharashtra, IN", "Pune", "Maharashtra", "IN", 18.5214, 73.8545)));
+
+        mockMvc.perform(get("/api/cities/suggest").param("q", "pu"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=300"))
+                .andExpect(jsonPath("$[0].id").value("Pune, Maharashtra, IN"))
+                .andExpect(jsonPath("$[0].state").value("Maharashtra"))
+                .andExpect(jsonPath("$[0].latitude").value(18.5214));
+    }
+
+    /**
+     * A request without a query is rejected
+     */
+    @Test
+    void rejectsMissingQuery() throws Exception {
+        mockMvc.perform(get("/api/cities/suggest"))
+                .andExpect(status().isBadRequest());
+    }
+}
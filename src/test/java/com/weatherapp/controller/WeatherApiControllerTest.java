@@ -0,0 +1,175 @@
+package com.weatherapp.controller;
+
+import com.weatherapp.cache.PopularityTracker;
+import com.weatherapp.dto.WeatherData;
+import com.weatherapp.service.WeatherService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * WeatherApiControllerTest - Tests for the JSON weather API
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+@WebMvcTest(WeatherApiController.class)
+class WeatherApiControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private WeatherService weatherService;
+
+    @MockBean
+    private PopularityTracker popularityTracker;
+
+    /**
+     * A poll with the current ETag is answered with 304 and no body
+     */
+    @Test
+    void pollWithinSameGenerationIsNotModified() throws Exception {
+        WeatherData pune = new WeatherData();
+        pune.setCityName("Pune, Maharashtra");
+        pune.setCanonicalCityName("Pune, Maharashtra, IN");
+        pune.setFetchedAt(LocalDateTime.of(2024, 6, 1, 10, 15, 30));
+        pune.setVersion(7L);
+        pune.setGeneration("7.5.-");
+        when(weatherService.getWeatherDataAsync("Pune")).thenReturn(CompletableFuture.completedFuture(pune));
+
+        MvcResult first = mockMvc.perform(get("/api/weather").param("city", "Pune")).andReturn();
+        MvcResult firstResponse = mockMvc.perform(asyncDispatch(first))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(jsonPath("$.cityName").value("Pune, Maharashtra"))
+                .andReturn();
+        String eTag = firstResponse.getResponse().getHeader(HttpHeaders.ETAG);
+        assertTrue(eTag.startsWith("W/\"7.5.--"));
+
+        MvcResult poll = mockMvc.perform(get("/api/weather").param("city", "Pune")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(poll))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        // Typed requests count for the city's suggestion
+        verify(popularityTracker, times(2)).record("Pune, Maharashtra, IN");
+    }
+
+    /**
+     * A stale last-known copy does not match the ETag of the fresh copy
+     */
+    @Test
+    void staleCopyIsNotAnsweredWithNotModified() throws Exception {
+        WeatherData fresh = new WeatherData();
+        fresh.setCityName("Pune, Maharashtra");
+        fresh.setFetchedAt(LocalDateTime.of(2024, 6, 1, 10, 15, 30));
+        fresh.setVersion(7L);
+        fresh.setGeneration("7.5.-");
+        WeatherData stale = fresh.toBuilder().stale(true).build();
+        when(weatherService.getWeatherDataAsync("Pune")).thenReturn(
+                CompletableFuture.completedFuture(fresh), CompletableFuture.completedFuture(stale));
+
+        MvcResult first = mockMvc.perform(get("/api/weather").param("city", "Pune")).andReturn();
+        MvcResult firstResponse = mockMvc.perform(asyncDispatch(first))
+                .andExpect(status().isOk())
+                .andReturn();
+        String eTag = firstResponse.getResponse().getHeader(HttpHeaders.ETAG);
+        String lastModified = firstResponse.getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+
+        MvcResult poll = mockMvc.perform(get("/api/weather").param("city", "Pune")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(poll))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED))
+                .andExpect(jsonPath("$.stale").value(true));
+    }
+
+    /**
+     * Unknown cities are reported as 404 with the error body
+     */
+    @Test
+    void unknownCityIsNotFound() throws Exception {
+        WeatherData unknown = new WeatherData();
+        unknown.setErrorType(WeatherData.ErrorType.NOT_FOUND);
+        unknown.setErrorMessage("City not found: Atlantis");
+        when(weatherService.getWeatherDataAsync("Atlantis")).thenReturn(CompletableFuture.completedFuture(unknown));
+
+        MvcResult result = mockMvc.perform(get("/api/weather").param("city", "Atlantis")).andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.errorMessage").value("City not found: Atlantis"));
+    }
+
+    /**
+     * Comma-separated and repeated cities are merged, and failures are reported inline
+     */
+    @Test
+    void batchReportsEveryCityInOneDocument() throws Exception {
+        WeatherData pune = new WeatherData();
+        pune.setCityName("Pune, Maharashtra");
+        pune.setCached(true);
+        WeatherData unknown = new WeatherData();
+        unknown.setErrorType(WeatherData.ErrorType.NOT_FOUND);
+        unknown.setErrorMessage("City not found: Atlantis");
+
+        Map<String, WeatherData> results = new LinkedHashMap<>();
+        results.put("Pune", pune);
+        results.put("Atlantis", unknown);
+        results.put("Pune,IN", pune);
+        when(weatherService.getWeatherDataBatch(List.of("Pune", "Atlantis", "Pune,IN"))).thenReturn(results);
+
+        MvcResult result = mockMvc.perform(get("/api/weather/batch")
+                        .param("cities", "Pune, Atlantis,,Pune")
+                        .param("city", "Pune,IN"))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested").value(3))
+                .andExpect(jsonPath("$.succeeded").value(2))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.cacheHits").value(2))
+                .andExpect(jsonPath("$.results[0].weather.cityName").value("Pune, Maharashtra"))
+                .andExpect(jsonPath("$.results[1].success").value(false))
+                .andExpect(jsonPath("$.results[1].errorType").value("NOT_FOUND"))
+                .andExpect(jsonPath("$.results[2].query").value("Pune,IN"));
+    }
+
+    /**
+     * A batch without any city is rejected
+     */
+    @Test
+    void emptyBatchIsRejected() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/weather/batch").param("cities", " , "))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,75 @@
+package com.weatherapp.controller;
+
+import com.weatherapp.cache.PopularityTracker;
+import com.weatherapp.dto.WeatherData;
+import com.weatherapp.service.WeatherService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+/**
+ * WeatherControllerTest - Tests for the asynchronous weather page
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+@WebMvcTest(WeatherController.class)
+class WeatherControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private WeatherService weatherService;
+
+    @MockBean
+    private PopularityTracker popularityTracker;
+
+    /**
+     * A completed lookup is rendered with the weather view after async dispatch
+     */
+    @Test
+    void rendersWeatherViewAsynchronously() throws Exception {
+        WeatherData weatherData = new WeatherData();
+        weatherData.setCityName("Pune, Maharashtra");
+        when(weatherService.getWeatherDataAsync("Pune")).thenReturn(CompletableFuture.completedFuture(weatherData));
+
+        MvcResult result = mockMvc.perform(get("/weather").param("city", " Pune "))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(view().name("weather"))
+                .andExpect(model().attribute("weather", weatherData))
+                .andExpect(model().attribute("pageTitle", "Weather in Pune, Maharashtra"));
+    }
+
+    /**
+     * A failed lookup falls back to the search page with an error message
+     */
+    @Test
+    void rendersErrorViewWhenLookupFails() throws Exception {
+        when(weatherService.getWeatherDataAsync("Pune"))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("boom")));
+
+        MvcResult result = mockMvc.perform(get("/weather").param("city", "Pune"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(view().name("index"))
+                .andExpect(model().attribute("error", "An unexpected error occurred. Please try again."));
+    }
+}
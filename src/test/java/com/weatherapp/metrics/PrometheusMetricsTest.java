@@ -0,0 +1,93 @@
+package com.weatherapp.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.client.RestTemplate;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * PrometheusMetricsTest - Tests for the metrics published to Prometheus
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+@SpringBootTest(properties = {"weather.http.warmup.enabled=false", "weather.cache.snapshot.enabled=false"})
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@DirtiesContext
+class PrometheusMetricsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private MockRestServiceServer server;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        server = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+    }
+
+    /**
+     * A miss and a hit show up as separate request series, next to the
+     * upstream, cache and client metrics; the API key never does
+     */
+    @Test
+    void scrapeSplitsWeatherRequestsByCacheResult() throws Exception {
+        expect("/data/2.5/weather?", "weather.json");
+        expect("/data/2.5/forecast?", "forecast.json");
+        expect("/data/2.5/air_pollution?", "air_pollution.json");
+
+        requestWeather();
+        requestWeather();
+        server.verify();
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("uri=\"/api/weather\"")))
+                .andExpect(content().string(containsString("cache=\"miss\"")))
+                .andExpect(content().string(containsString("cache=\"hit\"")))
+                .andExpect(content().string(containsString(
+                        "weather_upstream_requests_seconds_bucket{application=\"weather-webapp\",endpoint=\"weather\"")))
+                .andExpect(content().string(containsString("cache_gets_total")))
+                .andExpect(content().string(containsString("weather_upstream_budget_remaining")))
+                .andExpect(content().string(not(containsString("appid="))));
+    }
+
+    private void requestWeather() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/weather").param("city", "Pune")).andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+    }
+
+    private void expect(String path, String fixture) {
+        server.expect(ExpectedCount.once(), requestTo(containsString(path)))
+                .andRespond(withSuccess(new ClassPathResource("fixtures/openweathermap/" + fixture),
+                        MediaType.APPLICATION_JSON));
+    }
+}
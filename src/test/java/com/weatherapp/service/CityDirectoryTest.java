@@ -0,0 +1,125 @@
+package com.weatherapp.service;
+
+import com.weatherapp.cache.PopularityTracker;
+import com.weatherapp.dto.CitySuggestion;
+import com.weatherapp.dto.ResolvedLocation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CityDirectoryTest - Tests for city suggestions and their resolution, using the bundled city list
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+class CityDirectoryTest {
+
+    private CityDirectory directory;
+
+    private PopularityTracker popularityTracker;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Gazetteer gazetteer;
+        try (InputStream in = getClass().getResourceAsStream("/gazetteer/cities.tsv")) {
+            gazetteer = Gazetteer.load(in);
+        }
+        popularityTracker = new PopularityTracker();
+        ReflectionTestUtils.setField(popularityTracker, "maxTracked", 100);
+
+        directory = new CityDirectory();
+        ReflectionTestUtils.setField(directory, "gazetteer", gazetteer);
+        ReflectionTestUtils.setField(directory, "popularityTracker", popularityTracker);
+        ReflectionTestUtils.setField(directory, "geohashPrecision", 5);
+        ReflectionTestUtils.setField(directory, "learnedMaxSize", 2);
+    }
+
+    /**
+     * Recently requested cities come first, then the most populous ones
+     */
+    @Test
+    void ranksByPopularityThenPopulation() {
+        assertEquals(List.of("Paris, Ile-de-France, FR", "Patna, Bihar, IN", "Parbhani, Maharashtra, IN"),
+                ids(directory.suggest("Pa", 3)));
+
+        popularityTracker.record("Paris, Texas, US");
+
+        assertEquals(List.of("Paris, Texas, US", "Paris, Ile-de-France, FR"), ids(directory.suggest("pari", 2)));
+        assertEquals(List.of("New York, New York, US", "Navi Mumbai, Maharashtra, IN", "New Delhi, Delhi, IN"),
+                ids(directory.suggest("new", 8)));
+        assertTrue(directory.suggest(" ", 8).isEmpty());
+        assertTrue(directory.suggest("Atlantis", 8).isEmpty());
+    }
+
+    /**
+     * Requests typed in any spelling raise the rank of the city they resolve to
+     */
+    @Test
+    void typedRequestsRaiseTheirCanonicalCity() {
+        directory.remember(new ResolvedLocation("Pune Cantonment", "Maharashtra", "IN", 18.5, 73.87, "tek93"));
+        popularityTracker.record("Pune Cantonment, Maharashtra, IN");
+        popularityTracker.record("Pune Cantonment, Maharashtra, IN");
+
+        assertEquals(List.of("Pune Cantonment, Maharashtra, IN", "Pune, Maharashtra, IN"),
+                ids(directory.suggest("pune", 8)));
+
+        // As counted by the controllers, under the canonical name of the resolved city
+        for (String typed : List.of("Pune", "pune,IN", "Poona")) {
+            popularityTracker.record(directory.resolve(typed).canonicalName());
+        }
+
+        assertEquals(List.of("Pune, Maharashtra, IN", "Pune Cantonment, Maharashtra, IN"),
+                ids(directory.suggest("pune", 8)));
+    }
+
+    /**
+     * The ID of every suggestion resolves back to the suggested city
+     */
+    @Test
+    void suggestionIdsResolveToTheirCity() {
+        List<CitySuggestion> suggestions = directory.suggest("Hyd", 8);
+
+        assertEquals(List.of("Hyderabad, Telangana, IN", "Hyderabad, Sindh, PK"), ids(suggestions));
+        for (CitySuggestion suggestion : suggestions) {
+            ResolvedLocation location = directory.resolve(suggestion.id());
+            assertEquals(suggestion.country(), location.country());
+            assertEquals(suggestion.latitude(), location.latitude());
+        }
+    }
+
+    /**
+     * Geocoded cities missing from the gazetteer are suggested and resolved, up to the maximum
+     */
+    @Test
+    void remembersGeocodedCities() {
+        ResolvedLocation khadki = new ResolvedLocation("Khadki", "Maharashtra", "IN", 18.5635, 73.852, "tek9d");
+
+        directory.remember(khadki);
+        directory.remember(directory.resolve("Pune"));
+        directory.remember(khadki);
+
+        assertEquals(1, directory.getLearnedCount());
+        assertEquals(List.of("Khadki, Maharashtra, IN"), ids(directory.suggest("khad", 8)));
+        assertEquals(khadki, directory.resolve("Khadki, Maharashtra, IN"));
+        assertNull(directory.resolve("Khadki"));
+
+        directory.remember(new ResolvedLocation("Dapodi", "Maharashtra", "IN", 18.58, 73.83, "tek9f"));
+        directory.remember(new ResolvedLocation("Aundh", "Maharashtra", "IN", 18.56, 73.81, "tek9c"));
+
+        assertEquals(2, directory.getLearnedCount());
+        assertNull(directory.resolve("Aundh, Maharashtra, IN"));
+    }
+
+    private static List<String> ids(List<CitySuggestion> suggestions) {
+        return suggestions.stream().map(CitySuggestion::id).toList();
+    }
+}
@@ -0,0 +1,119 @@
+package com.weatherapp.service;
+
+import com.weatherapp.dto.ResolvedLocation;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * GazetteerTest - Tests for the embedded city index, using the bundled city list
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+class GazetteerTest {
+
+    private static Gazetteer gazetteer;
+
+    @BeforeAll
+    static void load() throws IOException {
+        try (InputStream in = GazetteerTest.class.getResourceAsStream("/gazetteer/cities.tsv")) {
+            gazetteer = Gazetteer.load(in);
+        }
+    }
+
+    /**
+     * Spellings, alternate names and country qualifiers resolve to the same city
+     */
+    @Test
+    void resolvesNamesAndAlternateNames() {
+        ResolvedLocation pune = gazetteer.resolve("Pune", 5);
+
+        assertEquals("Pune", pune.name());
+        assertEquals("Maharashtra", pune.state());
+        assertEquals("IN", pune.country());
+        assertEquals(18.5214, pune.latitude());
+        assertEquals(73.8545, pune.longitude());
+        assertEquals("tek92", pune.cell());
+        assertEquals(pune, gazetteer.resolve(" pune,IN ", 5));
+        assertEquals(pune, gazetteer.resolve("Poona, Maharashtra, India", 5));
+        assertEquals("Bengaluru", gazetteer.resolve("bangalore", 5).name());
+        assertEquals("São Paulo", gazetteer.resolve("Sao  Paulo", 5).name());
+        assertEquals("Pimpri-Chinchwad", gazetteer.resolve("pimpri chinchwad", 5).name());
+    }
+
+    /**
+     * Ambiguous names resolve to the most populous city unless a state or country is given
+     */
+    @Test
+    void disambiguatesByPopulationAndRegion() {
+        assertEquals("Maharashtra", gazetteer.resolve("Aurangabad", 5).state());
+        assertEquals("Bihar", gazetteer.resolve("Aurangabad, Bihar", 5).state());
+        assertEquals("IN", gazetteer.resolve("Hyderabad", 5).country());
+        assertEquals("Sindh", gazetteer.resolve("Hyderabad, Pakistan", 5).state());
+        assertEquals("GB", gazetteer.resolve("London", 5).country());
+        assertEquals("CA", gazetteer.resolve("London, Ontario", 5).country());
+        assertEquals("Maine", gazetteer.resolve("Portland, Maine, US", 5).state());
+        assertEquals("Maharashtra", gazetteer.resolve("Nanded", 5).state());
+    }
+
+    /**
+     * Unknown names and qualifiers matching no known city are left to the geocoding API
+     */
+    @Test
+    void leavesUnknownCitiesToGeocoding() {
+        assertNull(gazetteer.resolve("Atlantis", 5));
+        assertNull(gazetteer.resolve("Pune, France", 5));
+        assertNull(gazetteer.resolve("Pun", 5));
+        assertNull(gazetteer.resolve(" , ", 5));
+        assertNull(Gazetteer.empty().resolve("Pune", 5));
+    }
+
+    /**
+     * Prefixes find each matching city once, by name or alternate name, most populous first
+     */
+    @Test
+    void completesPrefixesByPopulation() {
+        assertEquals(List.of("Mumbai"), names(gazetteer.complete("bomb", 5, 5)));
+        assertEquals(List.of("Santiago", "San Francisco", "Sangli"), names(gazetteer.complete("San", 5, 5)));
+        assertEquals(List.of("IN", "PK"), gazetteer.complete("hyderabad", 5, 5).stream()
+                .map(match -> match.location().country()).toList());
+
+        List<Gazetteer.Match> matches = gazetteer.complete("a", Gazetteer.MAX_COMPLETIONS, 5);
+        assertEquals(Gazetteer.MAX_COMPLETIONS, matches.size());
+        assertEquals("Ahmedabad", matches.get(0).location().name());
+        for (int i = 1; i < matches.size(); i++) {
+            assertTrue(matches.get(i - 1).population() >= matches.get(i).population());
+        }
+        assertEquals(2, gazetteer.complete("a", 2, 5).size());
+        assertTrue(gazetteer.complete("xq", 5, 5).isEmpty());
+        assertTrue(gazetteer.complete(" ", 5, 5).isEmpty());
+    }
+
+    /**
+     * Malformed lines are reported with their line number
+     */
+    @Test
+    void rejectsMalformedLines() {
+        byte[] list = "# comment\nPune\t\tMaharashtra\tIN\t18.52\tnot a number\t1\n".getBytes(StandardCharsets.UTF_8);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> Gazetteer.load(new ByteArrayInputStream(list)));
+
+        assertTrue(e.getMessage().startsWith("Invalid gazetteer line 2"), e.getMessage());
+    }
+
+    private static List<String> names(List<Gazetteer.Match> matches) {
+        return matches.stream().map(match -> match.location().name()).toList();
+    }
+}
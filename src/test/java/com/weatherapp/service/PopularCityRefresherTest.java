@@ -0,0 +1,108 @@
+package com.weatherapp.service;
+
+import com.weatherapp.cache.PopularityTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * PopularCityRefresherTest - Tests for popularity tracking and refresh-ahead
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+@SpringBootTest(properties = {"weather.http.warmup.enabled=false", "weather.cache.snapshot.enabled=false",
+        "weather.popularity.refresh.enabled=false", "weather.popularity.refresh.budget-per-minute=2"})
+@DirtiesContext
+class PopularCityRefresherTest {
+
+    @Autowired
+    private PopularCityRefresher refresher;
+
+    @Autowired
+    private PopularityTracker tracker;
+
+    @Autowired
+    private WeatherService weatherService;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private MockRestServiceServer server;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        server = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+    }
+
+    /**
+     * Spellings are counted together, and recent hits outrank decayed ones
+     */
+    @Test
+    void ranksByDecayedScore() {
+        tracker.record("Oslo");
+        tracker.record("oslo ");
+        tracker.decay();
+        tracker.record("Lima");
+        tracker.record("Lima");
+
+        List<PopularityTracker.Popularity> top = tracker.top(2);
+
+        assertEquals("Lima", top.get(0).city());
+        assertEquals(2.0, top.get(0).score());
+        assertEquals("Oslo", top.get(1).city());
+        assertEquals(1.0, top.get(1).score());
+    }
+
+    /**
+     * Only stale datasets of popular cities are fetched, within the budget
+     */
+    @Test
+    void refreshesStaleDatasetsWithinBudget() {
+        expect("/data/2.5/weather?", ExpectedCount.once(), "weather.json");
+        expect("/data/2.5/forecast?", ExpectedCount.once(), "forecast.json");
+        expect("/data/2.5/air_pollution?", ExpectedCount.once(), "air_pollution.json");
+        tracker.record(weatherService.getWeatherData("Pune").getCanonicalCityName());
+        server.verify();
+
+        server.reset();
+        expect("/data/2.5/weather?", ExpectedCount.once(), "weather.json");
+        cacheManager.getCache(WeatherDataset.CURRENT.getCacheName()).clear();
+
+        assertEquals(1, refresher.refresh());
+        assertEquals(0, refresher.refresh());
+        server.verify();
+
+        // Three stale datasets exceed the budget of two calls
+        cacheManager.getCacheNames().stream()
+                .filter(name -> name.startsWith("weather-") && !name.equals("weather-alias-cache"))
+                .forEach(name -> cacheManager.getCache(name).clear());
+        assertEquals(0, refresher.refresh());
+        assertEquals(1, refresher.getReport().skippedOverBudget());
+    }
+
+    private void expect(String path, ExpectedCount count, String fixture) {
+        server.expect(count, requestTo(containsString(path)))
+                .andRespond(withSuccess(new ClassPathResource("fixtures/openweathermap/" + fixture),
+                        MediaType.APPLICATION_JSON));
+    }
+}
@@ -0,0 +1,158 @@
+package com.weatherapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weatherapp.dto.WeatherData;
+import com.weatherapp.dto.openweathermap.AirPollutionResponse;
+import com.weatherapp.dto.openweathermap.CurrentWeatherResponse;
+import com.weatherapp.dto.openweathermap.ForecastResponse;
+import com.weatherapp.dto.openweathermap.WeatherCondition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * WeatherDataMapperTest - Tests mapping of recorded OpenWeatherMap payloads
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+class WeatherDataMapperTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private WeatherDataMapper mapper;
+
+    @BeforeEach
+    void setUp() {
+        mapper = new WeatherDataMapper();
+        ReflectionTestUtils.setField(mapper, "units", "metric");
+    }
+
+    /**
+     * Current conditions are copied field by field from the typed response
+     */
+    @Test
+    void extractsCurrentWeather() throws IOException {
+        WeatherData weatherData = mapper.extractCurrentWeatherData(read("weather.json", CurrentWeatherResponse.class));
+
+        assertEquals("Pune", weatherData.getCityName());
+        assertEquals("IN", weatherData.getCountryCode());
+        assertEquals(29.87, weatherData.getTemperature());
+        assertEquals(30.54, weatherData.getFeelsLike());
+        assertEquals(48, weatherData.getHumidity());
+        assertEquals(1012, weatherData.getPressure());
+        assertEquals(3.62, weatherData.getWindSpeed());
+        assertEquals(282, weatherData.getWindDirection());
+        assertEquals(10000, weatherData.getVisibility());
+        assertEquals(40, weatherData.getCloudiness());
+        assertEquals(1697503655L, weatherData.getSunrise());
+        assertEquals("scattered clouds", weatherData.getWeatherCondition());
+        assertEquals("03d", weatherData.getWeatherIcon());
+        assertEquals("Celsius", weatherData.getTemperatureUnit());
+    }
+
+    /**
+     * All 40 forecast entries become hourly forecasts and are grouped into days
+     */
+    @Test
+    void extractsForecastAndAqi() throws IOException {
+        WeatherData weatherData = new WeatherData();
+        mapper.extractForecastData(read("forecast.json", ForecastResponse.class), weatherData);
+        mapper.extractAQIData(read("air_pollution.json", AirPollutionResponse.class), weatherData);
+
+        assertEquals(40, weatherData.getHourlyForecast().size());
+        WeatherData.HourlyForecast first = weatherData.getHourlyForecast().get(0);
+        assertNotNull(first.getTime());
+        assertEquals(19.08, first.getTemperature());
+        assertEquals(46, first.getHumidity());
+        assertEquals("clear sky", first.getWeatherCondition());
+        assertFalse(weatherData.getDailyForecast().isEmpty());
+        assertEquals(3, weatherData.getAqi());
+    }
+
+    /**
+     * Entries are binned by day in the city's time zone, not the server's,
+     * and each day gets its most frequent condition
+     */
+    @Test
+    void aggregatesDaysInCityTimeZone() {
+        ForecastResponse response = new ForecastResponse();
+        ForecastResponse.City city = new ForecastResponse.City();
+        city.setTimezone(19800); // UTC+05:30
+        response.setCity(city);
+        // 2023-10-16 23:30 local, then 2023-10-17 02:30, 05:30 and 08:30 local
+        response.setList(List.of(
+                item(1697479200L, 20.0, 40, "clear sky", "01n"),
+                item(1697490000L, 18.0, 50, "light rain", "10n"),
+                item(1697500800L, 17.0, 60, "clear sky", "01n"),
+                item(1697511600L, 22.0, 70, "light rain", "10d")));
+
+        WeatherData weatherData = new WeatherData();
+        mapper.extractForecastData(response, weatherData);
+
+        List<WeatherData.DailyForecast> days = weatherData.getDailyForecast();
+        assertEquals(2, days.size());
+        // Dated by the city's calendar day, whatever the server's time zone
+        assertEquals(LocalDateTime.of(2023, 10, 16, 0, 0), days.get(0).getDate());
+        assertEquals(LocalDateTime.of(2023, 10, 17, 0, 0), days.get(1).getDate());
+        assertEquals(20.0, days.get(0).getMinTemperature());
+        assertEquals("clear sky", days.get(0).getWeatherCondition());
+
+        WeatherData.DailyForecast second = days.get(1);
+        assertEquals(17.0, second.getMinTemperature());
+        assertEquals(22.0, second.getMaxTemperature());
+        assertEquals(60, second.getHumidity());
+        // Most frequent condition, with the icon of its first occurrence
+        assertEquals("light rain", second.getWeatherCondition());
+        assertEquals("10n", second.getWeatherIcon());
+    }
+
+    /**
+     * The most frequent condition of a day wins over the first one
+     */
+    @Test
+    void usesMostFrequentConditionOfTheDay() {
+        LocalDateTime day = LocalDateTime.of(2023, 10, 17, 0, 0);
+        List<WeatherData.DailyForecast> days = mapper.generateDailyForecast(List.of(
+                new WeatherData.HourlyForecast(day.plusHours(9), 25.0, "broken clouds", "04d", 50, 2.0, 0),
+                new WeatherData.HourlyForecast(day.plusHours(3), 21.0, "clear sky", "01n", 40, 1.0, 0),
+                new WeatherData.HourlyForecast(day.plusHours(6), 23.0, "broken clouds", "04d", 45, 3.0, 3)));
+
+        assertEquals(1, days.size());
+        assertEquals(day, days.get(0).getDate());
+        assertEquals("broken clouds", days.get(0).getWeatherCondition());
+        assertEquals("04d", days.get(0).getWeatherIcon());
+        assertEquals(21.0, days.get(0).getMinTemperature());
+        assertEquals(25.0, days.get(0).getMaxTemperature());
+        assertEquals(2.0, days.get(0).getWindSpeed());
+        assertEquals(1, days.get(0).getPrecipitation());
+    }
+
+    private static ForecastResponse.Item item(long dt, double temp, int humidity, String description, String icon) {
+        ForecastResponse.Main main = new ForecastResponse.Main();
+        main.setTemp(temp);
+        main.setHumidity(humidity);
+        WeatherCondition condition = new WeatherCondition();
+        condition.setDescription(description);
+        condition.setIcon(icon);
+        ForecastResponse.Item item = new ForecastResponse.Item();
+        item.setDt(dt);
+        item.setMain(main);
+        item.setWeather(List.of(condition));
+        return item;
+    }
+
+    private <T> T read(String fixture, Class<T> type) throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/fixtures/openweathermap/" + fixture)) {
+            return objectMapper.readValue(in, type);
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package com.weatherapp.service;
+
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.weatherapp.cache.WeatherCachePolicy;
+import com.weatherapp.dto.ResolvedLocation;
+import com.weatherapp.dto.WeatherData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * WeatherServiceTest - Tests for cell-keyed, per-dataset weather caching
+ *
+ * Upstream calls are answered by MockRestServiceServer with the recorded
+ * OpenWeatherMap fixtures, and every expected call is counted.
+ *
+ * @author Weather App Team
+ * @version 1.0
+ */
+@SpringBootTest(properties = {"weather.http.warmup.enabled=false", "weather.cache.snapshot.enabled=false"})
+@DirtiesContext
+class WeatherServiceTest {
+
+    @Autowired
+    private WeatherService weatherService;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private MockRestServiceServer server;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        server = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+    }
+
+    /**
+     * Different spellings of a city resolve to one cell and share its weather
+     */
+    @Test
+    void aliasesShareOneCell() {
+        expectDatasets(ExpectedCount.once());
+
+        WeatherData first = weatherService.getWeatherData("Pune");
+        WeatherData second = weatherService.getWeatherData("Pune,IN");
+
+        assertTrue(first.isValid());
+        assertFalse(first.getCached());
+        assertTrue(second.getCached());
+        assertEquals("Pune, Maharashtra", second.getCityName());
+        assertEquals("Pune, Maharashtra, IN", first.getCanonicalCityName());
+        assertEquals("Pune, Maharashtra, IN", second.getCanonicalCityName());
+        assertEquals(first.getTemperature(), second.getTemperature());
+        server.verify();
+    }
+
+    /**
+     * Names missing from the gazetteer are geocoded upstream, and share the cell of the same place
+     */
+    @Test
+    void geocodesCitiesMissingFromGazetteer() {
+        expect("/direct?q=", ExpectedCount.once(), "geocoding-direct.json");
+        expectDatasets(ExpectedCount.once());
+
+        WeatherData geocoded = weatherService.getWeatherData("Pune Cantonment");
+        WeatherData known = weatherService.getWeatherData("Pune");
+
+        assertTrue(geocoded.isValid());
+        assertEquals("Pune, Maharashtra", geocoded.getCityName());
+        assertTrue(known.getCached());
+        server.verify();
+    }
+
+    /**
+     * When only current conditions expire, only current conditions are fetched again
+     */
+    @Test
+    void refetchesOnlyMissingDataset() {
+        expectDatasets(ExpectedCount.once());
+        weatherService.getWeatherData("Pune");
+        server.verify();
+
+        server.reset();
+        expect("/data/2.5/weather?", ExpectedCount.once(), "weather.json");
+        cacheManager.getCache(WeatherDataset.CURRENT.getCacheName()).clear();
+
+        WeatherData reloaded = weatherService.getWeatherData("Pune");
+
+        assertTrue(reloaded.isValid());
+        assertNotNull(reloaded.getDailyForecast());
+        assertEquals(3, reloaded.getAqi());
+        server.verify();
+    }
+
+    /**
+     * When current conditions cannot be reloaded, the last known weather is served as stale
+     */
+    @Test
+    void servesLastKnownWeatherWhenUpstreamFails() {
+        expectDatasets(ExpectedCount.once());
+        WeatherData loaded = weatherService.getWeatherData("Pune");
+        server.verify();
+
+        server.reset();
+        server.expect(ExpectedCount.once(), requestTo(containsString("/data/2.5/weather?")))
+                .andRespond(withServerError());
+        cacheManager.getCache(WeatherDataset.CURRENT.getCacheName()).clear();
+
+        WeatherData stale = weatherService.getWeatherData("Pune");
+
+        assertTrue(stale.isValid());
+        assertTrue(stale.isStale());
+        assertEquals(loaded.getTemperature(), stale.getTemperature());
+        assertEquals(loaded.getFetchedAt(), stale.getFetchedAt());
+        server.verify();
+    }
+
+    /**
+     * An optional dataset whose response cannot be mapped is left out, and the request still succeeds
+     */
+    @Test
+    void unmappableOptionalDatasetIsLeftOut() {
+        expect("/data/2.5/weather?", ExpectedCount.once(), "weather.json");
+        expect("/data/2.5/forecast?", ExpectedCount.once(), "forecast.json");
+        server.expect(ExpectedCount.once(), requestTo(containsString("/data/2.5/air_pollution?")))
+                .andRespond(withSuccess("{\"list\":[null]}", MediaType.APPLICATION_JSON));
+
+        WeatherData weatherData = weatherService.getWeatherData("Pune");
+
+        assertTrue(weatherData.isValid());
+        assertNotNull(weatherData.getDailyForecast());
+        assertNull(weatherData.getAqi());
+        server.verify();
+    }
+
+    /**
+     * Size and TTL changes made at runtime also apply to entries already cached
+     */
+    @Test
+    void cachePolicyChangesApplyToCachedEntries() {
+        expectDatasets(ExpectedCount.once());
+        weatherService.getWeatherData("Pune");
+        server.verify();
+        String cell = cacheManager.getCache("weather-alias-cache").get("pune", ResolvedLocation.class).cell();
+
+        WeatherCachePolicy.Settings forecast = weatherService.getCachePolicy(WeatherDataset.FORECAST);
+        WeatherCachePolicy.Settings aqi = weatherService.getCachePolicy(WeatherDataset.AQI);
+        assertTrue(weatherService.getCachePolicyStats().get(WeatherDataset.FORECAST).weightBytes() > 0);
+        try {
+            WeatherService.CachePolicyStats stats = weatherService.updateCachePolicy(WeatherDataset.FORECAST,
+                    new WeatherCachePolicy.Settings(1, forecast.softTtl(), forecast.hardTtl()));
+            assertEquals(0, stats.entries());
+            assertTrue(stats.evictions().get(RemovalCause.SIZE) >= 1);
+
+            weatherService.updateCachePolicy(WeatherDataset.AQI,
+                    new WeatherCachePolicy.Settings(aqi.maxWeightBytes(), Duration.ofNanos(1), Duration.ofNanos(1)));
+            assertNull(cacheManager.getCache(WeatherDataset.AQI.getCacheName()).get(cell));
+        } finally {
+            weatherService.updateCachePolicy(WeatherDataset.FORECAST, forecast);
+            weatherService.updateCachePolicy(WeatherDataset.AQI, aqi);
+        }
+    }
+
+    /**
+     * An entry past its soft TTL is served from cache at once and refreshed by one background load
+     */
+    @Test
+    void servesEntryPastSoftTtlAndRefreshesOnce() throws Exception {
+        expectDatasets(ExpectedCount.once());
+        weatherService.getWeatherData("Pune");
+        server.verify();
+        String cell = cacheManager.getCache("weather-alias-cache").get("pune", ResolvedLocation.class).cell();
+
+        Cache currentCache = cacheManager.getCache(WeatherDataset.CURRENT.getCacheName());
+        LocalDateTime softExpired = LocalDateTime.now()
+                .minus(weatherService.getCachePolicy(WeatherDataset.CURRENT).softTtl()).minusMinutes(1);
+        currentCache.put(cell, currentCache.get(cell, WeatherData.class).toBuilder().fetchedAt(softExpired).build());
+
+        // The refresh holds its upstream call until both requests have been served
+        server.reset();
+        CountDownLatch release = new CountDownLatch(1);
+        server.expect(ExpectedCount.once(), requestTo(containsString("/data/2.5/weather?")))
+                .andRespond(request -> {
+                    awaitRelease(release);
+                    return withSuccess(new ClassPathResource("fixtures/openweathermap/weather.json"),
+                            MediaType.APPLICATION_JSON).createResponse(request);
+                });
+
+        WeatherData first = weatherService.getWeatherData("Pune");
+        WeatherData second = weatherService.getWeatherData("Pune,IN");
+
+        assertTrue(first.isValid());
+        assertTrue(first.getCached());
+        assertFalse(first.isStale());
+        assertTrue(second.getCached());
+        assertEquals(softExpired, currentCache.get(cell, WeatherData.class).getFetchedAt());
+
+        release.countDown();
+        awaitRefresh(currentCache, cell, softExpired);
+        server.verify();
+    }
+
+    /**
+     * An entry past its hard TTL is gone, so the next request reloads it
+     */
+    @Test
+    void reloadsEntryPastHardTtl() {
+        expectDatasets(ExpectedCount.once());
+        WeatherData loaded = weatherService.getWeatherData("Pune");
+        server.verify();
+
+        server.reset();
+        expect("/data/2.5/weather?", ExpectedCount.once(), "weather.json");
+        WeatherCachePolicy.Settings current = weatherService.getCachePolicy(WeatherDataset.CURRENT);
+        try {
+            // Re-timed to a hard TTL it is already past
+            weatherService.updateCachePolicy(WeatherDataset.CURRENT,
+                    new WeatherCachePolicy.Settings(current.maxWeightBytes(), Duration.ofNanos(1), Duration.ofNanos(1)));
+        } finally {
+            weatherService.updateCachePolicy(WeatherDataset.CURRENT, current);
+        }
+
+        WeatherData reloaded = weatherService.getWeatherData("Pune");
+
+        assertTrue(reloaded.isValid());
+        assertFalse(reloaded.getCached());
+        assertFalse(reloaded.isStale());
+        assertNotEquals(loaded.getVersion(), reloaded.getVersion());
+        assertNotNull(reloaded.getDailyForecast());
+        server.verify();
+    }
+
+    /**
+     * A city the geocoding API does not know is cached as not found, and served without upstream calls
+     */
+    @Test
+    void cachesCityNotFound() {
+        // One search per spelling variation
+        server.expect(ExpectedCount.times(3), requestTo(containsString("/direct?q=Atlantis")))
+                .andRespond(withSuccess("[]", MediaType.APPLICATION_JSON));
+        WeatherService.ErrorCachingStats before = weatherService.getErrorCachingStats();
+
+        WeatherData first = weatherService.getWeatherData("Atlantis");
+        WeatherData second = weatherService.getWeatherData("Atlantis");
+
+        assertEquals(WeatherData.ErrorType.NOT_FOUND, first.getErrorType());
+        assertFalse(first.getCached());
+        assertEquals(WeatherData.ErrorType.NOT_FOUND, second.getErrorType());
+        assertTrue(second.getCached());
+        WeatherService.ErrorCachingStats after = weatherService.getErrorCachingStats();
+        assertEquals(before.notFoundCached() + 1, after.notFoundCached());
+        assertEquals(before.notFoundHits() + 1, after.notFoundHits());
+        assertEquals(before.uncachedErrors(), after.uncachedErrors());
+        server.verify();
+    }
+
+    /**
+     * A server error is not cached, so the next request asks the upstream API again
+     */
+    @Test
+    void doesNotCacheUpstreamErrors() {
+        server.expect(ExpectedCount.times(2), requestTo(containsString("/direct?q=Lemuria&")))
+                .andRespond(withServerError());
+        // The other spelling variations find nothing; empty results stay in the geocoding cache
+        server.expect(ExpectedCount.times(2), requestTo(containsString("/direct?q=Lemuria,")))
+                .andRespond(withSuccess("[]", MediaType.APPLICATION_JSON));
+        WeatherService.ErrorCachingStats before = weatherService.getErrorCachingStats();
+
+        WeatherData first = weatherService.getWeatherData("Lemuria");
+        WeatherData second = weatherService.getWeatherData("Lemuria");
+
+        assertEquals(WeatherData.ErrorType.UPSTREAM_ERROR, first.getErrorType());
+        assertEquals(WeatherData.ErrorType.UPSTREAM_ERROR, second.getErrorType());
+        assertFalse(second.getCached());
+        WeatherService.ErrorCachingStats after = weatherService.getErrorCachingStats();
+        assertEquals(before.uncachedErrors() + 2, after.uncachedErrors());
+        assertEquals(before.notFoundCached(), after.notFoundCached());
+        assertEquals(before.notFoundHits(), after.notFoundHits());
+        server.verify();
+    }
+
+    private static void awaitRelease(CountDownLatch release) throws IOException {
+        try {
+            if (!release.await(10, TimeUnit.SECONDS)) {
+                throw new IOException("Response was never released");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while holding the response");
+        }
+    }
+
+    private static void awaitRefresh(Cache cache, String cell, LocalDateTime fetchedAt) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!cache.get(cell, WeatherData.class).getFetchedAt().isAfter(fetchedAt)) {
+            assertTrue(System.nanoTime() < deadline, "Background refresh did not finish");
+            Thread.sleep(10);
+        }
+    }
+
+    private void expectDatasets(ExpectedCount count) {
+        expect("/data/2.5/weather?", count, "weather.json");
+        expect("/data/2.5/forecast?", count, "forecast.json");
+        expect("/data/2.5/air_pollution?", count, "air_pollution.json");
+    }
+
+    private void expect(String path, ExpectedCount count, String fixture) {
+        server.expect(count, requestTo(containsString(path)))
+                .andRespond(withSuccess(new ClassPathResource("fixtures/openweathermap/" + fixture),
+                        MediaType.APPLICATION_JSON));
+    }
+}